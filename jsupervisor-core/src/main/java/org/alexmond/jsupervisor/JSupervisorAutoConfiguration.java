@@ -1,24 +1,34 @@
 package org.alexmond.jsupervisor;
 
+import org.alexmond.jsupervisor.config.EventsConfig;
 import org.alexmond.jsupervisor.config.SupervisorConfig;
+import org.alexmond.jsupervisor.healthcheck.HealthCheckScheduler;
+import org.alexmond.jsupervisor.repository.EventJournal;
 import org.alexmond.jsupervisor.repository.EventRepository;
 import org.alexmond.jsupervisor.repository.ProcessRepository;
+import org.alexmond.jsupervisor.repository.RingBufferEventRepository;
 import org.alexmond.jsupervisor.service.*;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
-import org.springframework.data.map.repository.config.EnableMapRepositories;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.annotation.AsyncConfigurer;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
+import java.nio.file.Path;
+import java.util.concurrent.Executor;
+
 /**
  * Auto-configuration class for JSupervisor framework.
  * Sets up necessary beans and configurations for process supervision functionality.
- * Enables async execution and map repositories for process management.
+ * Enables async execution for process management.
  */
 @AutoConfiguration
 @ConditionalOnClass({ProcessManager.class, SupervisorConfig.class})
@@ -26,7 +36,6 @@ import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 @EnableConfigurationProperties(SupervisorConfig.class)
 @ComponentScan(basePackages = "org.alexmond.jsupervisor")
 @EnableAsync
-@EnableMapRepositories(basePackages = "org.alexmond.jsupervisor.repository")
 public class JSupervisorAutoConfiguration {
 
     /**
@@ -43,22 +52,81 @@ public class JSupervisorAutoConfiguration {
         return scheduler;
     }
 
-//    /**
-//     * Creates an EventRepository bean if none exists.
-//     */
-//    @Bean
-//    @ConditionalOnMissingBean(EventRepository.class)
-//    public EventRepository eventRepository() {
-//        return new EventRepository();
-//    }
+    /**
+     * Creates a HealthCheckScheduler bean if none exists.
+     * Health check probes are timed on its wheel and run on the task scheduler.
+     */
+    @Bean
+    @ConditionalOnMissingBean(HealthCheckScheduler.class)
+    public HealthCheckScheduler healthCheckScheduler(ThreadPoolTaskScheduler threadPoolTaskScheduler) {
+        return new HealthCheckScheduler(threadPoolTaskScheduler);
+    }
+
+    /**
+     * Runs {@code @Async} lifecycle operations on virtual threads when
+     * {@code jsupervisor.executor.mode=virtual}. Stop and restart block while waiting
+     * for processes to exit, which then no longer holds a platform thread per process.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "jsupervisor.executor", name = "mode", havingValue = "virtual")
+    public AsyncConfigurer virtualThreadAsyncConfigurer() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("jsupervisor-vt-");
+        executor.setVirtualThreads(true);
+        return new AsyncConfigurer() {
+            @Override
+            public Executor getAsyncExecutor() {
+                return executor;
+            }
+        };
+    }
+
+    /**
+     * Creates an EventRepository bean if none exists.
+     * Events are kept in a bounded in-memory ring buffer, backed by an on-disk journal if a
+     * journal directory is configured.
+     */
+    @Bean
+    @ConditionalOnMissingBean(EventRepository.class)
+    public EventRepository eventRepository(SupervisorConfig supervisorConfig) {
+        EventsConfig events = supervisorConfig.getEvents();
+        EventJournal journal = events.getJournalDir() != null
+                ? new EventJournal(Path.of(events.getJournalDir()), events.getJournalSegmentSize(),
+                events.getJournalSyncInterval())
+                : null;
+        return new RingBufferEventRepository(events, journal);
+    }
+
+    /**
+     * Creates a ProcessEventBus bean if none exists.
+     * Process events are persisted and passed on to event listeners on its writer thread.
+     */
+    @Bean
+    @ConditionalOnMissingBean(ProcessEventBus.class)
+    public ProcessEventBus processEventBus(SupervisorConfig supervisorConfig, EventRepository eventRepository,
+                                           ApplicationEventPublisher eventPublisher) {
+        return new ProcessEventBus(supervisorConfig.getEvents(), eventRepository, eventPublisher);
+    }
 
     /**
      * Creates a ProcessRepository bean if none exists.
+     * Processes publish their events through the event bus.
      */
     @Bean
     @ConditionalOnMissingBean(ProcessRepository.class)
-    public ProcessRepository processRepository(SupervisorConfig supervisorConfig, ApplicationEventPublisher eventPublisher) {
-        return new ProcessRepository(supervisorConfig, eventPublisher);
+    public ProcessRepository processRepository(SupervisorConfig supervisorConfig, ProcessEventBus processEventBus) {
+        return new ProcessRepository(supervisorConfig, processEventBus::publishEvent);
+    }
+
+    /**
+     * Creates a ProcessRestartManager bean if none exists.
+     * The process manager is looked up lazily as it depends on the monitor this engine is handed to.
+     */
+    @Bean
+    @ConditionalOnMissingBean(ProcessRestartManager.class)
+    public ProcessRestartManager processRestartManager(ProcessRepository processRepository,
+                                                       ObjectProvider<ProcessManager> processManager,
+                                                       ThreadPoolTaskScheduler threadPoolTaskScheduler) {
+        return new ProcessRestartManager(processRepository, processManager, threadPoolTaskScheduler);
     }
 
     /**
@@ -66,8 +134,20 @@ public class JSupervisorAutoConfiguration {
      */
     @Bean
     @ConditionalOnMissingBean(ProcessManagerMonitor.class)
-    public ProcessManagerMonitor processManagerMonitor(ProcessRepository processRepository) {
-        return new ProcessManagerMonitor(processRepository);
+    public ProcessManagerMonitor processManagerMonitor(ProcessRepository processRepository,
+                                                       ProcessRestartManager processRestartManager) {
+        return new ProcessManagerMonitor(processRepository, processRestartManager);
+    }
+
+    /**
+     * Creates a NotifySocketServer bean if none exists.
+     * Processes with notification enabled report their state over its sockets.
+     */
+    @Bean
+    @ConditionalOnMissingBean(NotifySocketServer.class)
+    public NotifySocketServer notifySocketServer(SupervisorConfig supervisorConfig) {
+        return new NotifySocketServer(supervisorConfig.getNotifySocketDir() != null
+                ? Path.of(supervisorConfig.getNotifySocketDir()) : null);
     }
 
     /**
@@ -76,15 +156,19 @@ public class JSupervisorAutoConfiguration {
      * @param processRepository       Repository for managing processes
      * @param processManagerMonitor   Monitor for process lifecycle management
      * @param threadPoolTaskScheduler Scheduler for async tasks
+     * @param healthCheckScheduler    Scheduler for health check probes
+     * @param notifySocketServer      Server for the notification sockets of processes
      * @return ProcessManager instance
      */
     @Bean
     @ConditionalOnMissingBean(ProcessManager.class)
     public ProcessManager processManager(ProcessRepository processRepository,
                                          ProcessManagerMonitor processManagerMonitor,
-                                         ThreadPoolTaskScheduler threadPoolTaskScheduler) {
+                                         ThreadPoolTaskScheduler threadPoolTaskScheduler,
+                                         HealthCheckScheduler healthCheckScheduler,
+                                         NotifySocketServer notifySocketServer) {
         return new ProcessManager(processRepository, processManagerMonitor,
-                threadPoolTaskScheduler);
+                threadPoolTaskScheduler, healthCheckScheduler, notifySocketServer);
     }
 
     /**
@@ -93,15 +177,17 @@ public class JSupervisorAutoConfiguration {
      * @param processRepository       Repository for managing processes
      * @param processManagerMonitor   Monitor for process lifecycle management
      * @param threadPoolTaskScheduler Scheduler for async tasks
+     * @param healthCheckScheduler    Scheduler for health check probes
      * @return ProcessManager instance
      */
     @Bean
     @ConditionalOnMissingBean(ProcessManagerLocal.class)
     public ProcessManagerLocal processManagerLocal(ProcessRepository processRepository,
                                                    ProcessManagerMonitor processManagerMonitor,
-                                                   ThreadPoolTaskScheduler threadPoolTaskScheduler) {
+                                                   ThreadPoolTaskScheduler threadPoolTaskScheduler,
+                                                   HealthCheckScheduler healthCheckScheduler) {
         return new ProcessManagerLocal(processRepository, processManagerMonitor,
-                threadPoolTaskScheduler);
+                threadPoolTaskScheduler, healthCheckScheduler);
     }
 
     /**
@@ -120,17 +206,6 @@ public class JSupervisorAutoConfiguration {
         return new ProcessGroupManager(processRepository, processManager, supervisorConfig);
     }
 
-    /**
-     * Creates a ProcessEventListener bean for handling process-related events.
-     *
-     * @param eventRepository Repository for storing process events
-     * @return ProcsessEventListener instance
-     */
-    @Bean
-    public ProcsessEventListener procsessEventListener(EventRepository eventRepository) {
-        return new ProcsessEventListener(eventRepository);
-    }
-
     /**
      * Creates a JSupervisorStartupManager bean if none exists.
      */
@@ -141,5 +216,15 @@ public class JSupervisorAutoConfiguration {
         return new JSupervisorStartupManager(supervisorConfig, processGroupManager);
     }
 
+    /**
+     * Creates a JSupervisorShutdownManager bean if none exists.
+     */
+    @Bean
+    @ConditionalOnMissingBean(JSupervisorShutdownManager.class)
+    public JSupervisorShutdownManager jSupervisorShutdownManager(ProcessRepository processRepository,
+                                                                 ProcessGroupManager processGroupManager) {
+        return new JSupervisorShutdownManager(processRepository, processGroupManager);
+    }
+
 
 }
\ No newline at end of file
@@ -24,6 +24,15 @@ public abstract class AbstractHealthCheckConfig {
     @Schema(description = "How often (in seconds) to perform the probe", example = "10")
     private Integer periodSeconds = 10;
 
+    /**
+     * Upper bound (in seconds) of the probe period in adaptive mode. When set above
+     * {@code periodSeconds}, the period doubles after every successful probe of a healthy
+     * process up to this bound, and drops back to {@code periodSeconds} after any failure or
+     * status change. Unset to probe at a fixed period.
+     */
+    @Schema(description = "Upper bound (in seconds) of the adaptive probe period; the period grows while probes succeed and drops back to periodSeconds after a failure", example = "120")
+    private Integer maxPeriodSeconds;
+
     /**
      * Seconds after which the probe times out.
      */
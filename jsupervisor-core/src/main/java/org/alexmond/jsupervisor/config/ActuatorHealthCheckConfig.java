@@ -5,6 +5,8 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 
+import java.util.List;
+
 /**
  * Configuration for Spring Boot Actuator health check endpoint.
  * This class extends the base health check configuration with Actuator-specific settings.
@@ -22,4 +24,13 @@ public class ActuatorHealthCheckConfig extends AbstractHealthCheckConfig {
     @Schema(description = "URL of the Actuator health endpoint",
             example = "http://localhost:8080/actuator/health")
     private String actuatorHealthUrl;
+
+    /**
+     * Names of the top-level health components that decide the result, e.g. "db".
+     * When set, the check succeeds only if each listed component reports UP and the overall status is
+     * ignored; when empty, the overall status decides.
+     */
+    @Schema(description = "Health components that must report UP instead of the overall status",
+            example = "[\"db\", \"diskSpace\"]")
+    private List<String> components;
 }
@@ -0,0 +1,24 @@
+package org.alexmond.jsupervisor.config;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+/**
+ * Configuration for command-based health checks.
+ * The command is run by a shell in the working directory of the process; an exit status of 0
+ * means healthy. The pid of the process is available to the command as {@code JSUPERVISOR_PID}.
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@Schema(description = "Configuration for command-based health checks, healthy when the command exits with status 0")
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CmdHealthCheckConfig extends AbstractHealthCheckConfig {
+    /**
+     * The shell command to run
+     */
+    @Schema(description = "Shell command to run, healthy when it exits with status 0",
+            example = "test -S /tmp/app.sock")
+    private String command;
+}
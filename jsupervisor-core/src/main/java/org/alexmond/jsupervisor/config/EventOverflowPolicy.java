@@ -0,0 +1,15 @@
+package org.alexmond.jsupervisor.config;
+
+/**
+ * Defines what happens to a process event published while the event queue is full.
+ */
+public enum EventOverflowPolicy {
+    /**
+     * Discard the event and count it as dropped, so lifecycle operations never wait
+     */
+    DROP,
+    /**
+     * Wait until the event writer has made room in the queue
+     */
+    BLOCK
+}
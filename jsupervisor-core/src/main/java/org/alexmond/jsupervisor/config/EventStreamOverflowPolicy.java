@@ -0,0 +1,16 @@
+package org.alexmond.jsupervisor.config;
+
+/**
+ * Defines what happens to an event stream client that does not keep up with the event rate.
+ */
+public enum EventStreamOverflowPolicy {
+    /**
+     * Skip the events that do not fit into the buffer of the client and tell the client how
+     * many were skipped
+     */
+    DROP,
+    /**
+     * Close the stream, so the client reconnects and resumes from its last event id
+     */
+    DISCONNECT
+}
@@ -0,0 +1,88 @@
+package org.alexmond.jsupervisor.config;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the pipeline that records process events.
+ * Events are queued by the threads changing process state and persisted in batches by a
+ * single writer thread, and kept in a bounded store with count, age and memory limits,
+ * optionally backed by an on-disk journal.
+ */
+@Data
+@Schema(description = "Configuration of the pipeline recording process events")
+public class EventsConfig {
+
+    /**
+     * Maximum number of events waiting to be persisted, rounded up to a power of two.
+     */
+    @Schema(description = "Maximum number of events waiting to be persisted, rounded up to a power of two", defaultValue = "8192")
+    private int queueCapacity = 8192;
+
+    /**
+     * Maximum number of events persisted in one batch.
+     */
+    @Schema(description = "Maximum number of events persisted in one batch", defaultValue = "256")
+    private int batchSize = 256;
+
+    /**
+     * What to do with an event published while the queue is full.
+     */
+    @Schema(description = "What to do with an event published while the queue is full", defaultValue = "drop")
+    private EventOverflowPolicy overflowPolicy = EventOverflowPolicy.DROP;
+
+    /**
+     * Maximum number of events kept; the oldest event is evicted when a new one is stored.
+     */
+    @Schema(description = "Maximum number of events kept, the oldest event is evicted when a new one is stored", defaultValue = "100000")
+    private int maxEvents = 100_000;
+
+    /**
+     * Maximum age of kept events. Zero keeps events regardless of their age.
+     */
+    @Schema(description = "Maximum age of kept events, zero keeps events regardless of their age", defaultValue = "7d")
+    private Duration maxAge = Duration.ofDays(7);
+
+    /**
+     * Estimated memory the kept events may use; limits the number of events further if it
+     * allows fewer than {@code maxEvents}.
+     */
+    @Schema(description = "Estimated memory the kept events may use, limits the number of events kept", defaultValue = "64MB")
+    private DataSize maxMemory = DataSize.ofMegabytes(64);
+
+    /**
+     * Directory of the on-disk event journal the events are replayed from on startup.
+     * Events are only kept in memory if unset.
+     */
+    @Schema(description = "Directory of the on-disk event journal, events are only kept in memory if unset", example = "/var/lib/jsupervisor/events")
+    private String journalDir;
+
+    /**
+     * Size of each memory-mapped journal segment file.
+     */
+    @Schema(description = "Size of each memory-mapped journal segment file", defaultValue = "16MB")
+    private DataSize journalSegmentSize = DataSize.ofMegabytes(16);
+
+    /**
+     * Interval at which a background thread flushes journal writes to disk, whether or not
+     * more events arrive. Zero flushes only full segments and on shutdown.
+     */
+    @Schema(description = "Interval at which a background thread flushes journal writes to disk, zero flushes only full segments and on shutdown", defaultValue = "1s")
+    private Duration journalSyncInterval = Duration.ofSeconds(1);
+
+    /**
+     * Maximum number of events buffered for an event stream client that has not received
+     * them yet.
+     */
+    @Schema(description = "Maximum number of events buffered for an event stream client that has not received them yet", defaultValue = "256")
+    private int streamBufferSize = 256;
+
+    /**
+     * What to do with an event stream client whose buffer is full.
+     */
+    @Schema(description = "What to do with an event stream client whose buffer is full", defaultValue = "disconnect")
+    private EventStreamOverflowPolicy streamOverflowPolicy = EventStreamOverflowPolicy.DISCONNECT;
+}
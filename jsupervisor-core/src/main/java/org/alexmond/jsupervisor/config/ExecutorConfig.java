@@ -0,0 +1,19 @@
+package org.alexmond.jsupervisor.config;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+/**
+ * Configuration of the executor that runs asynchronous lifecycle operations
+ * such as starting, stopping and restarting processes.
+ */
+@Data
+@Schema(description = "Configuration of the executor running asynchronous lifecycle operations")
+public class ExecutorConfig {
+
+    /**
+     * Thread model for lifecycle operations. Virtual mode requires Java 21 or newer at runtime.
+     */
+    @Schema(description = "Thread model for lifecycle operations. Virtual mode requires Java 21 or newer at runtime", defaultValue = "platform")
+    private ExecutorMode mode = ExecutorMode.PLATFORM;
+}
@@ -0,0 +1,15 @@
+package org.alexmond.jsupervisor.config;
+
+/**
+ * Thread model used for asynchronous process lifecycle operations.
+ */
+public enum ExecutorMode {
+    /**
+     * Operations run on the bounded Spring task executor backed by platform threads
+     */
+    PLATFORM,
+    /**
+     * Operations run on virtual threads, so blocking waits do not hold platform threads
+     */
+    VIRTUAL
+}
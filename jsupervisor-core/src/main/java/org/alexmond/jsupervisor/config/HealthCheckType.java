@@ -17,6 +17,10 @@ public enum HealthCheckType {
      * Health check by verifying if a specific port is open
      */
     PORT,
+    /**
+     * Health check by verifying if the process is listening on a specific port, without connecting to it
+     */
+    LISTEN,
     /**
      * Health check using command line execution
      */
@@ -0,0 +1,30 @@
+package org.alexmond.jsupervisor.config;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+/**
+ * Configuration for listen-based health checks.
+ * The process is healthy once it, or one of its descendants, has a TCP socket listening on the
+ * configured port. The check reads the kernel socket tables and does not connect to the process.
+ * Only available on Linux.
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@Schema(description = "Configuration for listen-based health checks that inspect the kernel socket tables without connecting")
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ListenHealthCheckConfig extends AbstractHealthCheckConfig {
+    /**
+     * The port the process is expected to listen on
+     */
+    @Schema(description = "Port the process is expected to listen on, defaults to the port of the process instance", example = "8080")
+    private Integer port;
+
+    /**
+     * Whether sockets of descendant processes count as well
+     */
+    @Schema(description = "Whether sockets opened by descendants of the process count as well", example = "true")
+    private boolean includeDescendants = true;
+}
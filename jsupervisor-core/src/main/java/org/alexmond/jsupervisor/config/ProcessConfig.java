@@ -100,7 +100,6 @@ public class ProcessConfig {
      * If true, the process will be restarted when it exits with a non-zero status.
      */
     @Schema(description = "Determines if the process should be automatically restarted if it stops unexpectedly", defaultValue = "false")
-
     private boolean autoRestart = false;
 
     /**
@@ -111,9 +110,86 @@ public class ProcessConfig {
     @Schema(description = "Specifies the startup order of the process. Lower numbers indicate earlier startup", example = "1")
     private Integer order;
 
-    // other options
-//    startsecs=10
-//    startretries=3
+    /**
+     * Names of the processes this process depends on.
+     * The process is started once all of its dependencies are ready, and stopped before them.
+     * Dependencies are resolved transitively when a group is started.
+     */
+    @Schema(description = "Names of the processes this process depends on. It starts once all of them are ready and stops before them.", example = "['database', 'cache']")
+    private List<String> dependsOn = new ArrayList<>();
+
+    /**
+     * Minimum time in seconds a process must stay up for its start to count as successful.
+     * A process exiting earlier counts as a failed start attempt for auto-restart.
+     */
+    @Schema(description = "Minimum time in seconds a process must stay up for its start to count as successful", defaultValue = "1")
+    private int startSeconds = 1;
+
+    /**
+     * Number of consecutive failed start attempts auto-restart makes before it gives up
+     * and marks the process as crash looping.
+     */
+    @Schema(description = "Number of consecutive failed start attempts before auto-restart gives up and marks the process as crash looping", defaultValue = "3")
+    private int startRetries = 3;
+
+    /**
+     * Delay before the first automatic restart. The delay doubles with every consecutive
+     * failed start attempt, up to the maximum backoff.
+     */
+    @Schema(description = "Delay before the first automatic restart, doubled with every consecutive failed start attempt", defaultValue = "1s")
+    private Duration restartBackoff = Duration.ofSeconds(1);
+
+    /**
+     * Upper bound of the delay between automatic restarts.
+     */
+    @Schema(description = "Upper bound of the delay between automatic restarts", defaultValue = "1m")
+    private Duration restartBackoffMax = Duration.ofMinutes(1);
+
+    /**
+     * Base port of the process. Instance {@code n} of the process listens on {@code port + n},
+     * which is substituted for {@code {{port}}} in arguments, environment, log paths and health
+     * check settings. A port health check without a port probes the instance port.
+     */
+    @Schema(description = "Base port of the process. Instance n uses port + n, substituted for {{port}} in args, env, log paths and health checks", example = "8080")
+    private Integer port;
+
+    /**
+     * Number of pre-started, health-verified standby instances kept next to the active one.
+     * On restart or crash a ready standby is promoted and a replacement is started in the
+     * background. Standby instances are numbered from 1 and use their own {@code {{port}}}.
+     */
+    @Schema(description = "Number of pre-started, health-verified standby instances promoted on restart or crash", defaultValue = "0")
+    private int warmSpares = 0;
+
+    /**
+     * Number of identical instances of the process to run. Instances are numbered from 0 and
+     * each one substitutes its own {@code {{instance}}} and {@code {{port}}}. Can be changed at
+     * runtime by scaling the process; cannot be combined with warm spares.
+     */
+    @Schema(description = "Number of identical instances of the process to run, numbered from 0", defaultValue = "1")
+    private int instances = 1;
+
+    /**
+     * Whether the process reports its state over a notification socket. The path of the
+     * socket is passed in {@code JSUPERVISOR_NOTIFY_SOCKET}; the process writes newline separated
+     * sd_notify style assignments such as {@code READY=1} to it. A process with notification
+     * is ready once it has sent {@code READY=1}.
+     */
+    @Schema(description = "Whether the process reports READY=1, STATUS=, WATCHDOG=1 and STOPPING=1 over the socket in JSUPERVISOR_NOTIFY_SOCKET", defaultValue = "false")
+    private boolean notify = false;
+
+    /**
+     * Maximum time between two {@code WATCHDOG=1} notifications. When it passes without one,
+     * the watchdog action is taken. Only used with notification enabled.
+     */
+    @Schema(description = "Maximum time between two WATCHDOG=1 notifications, unset to disable the watchdog", example = "30s")
+    private Duration watchdogTimeout;
+
+    /**
+     * What to do when the watchdog timeout passes without a keep-alive notification.
+     */
+    @Schema(description = "What to do when the watchdog timeout passes without a keep-alive: unhealthy or restart", defaultValue = "unhealthy")
+    private WatchdogAction watchdogAction = WatchdogAction.UNHEALTHY;
 
     /**
      * Groups that this process belongs to.
@@ -190,6 +266,22 @@ public class ProcessConfig {
     @NestedConfigurationProperty
     private PortHealthCheckConfig portHealthCheck;
 
+    /**
+     * Configuration for listen-based health checks.
+     * Used when healthCheckType is set to LISTEN.
+     */
+    @Schema(description = "Configuration for listen-based health checks")
+    @NestedConfigurationProperty
+    private ListenHealthCheckConfig listenHealthCheck;
+
+    /**
+     * Configuration for command-based health checks.
+     * Used when healthCheckType is set to CMD.
+     */
+    @Schema(description = "Configuration for command-based health checks")
+    @NestedConfigurationProperty
+    private CmdHealthCheckConfig cmdHealthCheck;
+
     public Map<String, Object> toMap() {
         ObjectMapper objectMapper = new ObjectMapper();
 //        objectMapper.registerModule(new JavaTimeModule());
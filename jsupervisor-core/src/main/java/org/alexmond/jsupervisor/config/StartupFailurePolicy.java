@@ -0,0 +1,19 @@
+package org.alexmond.jsupervisor.config;
+
+/**
+ * Defines what happens when a startup tier does not become ready in time.
+ */
+public enum StartupFailurePolicy {
+    /**
+     * Log the failure and continue with the next tier
+     */
+    CONTINUE,
+    /**
+     * Stop starting further tiers and leave already started processes running
+     */
+    ABORT,
+    /**
+     * Stop starting further tiers and stop every process started by this operation
+     */
+    ROLLBACK
+}
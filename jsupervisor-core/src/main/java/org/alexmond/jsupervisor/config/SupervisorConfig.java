@@ -33,10 +33,42 @@ public class SupervisorConfig {
     private boolean autoStart = false;
 
     /**
-     * Delay between auto-starting processes to prevent system overload.
+     * Additional settle delay after a startup tier has become ready, before the next tier starts.
      */
-    @Schema(description = "Delay between auto-starting processes")
-    private Duration autoStartDelay = Duration.ofSeconds(10);
+    @Schema(description = "Additional delay after a startup tier has become ready, before the next tier starts", defaultValue = "0s")
+    private Duration autoStartDelay = Duration.ZERO;
+
+    /**
+     * Maximum time to wait for all processes of a startup tier to become ready.
+     * A process is ready when it is healthy, or running if it has no health check.
+     */
+    @Schema(description = "Maximum time to wait for all processes of a startup tier to become ready", defaultValue = "2m")
+    private Duration tierReadyTimeout = Duration.ofMinutes(2);
+
+    /**
+     * What to do when a startup tier fails or does not become ready within the tier timeout.
+     */
+    @Schema(description = "What to do when a startup tier fails or does not become ready in time", defaultValue = "continue")
+    private StartupFailurePolicy tierFailurePolicy = StartupFailurePolicy.CONTINUE;
+
+    /**
+     * Executor settings for asynchronous lifecycle operations.
+     */
+    @Schema(description = "Executor settings for asynchronous lifecycle operations")
+    private ExecutorConfig executor = new ExecutorConfig();
+
+    /**
+     * Settings of the pipeline recording process events.
+     */
+    @Schema(description = "Settings of the pipeline recording process events")
+    private EventsConfig events = new EventsConfig();
+
+    /**
+     * Directory in which the notification sockets of processes are created.
+     * Defaults to a new temporary directory.
+     */
+    @Schema(description = "Directory for the notification sockets of processes, a new temporary directory if unset", example = "/run/jsupervisor")
+    private String notifySocketDir;
 
     /**
      * Collection of process configurations to be supervised.
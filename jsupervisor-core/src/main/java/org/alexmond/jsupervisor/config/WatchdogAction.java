@@ -0,0 +1,15 @@
+package org.alexmond.jsupervisor.config;
+
+/**
+ * Defines what happens when a process with a watchdog stops sending keep-alive notifications.
+ */
+public enum WatchdogAction {
+    /**
+     * Mark the process unhealthy until it sends the next keep-alive
+     */
+    UNHEALTHY,
+    /**
+     * Stop the process and start it again
+     */
+    RESTART
+}
@@ -0,0 +1,201 @@
+package org.alexmond.jsupervisor.healthcheck;
+
+import lombok.extern.slf4j.Slf4j;
+import org.alexmond.jsupervisor.config.AbstractHealthCheckConfig;
+import org.alexmond.jsupervisor.model.HealthCheckStats;
+import org.alexmond.jsupervisor.model.ProcessStatus;
+import org.alexmond.jsupervisor.model.RunningProcess;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Base class of health checks that applies the consecutive success and failure thresholds
+ * of the configuration to the results of asynchronous probes.
+ * <p>
+ * {@link #run()} only starts a probe and returns; the result is recorded when the probe
+ * completes. A new probe is not started while the previous one of the same check is still
+ * in flight, and probes rejected for lack of capacity are skipped without counting as failures.
+ * The latency and outcome of every completed probe are kept in a fixed-memory histogram and a
+ * ring of recent results.
+ * <p>
+ * With {@code maxPeriodSeconds} configured the probe period adapts to the stability of the
+ * process: it doubles with every successful probe of a healthy process, up to the maximum, and
+ * returns to {@code periodSeconds} after any failed probe or status change. A process that is
+ * not healthy is always probed at the shortest period.
+ *
+ * @param <T> type of the health check configuration
+ */
+@Slf4j
+public abstract class AbstractHealthCheck<T extends AbstractHealthCheckConfig> implements HealthCheck {
+    protected final T config;
+    protected final RunningProcess runningProcess;
+    private final AtomicBoolean probeInFlight = new AtomicBoolean();
+    private final ProbeLatencyHistogram latencyHistogram = new ProbeLatencyHistogram();
+    private final ProbeResultRing recentResults = new ProbeResultRing(ProbeResultRing.DEFAULT_CAPACITY);
+    private volatile boolean cachedHealth = false;
+    private int consecutiveSuccesses = 0;
+    private int consecutiveFailures = 0;
+    private final long minPeriodNanos;
+    private final long maxPeriodNanos;
+    private volatile long currentPeriodNanos;
+    private volatile long lastProbeStartNanos;
+
+    /**
+     * Creates a new health check.
+     *
+     * @param config         Configuration containing timeout and threshold settings
+     * @param runningProcess The process being monitored
+     */
+    protected AbstractHealthCheck(T config, RunningProcess runningProcess) {
+        this.config = config;
+        this.runningProcess = runningProcess;
+        this.minPeriodNanos = getPeriod().toNanos();
+        this.maxPeriodNanos = config.getMaxPeriodSeconds() != null
+                ? Math.max(minPeriodNanos, Duration.ofSeconds(config.getMaxPeriodSeconds()).toNanos())
+                : minPeriodNanos;
+        this.currentPeriodNanos = minPeriodNanos;
+    }
+
+    /**
+     * Starts a single probe.
+     *
+     * @return future completing with true if the probe succeeded, false or exceptionally if it failed
+     */
+    protected abstract CompletableFuture<Boolean> probe();
+
+    /**
+     * Returns the cached health state of the monitored process.
+     *
+     * @return true if the process is considered healthy, false otherwise
+     */
+    @Override
+    public boolean check() {
+        return cachedHealth;
+    }
+
+    /**
+     * Returns the configured initial delay.
+     *
+     * @return {@code initialDelaySeconds}, zero if not set
+     */
+    @Override
+    public Duration getInitialDelay() {
+        return config.getInitialDelaySeconds() != null ? Duration.ofSeconds(config.getInitialDelaySeconds()) : Duration.ZERO;
+    }
+
+    /**
+     * Returns the configured probe period.
+     *
+     * @return {@code periodSeconds}, or the default period if not set
+     */
+    @Override
+    public Duration getPeriod() {
+        return config.getPeriodSeconds() != null ? Duration.ofSeconds(config.getPeriodSeconds()) : HealthCheck.super.getPeriod();
+    }
+
+    /**
+     * Returns whether the current, possibly stretched, period has passed since the last probe.
+     * Half of the shortest period is allowed as tolerance, since the scheduler runs the check
+     * at multiples of its shortest period.
+     *
+     * @return true if the check should probe now
+     */
+    @Override
+    public boolean isDue() {
+        long lastStart = lastProbeStartNanos;
+        return maxPeriodNanos == minPeriodNanos || lastStart == 0
+                || System.nanoTime() - lastStart >= currentPeriodNanos - minPeriodNanos / 2;
+    }
+
+    /**
+     * Starts a probe unless the previous one is still in flight and records its result
+     * once it completes.
+     */
+    @Override
+    public void run() {
+        if (!probeInFlight.compareAndSet(false, true)) {
+            log.debug("Previous health check of '{}' still in flight, skipping", runningProcess.getProcessName());
+            return;
+        }
+        log.debug("Performing health check of '{}'", runningProcess.getProcessName());
+        long startedAt = System.nanoTime();
+        lastProbeStartNanos = startedAt;
+        CompletableFuture<Boolean> probe;
+        try {
+            probe = probe();
+        } catch (RuntimeException e) {
+            probe = CompletableFuture.failedFuture(e);
+        }
+        probe.whenComplete((healthy, ex) -> {
+            probeInFlight.set(false);
+            Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+            if (cause instanceof RejectedExecutionException) {
+                log.debug("Health check of '{}' skipped: {}", runningProcess.getProcessName(), cause.getMessage());
+                lastProbeStartNanos = 0;
+                return;
+            }
+            if (cause != null) {
+                log.warn("Health check of '{}' failed {}", runningProcess.getProcessName(), cause.toString());
+            }
+            boolean success = cause == null && Boolean.TRUE.equals(healthy);
+            recordProbe(System.nanoTime() - startedAt, success, cause);
+            recordResult(success);
+        });
+    }
+
+    /**
+     * Returns the latency histogram and the most recent results of the probes.
+     *
+     * @return probe statistics
+     */
+    @Override
+    public synchronized HealthCheckStats getStats() {
+        return new HealthCheckStats(latencyHistogram.snapshot(), recentResults.snapshot(),
+                Duration.ofNanos(currentPeriodNanos).toMillis());
+    }
+
+    private synchronized void recordProbe(long latencyNanos, boolean success, Throwable cause) {
+        latencyHistogram.record(latencyNanos, success);
+        recentResults.record(System.currentTimeMillis(), latencyNanos, success,
+                cause != null ? cause.getClass().getName() : null);
+    }
+
+    /**
+     * Updates the consecutive success and failure counters and changes the health status
+     * of the process once a threshold is reached.
+     *
+     * @param healthy result of the probe
+     */
+    protected synchronized void recordResult(boolean healthy) {
+        boolean previousHealth = cachedHealth;
+        if (healthy) {
+            consecutiveSuccesses++;
+            consecutiveFailures = 0;
+            if (consecutiveSuccesses >= config.getSuccessThreshold()) {
+                cachedHealth = true;
+                runningProcess.setHealthStatus(ProcessStatus.healthy);
+            }
+        } else {
+            consecutiveFailures++;
+            consecutiveSuccesses = 0;
+            if (consecutiveFailures >= config.getFailureThreshold()) {
+                cachedHealth = false;
+                runningProcess.setHealthStatus(ProcessStatus.unhealthy);
+            }
+        }
+        adaptPeriod(healthy && cachedHealth && previousHealth);
+    }
+
+    /**
+     * Stretches the probe period after a stable result and resets it otherwise.
+     *
+     * @param stable whether the probe succeeded and the process was and is healthy
+     */
+    private void adaptPeriod(boolean stable) {
+        currentPeriodNanos = stable ? Math.min(currentPeriodNanos * 2, maxPeriodNanos) : minPeriodNanos;
+    }
+}
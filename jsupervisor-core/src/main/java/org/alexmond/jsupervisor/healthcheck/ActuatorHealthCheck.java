@@ -1,133 +1,109 @@
 package org.alexmond.jsupervisor.healthcheck;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.alexmond.jsupervisor.config.ActuatorHealthCheckConfig;
-import org.alexmond.jsupervisor.model.ProcessStatus;
 import org.alexmond.jsupervisor.model.RunningProcess;
 
-import javax.net.ssl.SSLContext;
-import javax.net.ssl.SSLParameters;
-import javax.net.ssl.TrustManager;
-import javax.net.ssl.X509TrustManager;
-import java.net.http.HttpClient;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
 import java.net.http.HttpRequest;
-import java.security.KeyManagementException;
-import java.security.NoSuchAlgorithmException;
-import java.security.SecureRandom;
-import java.security.cert.X509Certificate;
+import java.net.http.HttpResponse;
 import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Health check implementation that monitors application health through Spring Boot Actuator's health endpoint.
  * This implementation supports consecutive success/failure thresholds and caches the health state.
+ * <p>
+ * The response is stream-parsed and only read up to the statuses the check needs. By default
+ * the top-level status decides; if {@code components} are configured, every one of them has to
+ * report UP instead.
+ * <p>
+ * Checks of several processes that poll the same endpoint for the same components share one
+ * request per period through {@link HealthProbeEngine#sendShared}.
  */
 @Slf4j
-public class ActuatorHealthCheck implements HealthCheck {
-    private final HttpClient httpClient;
-    private final ObjectMapper objectMapper;
-    ActuatorHealthCheckConfig config;
-    private boolean cachedHealth = false;
-    private int consecutiveSuccesses = 0;
-    private int consecutiveFailures = 0;
-    private RunningProcess runningProcess;
+public class ActuatorHealthCheck extends AbstractHealthCheck<ActuatorHealthCheckConfig> {
+    private final HealthProbeEngine probeEngine;
+    private final List<String> components;
+    private final String probeKey;
+    private volatile String[] lastStatuses;
 
     /**
      * Creates a new ActuatorHealthCheck instance.
      *
      * @param config         Configuration containing actuator endpoint URL, timeout, and threshold settings
      * @param runningProcess The process being monitored
+     * @param probeEngine    Shared engine executing the HTTP requests
      */
-    public ActuatorHealthCheck(ActuatorHealthCheckConfig config, RunningProcess runningProcess) {
-        this.config = config;
-        this.runningProcess = runningProcess;
-        this.httpClient = createHttpClient(config);
-        this.objectMapper = new ObjectMapper();
-    }
-
-    private HttpClient createHttpClient(ActuatorHealthCheckConfig config) {
-        HttpClient.Builder builder = HttpClient.newBuilder()
-                .followRedirects(HttpClient.Redirect.NORMAL)
-                .connectTimeout(Duration.ofSeconds(config.getTimeoutSeconds()));
-
-        if (config.isIgnoreSslErrors()) {
-            try {
-                SSLContext sslContext = SSLContext.getInstance("TLS");
-                sslContext.init(null, new TrustManager[]{new X509TrustManager() {
-                    public void checkClientTrusted(X509Certificate[] chain, String authType) {
-                    }
-
-                    public void checkServerTrusted(X509Certificate[] chain, String authType) {
-                    }
-
-                    public X509Certificate[] getAcceptedIssuers() {
-                        return new X509Certificate[0];
-                    }
-                }}, new SecureRandom());
-
-                builder.sslContext(sslContext)
-                        .sslParameters(new SSLParameters());
-            } catch (NoSuchAlgorithmException | KeyManagementException e) {
-                log.warn("Failed to initialize SSL context for ignoring certificate validation: {}", e.getMessage());
-            }
-        }
-
-        return builder.build();
+    public ActuatorHealthCheck(ActuatorHealthCheckConfig config, RunningProcess runningProcess, HealthProbeEngine probeEngine) {
+        super(config, runningProcess);
+        this.probeEngine = probeEngine;
+        this.components = config.getComponents() != null ? List.copyOf(config.getComponents()) : List.of();
+        this.probeKey = "actuator " + config.isIgnoreSslErrors() + " " + config.getTimeoutSeconds() + " "
+                + config.getActuatorHealthUrl() + " " + components;
     }
 
     /**
-     * Returns the cached health state of the monitored application.
+     * Calls the actuator endpoint. Non-200 responses count as DOWN without reading the body.
      *
-     * @return true if the application is considered healthy, false otherwise
+     * @return future completing with the result of the request
      */
     @Override
-    public boolean check() {
-        return cachedHealth;
+    protected CompletableFuture<Boolean> probe() {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(config.getActuatorHealthUrl()))
+                .timeout(Duration.ofSeconds(config.getTimeoutSeconds()))
+                .GET()
+                .build();
+        HttpResponse.BodyHandler<String[]> statusHandler = responseInfo -> responseInfo.statusCode() == 200
+                ? newStatusSubscriber()
+                : HttpResponse.BodySubscribers.replacing(null);
+        return probeEngine.sendShared(probeKey, getPeriod(), request, statusHandler, config.isIgnoreSslErrors())
+                .thenApply(response -> isUp(response.body()));
     }
 
     /**
-     * Performs the health check by calling the actuator endpoint.
-     * Updates the cached health state based on consecutive successes/failures
-     * and configured thresholds.
+     * Returns the statuses of the configured components as seen by the last completed probe.
+     *
+     * @return component names mapped to their status, null for components that were not reported
      */
-    @Override
-    public void run() {
-        log.debug("Performing health check");
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(java.net.URI.create(config.getActuatorHealthUrl()))
-                .GET()
-                .build();
-        Map response = null;
+    public Map<String, String> getComponentStatuses() {
+        String[] last = lastStatuses;
+        Map<String, String> statuses = new LinkedHashMap<>();
+        for (int i = 0; i < components.size(); i++) {
+            statuses.put(components.get(i), last != null ? last[i + 1] : null);
+        }
+        return statuses;
+    }
+
+    private ActuatorStatusSubscriber newStatusSubscriber() {
         try {
-            var httpResponse = httpClient.send(request, java.net.http.HttpResponse.BodyHandlers.ofString());
-            if (httpResponse.statusCode() != 200) {
-                response = Map.of("status", "DOWN");
-            } else {
-                response = objectMapper.readValue(httpResponse.body(), Map.class);
-            }
-        } catch (Exception e) {
-            log.error("Failed to execute health check request: {}", e.toString());
-            response = Map.of("status", "DOWN");
+            return new ActuatorStatusSubscriber(components);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-        String status = (response != null && response.containsKey("status")) ? String.valueOf(response.get("status")) : "DOWN";
-        log.debug("Health check status: {}", status);
-        boolean currentHealth = "UP".equalsIgnoreCase(status);
+    }
 
-        if (currentHealth) {
-            consecutiveSuccesses++;
-            consecutiveFailures = 0;
-            if (consecutiveSuccesses >= config.getSuccessThreshold()) {
-                cachedHealth = true;
-                runningProcess.setProcessStatus(ProcessStatus.healthy);
-            }
-        } else {
-            consecutiveFailures++;
-            consecutiveSuccesses = 0;
-            if (consecutiveFailures >= config.getFailureThreshold()) {
-                cachedHealth = false;
-                runningProcess.setProcessStatus(ProcessStatus.unhealthy);
+    private boolean isUp(String[] statuses) {
+        lastStatuses = statuses;
+        if (statuses == null) {
+            log.debug("Health check status: non-200 response");
+            return false;
+        }
+        log.debug("Health check status: {}", statuses[0]);
+        if (components.isEmpty()) {
+            return "UP".equalsIgnoreCase(statuses[0]);
+        }
+        for (int i = 1; i < statuses.length; i++) {
+            if (!"UP".equalsIgnoreCase(statuses[i])) {
+                return false;
             }
         }
+        return true;
     }
 }
@@ -0,0 +1,178 @@
+package org.alexmond.jsupervisor.healthcheck;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+
+/**
+ * Streams an actuator health document through a non-blocking JSON parser and extracts only
+ * the top-level {@code status} and, optionally, the statuses of selected top-level components.
+ * <p>
+ * The body is never buffered as a whole: every received chunk is fed to the parser and
+ * discarded, and the subscription is cancelled as soon as all requested statuses have been seen,
+ * so the remainder of a large document with details is not read at all.
+ * <p>
+ * The body is an array holding the top-level status followed by the status of each requested
+ * component. It is not modified once the response completes, so the result of one probe can be
+ * shared by several checks.
+ */
+class ActuatorStatusSubscriber implements HttpResponse.BodySubscriber<String[]> {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final int MAX_DEPTH = 3;
+
+    private final CompletableFuture<String[]> result = new CompletableFuture<>();
+    private final List<String> components;
+    private final String[] componentStatuses;
+    private final String[] fieldNames = new String[MAX_DEPTH];
+    private final JsonParser parser;
+    private final ByteArrayFeeder feeder;
+    private byte[] chunk = new byte[0];
+    private Flow.Subscription subscription;
+    private int depth;
+    private String status;
+    private int missingComponents;
+
+    /**
+     * Creates a subscriber for one response.
+     *
+     * @param components names of the top-level components whose status is extracted
+     * @throws IOException if the parser cannot be created
+     */
+    ActuatorStatusSubscriber(List<String> components) throws IOException {
+        this.components = components;
+        this.componentStatuses = new String[components.size()];
+        this.missingComponents = components.size();
+        this.parser = JSON_FACTORY.createNonBlockingByteArrayParser();
+        this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+    }
+
+    /**
+     * Returns the top-level status at index 0 followed by the component statuses, by index in
+     * the requested components plus one. Statuses missing from the document are null.
+     */
+    @Override
+    public CompletionStage<String[]> getBody() {
+        return result;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        subscription.request(1);
+    }
+
+    @Override
+    public void onNext(List<ByteBuffer> buffers) {
+        if (result.isDone()) {
+            return;
+        }
+        try {
+            for (ByteBuffer buffer : buffers) {
+                int length = buffer.remaining();
+                if (chunk.length < length) {
+                    chunk = new byte[length];
+                }
+                buffer.get(chunk, 0, length);
+                feeder.feedInput(chunk, 0, length);
+                if (parseAvailable()) {
+                    finish();
+                    subscription.cancel();
+                    return;
+                }
+            }
+            subscription.request(1);
+        } catch (IOException | RuntimeException e) {
+            fail(e);
+            subscription.cancel();
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        fail(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        if (result.isDone()) {
+            return;
+        }
+        try {
+            feeder.endOfInput();
+            parseAvailable();
+            finish();
+        } catch (IOException | RuntimeException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Consumes all tokens of the input fed so far.
+     *
+     * @return true once every requested status has been found
+     */
+    private boolean parseAvailable() throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            switch (token) {
+                case START_OBJECT, START_ARRAY -> depth++;
+                case END_OBJECT, END_ARRAY -> depth--;
+                case FIELD_NAME -> {
+                    if (depth >= 1 && depth <= MAX_DEPTH) {
+                        fieldNames[depth - 1] = parser.currentName();
+                    }
+                }
+                case VALUE_STRING -> onString(parser.getText());
+                default -> {
+                }
+            }
+            if (status != null && missingComponents == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void onString(String value) {
+        if (depth == 1 && "status".equals(fieldNames[0])) {
+            status = value;
+        } else if (depth == 3 && "components".equals(fieldNames[0]) && "status".equals(fieldNames[2])) {
+            int index = components.indexOf(fieldNames[1]);
+            if (index >= 0 && componentStatuses[index] == null) {
+                componentStatuses[index] = value;
+                missingComponents--;
+            }
+        }
+    }
+
+    private void finish() {
+        closeParser();
+        String[] statuses = new String[componentStatuses.length + 1];
+        statuses[0] = status;
+        System.arraycopy(componentStatuses, 0, statuses, 1, componentStatuses.length);
+        result.complete(statuses);
+    }
+
+    private void fail(Throwable throwable) {
+        closeParser();
+        result.completeExceptionally(throwable);
+    }
+
+    private void closeParser() {
+        try {
+            parser.close();
+        } catch (IOException e) {
+            // nothing to release for a byte array parser
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package org.alexmond.jsupervisor.healthcheck;
+
+import java.io.IOException;
+
+/**
+ * Thrown for a probe that was not sent because the circuit breaker of its target is open.
+ */
+public class CircuitOpenException extends IOException {
+
+    /**
+     * Creates a new exception.
+     *
+     * @param target the target whose circuit is open
+     */
+    public CircuitOpenException(String target) {
+        super("Circuit open for " + target + " after consecutive probe timeouts");
+    }
+}
@@ -0,0 +1,48 @@
+package org.alexmond.jsupervisor.healthcheck;
+
+import lombok.extern.slf4j.Slf4j;
+import org.alexmond.jsupervisor.config.CmdHealthCheckConfig;
+import org.alexmond.jsupervisor.model.RunningProcess;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Health check implementation that runs a shell command and considers the process healthy
+ * when the command exits with status 0. Commands are executed by the helper shells of a
+ * shared {@link CommandProbeEngine}.
+ */
+@Slf4j
+public class CmdHealthCheck extends AbstractHealthCheck<CmdHealthCheckConfig> {
+    private final CommandProbeEngine probeEngine;
+
+    /**
+     * Creates a new CmdHealthCheck instance.
+     *
+     * @param config         Configuration containing the command, timeout and threshold settings
+     * @param runningProcess The process being monitored
+     * @param probeEngine    Shared engine executing the commands
+     */
+    public CmdHealthCheck(CmdHealthCheckConfig config, RunningProcess runningProcess, CommandProbeEngine probeEngine) {
+        super(config, runningProcess);
+        this.probeEngine = probeEngine;
+    }
+
+    /**
+     * Runs the command in the working directory of the process, with the pid of the process
+     * exported as {@code JSUPERVISOR_PID}.
+     *
+     * @return future completing with true if the command exited with status 0
+     */
+    @Override
+    protected CompletableFuture<Boolean> probe() {
+        if (config.getCommand() == null || config.getCommand().isBlank()) {
+            return CompletableFuture.failedFuture(new IllegalStateException("No command configured"));
+        }
+        Long pid = runningProcess.getPid();
+        Map<String, String> environment = pid != null ? Map.of("JSUPERVISOR_PID", pid.toString()) : Map.of();
+        return probeEngine.run(config.getCommand(), runningProcess.getWorkingDirectory(), environment,
+                Duration.ofSeconds(config.getTimeoutSeconds()));
+    }
+}
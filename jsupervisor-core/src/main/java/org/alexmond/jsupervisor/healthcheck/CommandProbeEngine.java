@@ -0,0 +1,221 @@
+package org.alexmond.jsupervisor.healthcheck;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+/**
+ * Executes command health probes for all supervised processes.
+ * <p>
+ * Commands are not started with a new JVM process each. Instead they are written to long-lived
+ * helper shells over their standard input; each command runs in a subshell with its output
+ * discarded, after which the helper prints a marker line carrying the exit status. Idle helpers
+ * are pooled and reused, so a probe costs the fork of a small shell rather than a fork/exec from
+ * the JVM. The number of probes executing at once, and with it the number of helper shells, is
+ * bounded; excess probes fail with a {@link RejectedExecutionException}. A probe that exceeds its
+ * timeout fails with a {@link TimeoutException} and its helper shell is killed together with the
+ * command; either the timeout or the finished command claims the helper, so a helper whose
+ * command timed out is never returned to the pool.
+ */
+@Slf4j
+public class CommandProbeEngine {
+
+    /**
+     * Default upper bound of concurrently executing command probes.
+     */
+    public static final int DEFAULT_MAX_CONCURRENT = 4;
+
+    private static final String SHELL = "/bin/sh";
+    private static final Pattern VARIABLE_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+
+    private final ExecutorService executor;
+    private final Semaphore running;
+    private final Queue<Coprocess> idle = new ConcurrentLinkedQueue<>();
+    @Getter
+    private final int maxConcurrent;
+
+    /**
+     * Creates a new command probe engine.
+     *
+     * @param maxConcurrent maximum number of commands executing at the same time
+     */
+    public CommandProbeEngine(int maxConcurrent) {
+        this.maxConcurrent = maxConcurrent;
+        this.running = new Semaphore(maxConcurrent);
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("jsupervisor-cmd-probe-");
+        threadFactory.setDaemon(true);
+        this.executor = Executors.newFixedThreadPool(maxConcurrent, threadFactory);
+    }
+
+    /**
+     * Runs a command in one of the helper shells.
+     *
+     * @param command          shell command to run
+     * @param workingDirectory directory the command runs in, or null for the current directory
+     * @param environment      variables exported to the command
+     * @param timeout          maximum time the command may take
+     * @return future completing with true if the command exited with status 0, false for any other
+     * status, or exceptionally if the command timed out or the helper shell failed
+     */
+    public CompletableFuture<Boolean> run(String command, String workingDirectory, Map<String, String> environment,
+                                          Duration timeout) {
+        if (!running.tryAcquire()) {
+            return CompletableFuture.failedFuture(
+                    new RejectedExecutionException("Too many command probes running: " + maxConcurrent));
+        }
+        String script;
+        try {
+            script = buildScript(command, workingDirectory, environment);
+        } catch (IllegalArgumentException e) {
+            running.release();
+            return CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        try {
+            executor.execute(() -> execute(script, timeout, result));
+        } catch (RejectedExecutionException e) {
+            running.release();
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of commands currently executing.
+     *
+     * @return number of running command probes
+     */
+    public int getRunning() {
+        return maxConcurrent - running.availablePermits();
+    }
+
+    private void execute(String script, Duration timeout, CompletableFuture<Boolean> result) {
+        Coprocess coprocess = null;
+        try {
+            coprocess = acquire();
+            Coprocess current = coprocess;
+            // claimed either by the timeout, which kills the helper, or by the finished command,
+            // which returns it to the pool, never by both
+            AtomicBoolean claimed = new AtomicBoolean();
+            result.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS)
+                    .whenComplete((healthy, ex) -> {
+                        if (ex instanceof TimeoutException && claimed.compareAndSet(false, true)) {
+                            current.kill();
+                        }
+                    });
+            int status = coprocess.execute(script);
+            if (claimed.compareAndSet(false, true)) {
+                idle.add(coprocess);
+            } else {
+                coprocess.kill();
+            }
+            running.release();
+            result.complete(status == 0);
+        } catch (IOException | RuntimeException e) {
+            if (coprocess != null) {
+                coprocess.kill();
+            }
+            running.release();
+            result.completeExceptionally(e);
+        }
+    }
+
+    private Coprocess acquire() throws IOException {
+        Coprocess coprocess;
+        while ((coprocess = idle.poll()) != null) {
+            if (coprocess.process.isAlive()) {
+                return coprocess;
+            }
+        }
+        return new Coprocess();
+    }
+
+    /**
+     * Wraps a command so that it runs in a subshell of the helper, without access to the
+     * helper's standard streams, and the helper reports its exit status afterwards.
+     *
+     * @throws IllegalArgumentException if an environment variable name is not a valid shell name
+     */
+    private static String buildScript(String command, String workingDirectory, Map<String, String> environment) {
+        environment.keySet().forEach(name -> {
+            if (name == null || !VARIABLE_NAME.matcher(name).matches()) {
+                throw new IllegalArgumentException("Invalid environment variable name: " + name);
+            }
+        });
+        StringBuilder script = new StringBuilder("(");
+        if (workingDirectory != null) {
+            script.append(" cd ").append(quote(workingDirectory)).append(" || exit 126;");
+        }
+        environment.forEach((name, value) ->
+                script.append(' ').append(name).append('=').append(quote(value)).append("; export ").append(name).append(';'));
+        return script.append('\n').append(command).append("\n) </dev/null >/dev/null 2>&1\n").toString();
+    }
+
+    private static String quote(String value) {
+        return "'" + value.replace("'", "'\\''") + "'";
+    }
+
+    /**
+     * A helper shell reading commands from its standard input.
+     */
+    private static final class Coprocess {
+        private final Process process;
+        private final BufferedWriter commands;
+        private final BufferedReader replies;
+        private final String marker = "__jsupervisor_" + UUID.randomUUID().toString().replace("-", "");
+
+        Coprocess() throws IOException {
+            this.process = new ProcessBuilder(SHELL)
+                    .redirectError(ProcessBuilder.Redirect.DISCARD)
+                    .start();
+            this.commands = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+            this.replies = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+            log.debug("Started command probe shell {}", process.pid());
+        }
+
+        /**
+         * Runs a script and waits for the marker line.
+         *
+         * @return exit status of the script
+         * @throws IOException if the shell exited or was killed before reporting the status
+         */
+        int execute(String script) throws IOException {
+            commands.write(script);
+            commands.write("echo " + marker + " $?\n");
+            commands.flush();
+            String line;
+            while ((line = replies.readLine()) != null) {
+                if (line.startsWith(marker + " ")) {
+                    return Integer.parseInt(line.substring(marker.length() + 1).trim());
+                }
+            }
+            throw new IOException("Command probe shell " + process.pid() + " exited");
+        }
+
+        void kill() {
+            process.descendants().forEach(ProcessHandle::destroyForcibly);
+            process.destroyForcibly();
+        }
+    }
+}
@@ -1,5 +1,9 @@
 package org.alexmond.jsupervisor.healthcheck;
 
+import org.alexmond.jsupervisor.model.HealthCheckStats;
+
+import java.time.Duration;
+
 /**
  * Interface for implementing health check functionality.
  * Classes implementing this interface should provide mechanisms
@@ -14,4 +18,42 @@ public interface HealthCheck extends Runnable {
      */
     public boolean check();
 
+    /**
+     * Returns the delay before the first probe after the process was started.
+     *
+     * @return the initial delay
+     */
+    default Duration getInitialDelay() {
+        return Duration.ZERO;
+    }
+
+    /**
+     * Returns the time between the start of consecutive probes.
+     *
+     * @return the probe period
+     */
+    default Duration getPeriod() {
+        return Duration.ofSeconds(30);
+    }
+
+    /**
+     * Returns whether a scheduled run should probe. Checks with an adaptive period are scheduled
+     * at their shortest period and skip the runs that fall within their current, longer period.
+     * Called on the scheduler thread and must not block.
+     *
+     * @return true if the next scheduled run should probe
+     */
+    default boolean isDue() {
+        return true;
+    }
+
+    /**
+     * Returns the probe latency histogram and the most recent probe results.
+     *
+     * @return probe statistics, or null if the health check does not keep any
+     */
+    default HealthCheckStats getStats() {
+        return null;
+    }
+
 }
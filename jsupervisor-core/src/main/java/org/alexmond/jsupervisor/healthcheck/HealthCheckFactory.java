@@ -5,8 +5,17 @@ import org.alexmond.jsupervisor.model.RunningProcess;
 
 /**
  * Factory class responsible for creating appropriate HealthCheck instances based on process configuration.
+ * HTTP based health checks of all processes share a single {@link HealthProbeEngine}, port health
+ * checks a single {@link PortProbeEngine}, listen health checks a single {@link ListenSocketTable} and
+ * command health checks a single {@link CommandProbeEngine}.
  */
 public class HealthCheckFactory {
+
+    private static final HealthProbeEngine PROBE_ENGINE = new HealthProbeEngine(HealthProbeEngine.DEFAULT_MAX_IN_FLIGHT);
+    private static final PortProbeEngine PORT_PROBE_ENGINE = new PortProbeEngine();
+    private static final ListenSocketTable LISTEN_SOCKET_TABLE = new ListenSocketTable();
+    private static final CommandProbeEngine COMMAND_PROBE_ENGINE = new CommandProbeEngine(CommandProbeEngine.DEFAULT_MAX_CONCURRENT);
+
     /**
      * Creates and returns a HealthCheck instance based on the provided process configuration.
      *
@@ -17,12 +26,25 @@ public class HealthCheckFactory {
     public static HealthCheck getHealthCheck(ProcessConfig config, RunningProcess runningProcess) {
         return switch (config.getHealthCheckType()) {
             case ACTUATOR ->
-                    config.getActuatorHealthCheck() != null ? new ActuatorHealthCheck(config.getActuatorHealthCheck(), runningProcess) : null;
+                    config.getActuatorHealthCheck() != null ? new ActuatorHealthCheck(config.getActuatorHealthCheck(), runningProcess, PROBE_ENGINE) : null;
             case HTTP ->
-                    config.getHttpHealthCheckConfig() != null ? new HttpHealthCheck(config.getHttpHealthCheckConfig(), runningProcess) : null;
+                    config.getHttpHealthCheckConfig() != null ? new HttpHealthCheck(config.getHttpHealthCheckConfig(), runningProcess, PROBE_ENGINE) : null;
             case PORT ->
-                    config.getPortHealthCheck() != null ? new PortHealthCheck(config.getPortHealthCheck(), runningProcess) : null;
+                    config.getPortHealthCheck() != null ? new PortHealthCheck(config.getPortHealthCheck(), runningProcess, PORT_PROBE_ENGINE) : null;
+            case LISTEN ->
+                    config.getListenHealthCheck() != null ? new ListenHealthCheck(config.getListenHealthCheck(), runningProcess, LISTEN_SOCKET_TABLE) : null;
+            case CMD ->
+                    config.getCmdHealthCheck() != null ? new CmdHealthCheck(config.getCmdHealthCheck(), runningProcess, COMMAND_PROBE_ENGINE) : null;
             default -> null;
         };
     }
+
+    /**
+     * Returns the probe engine shared by all HTTP based health checks.
+     *
+     * @return the shared probe engine
+     */
+    public static HealthProbeEngine getProbeEngine() {
+        return PROBE_ENGINE;
+    }
 }
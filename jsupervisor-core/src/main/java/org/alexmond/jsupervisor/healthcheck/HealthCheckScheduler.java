@@ -0,0 +1,271 @@
+package org.alexmond.jsupervisor.healthcheck;
+
+import lombok.extern.slf4j.Slf4j;
+import org.alexmond.jsupervisor.model.HealthCheckSchedulerStats;
+import org.alexmond.jsupervisor.model.RunningProcess;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Schedules periodic health probes on a hashed timing wheel.
+ * <p>
+ * A single daemon thread advances the wheel one tick at a time and hands due probes to the
+ * probe executor, so scheduling cost does not depend on the number of probes. Every probe
+ * honors its own initial delay and period and is offset by a deterministic jitter derived from
+ * its key, which spreads probes that are registered together evenly across their period instead
+ * of firing them in lockstep. Probes run at a fixed rate; runs missed while the scheduler was
+ * lagging are skipped rather than fired in a burst. Health checks with an adaptive period are
+ * scheduled at their shortest period and asked on the wheel thread whether a run is due, so
+ * runs they skip are never handed to the executor.
+ * <p>
+ * The delay between the time a probe was due and the time it was handed to the executor is
+ * tracked as scheduling lag, see {@link #getStats()}.
+ */
+@Slf4j
+public class HealthCheckScheduler implements DisposableBean {
+
+    /**
+     * Default resolution of the wheel.
+     */
+    public static final Duration DEFAULT_TICK = Duration.ofMillis(100);
+
+    /**
+     * Default number of buckets of the wheel, must be a power of two.
+     */
+    public static final int DEFAULT_WHEEL_SIZE = 512;
+
+    private final Executor executor;
+    private final long tickNanos;
+    private final List<ProbeTask>[] wheel;
+    private final int mask;
+    private final Queue<ProbeTask> pendingTasks = new ConcurrentLinkedQueue<>();
+    private final Thread worker;
+    private final long startNanos = System.nanoTime();
+    private volatile boolean running = true;
+    private long tick;
+
+    private final AtomicInteger scheduled = new AtomicInteger();
+    private final AtomicLong fired = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong totalLagNanos = new AtomicLong();
+    private final AtomicLong maxLagNanos = new AtomicLong();
+    private volatile long lastLagNanos;
+
+    /**
+     * Creates a scheduler with the default tick and wheel size.
+     *
+     * @param executor executor the probes are run on
+     */
+    public HealthCheckScheduler(Executor executor) {
+        this(executor, DEFAULT_TICK, DEFAULT_WHEEL_SIZE);
+    }
+
+    /**
+     * Creates a scheduler.
+     *
+     * @param executor  executor the probes are run on
+     * @param tick      resolution of the wheel
+     * @param wheelSize number of buckets of the wheel, must be a power of two
+     */
+    @SuppressWarnings("unchecked")
+    public HealthCheckScheduler(Executor executor, Duration tick, int wheelSize) {
+        if (wheelSize <= 0 || Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("Wheel size must be a power of two: " + wheelSize);
+        }
+        this.executor = executor;
+        this.tickNanos = tick.toNanos();
+        this.wheel = new List[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            wheel[i] = new ArrayList<>();
+        }
+        this.mask = wheelSize - 1;
+        this.worker = new Thread(this::runWheel, "jsupervisor-probe-wheel");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Schedules the health check of a process instance with the initial delay and period
+     * of its configuration.
+     *
+     * @param runningProcess the process instance whose health check is scheduled
+     * @return a future that stops probing when cancelled
+     */
+    public CompletableFuture<Void> schedule(RunningProcess runningProcess) {
+        HealthCheck healthCheck = runningProcess.getHealthCheck();
+        return schedule(runningProcess.getProcessName() + "#" + runningProcess.getInstanceId(), healthCheck,
+                healthCheck::isDue, healthCheck.getInitialDelay(), healthCheck.getPeriod());
+    }
+
+    /**
+     * Schedules a probe to run periodically.
+     *
+     * @param key          identifies the probe, e.g. the process name and instance; determines its jitter
+     * @param probe        the probe to run
+     * @param initialDelay delay before the first run, before jitter is added
+     * @param period       time between the start of consecutive runs
+     * @return a future that stops the probe when cancelled; it never completes otherwise
+     */
+    public CompletableFuture<Void> schedule(String key, Runnable probe, Duration initialDelay, Duration period) {
+        return schedule(key, probe, () -> true, initialDelay, period);
+    }
+
+    private CompletableFuture<Void> schedule(String key, Runnable probe, BooleanSupplier due,
+                                             Duration initialDelay, Duration period) {
+        long periodNanos = Math.max(period.toNanos(), tickNanos);
+        long firstDeadline = System.nanoTime() - startNanos + initialDelay.toNanos() + jitter(key, periodNanos);
+        ProbeTask task = new ProbeTask(probe, due, periodNanos, firstDeadline);
+        scheduled.incrementAndGet();
+        pendingTasks.add(task);
+        return task.handle;
+    }
+
+    /**
+     * Computes the deterministic offset of a probe within its period.
+     *
+     * @param key         identifies the probe
+     * @param periodNanos period of the probe
+     * @return an offset between 0 (inclusive) and the period (exclusive)
+     */
+    static long jitter(String key, long periodNanos) {
+        long hash = key.hashCode();
+        // murmur3 finalizer, spreads similar keys such as "worker-1" and "worker-2" apart
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return Math.floorMod(hash, periodNanos);
+    }
+
+    /**
+     * Returns the current scheduling statistics.
+     *
+     * @return number of scheduled probes, probes fired and scheduling lag
+     */
+    public HealthCheckSchedulerStats getStats() {
+        long firedCount = fired.get();
+        return new HealthCheckSchedulerStats(
+                scheduled.get(),
+                firedCount,
+                skipped.get(),
+                TimeUnit.NANOSECONDS.toMillis(lastLagNanos),
+                TimeUnit.NANOSECONDS.toMillis(maxLagNanos.get()),
+                firedCount == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalLagNanos.get() / firedCount));
+    }
+
+    private void runWheel() {
+        while (running) {
+            long deadline = tickNanos * (tick + 1);
+            long sleepNanos;
+            while ((sleepNanos = deadline - (System.nanoTime() - startNanos)) > 0) {
+                LockSupport.parkNanos(this, sleepNanos);
+                if (!running) {
+                    return;
+                }
+            }
+            transferPendingTasks();
+            List<ProbeTask> due = expire(wheel[(int) (tick & mask)], deadline);
+            tick++;
+            due.forEach(this::place);
+        }
+    }
+
+    private void transferPendingTasks() {
+        ProbeTask task;
+        while ((task = pendingTasks.poll()) != null) {
+            if (task.handle.isDone()) {
+                scheduled.decrementAndGet();
+            } else {
+                place(task);
+            }
+        }
+    }
+
+    private List<ProbeTask> expire(List<ProbeTask> bucket, long deadline) {
+        List<ProbeTask> rescheduled = new ArrayList<>();
+        Iterator<ProbeTask> iterator = bucket.iterator();
+        while (iterator.hasNext()) {
+            ProbeTask task = iterator.next();
+            if (task.handle.isDone()) {
+                iterator.remove();
+                scheduled.decrementAndGet();
+            } else if (task.remainingRounds > 0) {
+                task.remainingRounds--;
+            } else if (task.deadline <= deadline) {
+                iterator.remove();
+                fire(task);
+                rescheduled.add(task);
+            }
+        }
+        return rescheduled;
+    }
+
+    private void fire(ProbeTask task) {
+        long now = System.nanoTime() - startNanos;
+        if (task.due.getAsBoolean()) {
+            long lag = Math.max(0, now - task.deadline);
+            lastLagNanos = lag;
+            totalLagNanos.addAndGet(lag);
+            maxLagNanos.accumulateAndGet(lag, Math::max);
+            fired.incrementAndGet();
+            try {
+                executor.execute(task.probe);
+            } catch (RejectedExecutionException e) {
+                log.warn("Health check probe rejected by executor: {}", e.getMessage());
+            }
+        } else {
+            skipped.incrementAndGet();
+        }
+        // fixed rate, runs missed while lagging are skipped
+        do {
+            task.deadline += task.periodNanos;
+        } while (task.deadline <= now);
+    }
+
+    private void place(ProbeTask task) {
+        long calculated = task.deadline / tickNanos;
+        task.remainingRounds = Math.max(0, (calculated - tick) / wheel.length);
+        long ticks = Math.max(calculated, tick);
+        wheel[(int) (ticks & mask)].add(task);
+    }
+
+    /**
+     * Stops the wheel thread when the application context is closed.
+     */
+    @Override
+    public void destroy() {
+        running = false;
+        LockSupport.unpark(worker);
+    }
+
+    private static final class ProbeTask {
+        private final Runnable probe;
+        private final BooleanSupplier due;
+        private final long periodNanos;
+        private final CompletableFuture<Void> handle = new CompletableFuture<>();
+        private long deadline;
+        private long remainingRounds;
+
+        private ProbeTask(Runnable probe, BooleanSupplier due, long periodNanos, long deadline) {
+            this.probe = probe;
+            this.due = due;
+            this.periodNanos = periodNanos;
+            this.deadline = deadline;
+        }
+    }
+}
@@ -0,0 +1,348 @@
+package org.alexmond.jsupervisor.healthcheck;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509TrustManager;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.security.KeyManagementException;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Executes HTTP health probes for all supervised processes.
+ * <p>
+ * All probes share one pooled, keep-alive {@link HttpClient} (plus a second one that skips
+ * certificate validation, created on first use) and a small fixed set of I/O threads. Requests
+ * are sent with {@link HttpClient#sendAsync}, so no thread waits for a slow endpoint, and the
+ * number of probes in flight is bounded. The cost of probing therefore follows the probe rate,
+ * not the number of processes being probed.
+ * <p>
+ * Checks of several processes that probe the same target can share a single request: a probe
+ * sent with {@link #sendShared} is reused by every identical probe that starts within the period
+ * window of the first one. Every target host additionally has a circuit breaker. After a number of
+ * consecutive timeouts the circuit opens and probes of the host fail immediately with a
+ * {@link CircuitOpenException} instead of holding an in-flight slot for the whole timeout. Once
+ * the open interval has passed a single trial probe is let through; its success closes the
+ * circuit and another timeout opens it again.
+ */
+@Slf4j
+public class HealthProbeEngine {
+
+    /**
+     * Default upper bound of concurrently executing probes.
+     */
+    public static final int DEFAULT_MAX_IN_FLIGHT = 64;
+
+    /**
+     * Default number of consecutive timeouts that open the circuit of a target.
+     */
+    public static final int DEFAULT_BREAKER_THRESHOLD = 3;
+
+    /**
+     * Default time a circuit stays open before a trial probe is let through.
+     */
+    public static final Duration DEFAULT_BREAKER_OPEN_DURATION = Duration.ofSeconds(30);
+
+    private static final int IO_THREADS = 2;
+
+    private final ExecutorService executor;
+    private final HttpClient httpClient;
+    private volatile HttpClient insecureHttpClient;
+    private final Semaphore inFlight;
+    @Getter
+    private final int maxInFlight;
+    private final int breakerThreshold;
+    private final long breakerOpenNanos;
+    private final ConcurrentMap<String, SharedProbe> sharedProbes = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new probe engine with the default circuit breaker settings.
+     *
+     * @param maxInFlight maximum number of probes executing at the same time
+     */
+    public HealthProbeEngine(int maxInFlight) {
+        this(maxInFlight, DEFAULT_BREAKER_THRESHOLD, DEFAULT_BREAKER_OPEN_DURATION);
+    }
+
+    /**
+     * Creates a new probe engine.
+     *
+     * @param maxInFlight         maximum number of probes executing at the same time
+     * @param breakerThreshold    number of consecutive timeouts that open the circuit of a target
+     * @param breakerOpenDuration time a circuit stays open before a trial probe is let through
+     */
+    public HealthProbeEngine(int maxInFlight, int breakerThreshold, Duration breakerOpenDuration) {
+        this.maxInFlight = maxInFlight;
+        this.breakerThreshold = breakerThreshold;
+        this.breakerOpenNanos = breakerOpenDuration.toNanos();
+        this.inFlight = new Semaphore(maxInFlight);
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("jsupervisor-probe-");
+        threadFactory.setDaemon(true);
+        this.executor = Executors.newFixedThreadPool(IO_THREADS, threadFactory);
+        this.httpClient = newHttpClient(null);
+    }
+
+    /**
+     * Sends a probe request asynchronously. The request should carry its own timeout.
+     * If the maximum number of probes is already in flight the probe is not sent and the
+     * returned future fails with a {@link RejectedExecutionException}; if the circuit of the
+     * target is open it fails with a {@link CircuitOpenException}.
+     *
+     * @param request         the probe request
+     * @param bodyHandler     handler for the response body
+     * @param ignoreSslErrors whether certificate validation is skipped
+     * @param <T>             type of the response body
+     * @return future completing with the response, or exceptionally if the probe failed
+     */
+    public <T> CompletableFuture<HttpResponse<T>> send(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler,
+                                                       boolean ignoreSslErrors) {
+        String target = target(request.uri());
+        CircuitBreaker breaker = circuitBreakers.computeIfAbsent(target, key -> new CircuitBreaker());
+        long startNanos = System.nanoTime();
+        if (!breaker.tryAcquire(startNanos)) {
+            return CompletableFuture.failedFuture(new CircuitOpenException(target));
+        }
+        if (!inFlight.tryAcquire()) {
+            breaker.release(startNanos);
+            return CompletableFuture.failedFuture(
+                    new RejectedExecutionException("Too many health probes in flight: " + maxInFlight));
+        }
+        try {
+            return client(ignoreSslErrors).sendAsync(request, bodyHandler)
+                    .whenComplete((response, ex) -> {
+                        inFlight.release();
+                        breaker.record(target, isTimeout(ex), startNanos, System.nanoTime());
+                    });
+        } catch (RuntimeException e) {
+            inFlight.release();
+            breaker.release(startNanos);
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Sends a probe request that is shared between identical probes. If a probe with the same
+     * key was started less than {@code window} ago, its result is returned instead of sending
+     * another request; otherwise the request is sent as by {@link #send}. Probes rejected
+     * because too many are in flight are not shared.
+     *
+     * @param key             identifies the probe; probes with the same key must use equivalent
+     *                        requests and body handlers
+     * @param window          how long the result of a probe is reused
+     * @param request         the probe request
+     * @param bodyHandler     handler for the response body
+     * @param ignoreSslErrors whether certificate validation is skipped
+     * @param <T>             type of the response body
+     * @return future completing with the response, or exceptionally if the probe failed
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<HttpResponse<T>> sendShared(String key, Duration window, HttpRequest request,
+                                                             HttpResponse.BodyHandler<T> bodyHandler,
+                                                             boolean ignoreSslErrors) {
+        long now = System.nanoTime();
+        long windowNanos = window.toNanos();
+        SharedProbe created = new SharedProbe(now);
+        SharedProbe shared = sharedProbes.compute(key, (k, existing) ->
+                existing != null && now - existing.startNanos < windowNanos ? existing : created);
+        if (shared == created) {
+            send(request, bodyHandler, ignoreSslErrors).whenComplete((response, ex) -> {
+                if (ex instanceof RejectedExecutionException) {
+                    sharedProbes.remove(key, created);
+                    created.future.completeExceptionally(ex);
+                } else if (ex != null) {
+                    created.future.completeExceptionally(ex);
+                } else {
+                    created.future.complete(response);
+                }
+            });
+        }
+        return ((CompletableFuture<HttpResponse<T>>) (CompletableFuture<?>) shared.future).copy();
+    }
+
+    /**
+     * Returns the number of probes currently in flight.
+     *
+     * @return number of probes sent and not yet completed
+     */
+    public int getInFlight() {
+        return maxInFlight - inFlight.availablePermits();
+    }
+
+    /**
+     * Returns the number of targets whose circuit is currently open.
+     *
+     * @return number of open circuits
+     */
+    public int getOpenCircuits() {
+        long now = System.nanoTime();
+        return (int) circuitBreakers.values().stream().filter(breaker -> breaker.isOpen(now)).count();
+    }
+
+    private static String target(URI uri) {
+        int port = uri.getPort();
+        if (port < 0) {
+            port = "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+        }
+        return uri.getHost() + ":" + port;
+    }
+
+    private static boolean isTimeout(Throwable ex) {
+        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        return cause instanceof HttpTimeoutException;
+    }
+
+    private HttpClient client(boolean ignoreSslErrors) {
+        if (!ignoreSslErrors) {
+            return httpClient;
+        }
+        HttpClient client = insecureHttpClient;
+        if (client == null) {
+            synchronized (this) {
+                client = insecureHttpClient;
+                if (client == null) {
+                    client = newHttpClient(trustAllContext());
+                    insecureHttpClient = client;
+                }
+            }
+        }
+        return client;
+    }
+
+    private HttpClient newHttpClient(SSLContext sslContext) {
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .executor(executor);
+        if (sslContext != null) {
+            builder.sslContext(sslContext)
+                    .sslParameters(new SSLParameters());
+        }
+        return builder.build();
+    }
+
+    private SSLContext trustAllContext() {
+        try {
+            SSLContext sslContext = SSLContext.getInstance("TLS");
+            sslContext.init(null, new TrustManager[]{new X509TrustManager() {
+                public void checkClientTrusted(X509Certificate[] chain, String authType) {
+                }
+
+                public void checkServerTrusted(X509Certificate[] chain, String authType) {
+                }
+
+                public X509Certificate[] getAcceptedIssuers() {
+                    return new X509Certificate[0];
+                }
+            }}, new SecureRandom());
+            return sslContext;
+        } catch (NoSuchAlgorithmException | KeyManagementException e) {
+            log.warn("Failed to initialize SSL context for ignoring certificate validation: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * A probe whose result is shared by identical probes started within its window.
+     */
+    private static final class SharedProbe {
+        private final long startNanos;
+        private final CompletableFuture<HttpResponse<?>> future = new CompletableFuture<>();
+
+        private SharedProbe(long startNanos) {
+            this.startNanos = startNanos;
+        }
+    }
+
+    /**
+     * Consecutive timeout counting circuit breaker of one target.
+     */
+    private final class CircuitBreaker {
+        private int consecutiveTimeouts;
+        private long openedNanos;
+        private long openUntilNanos;
+        private boolean open;
+        private boolean trialInFlight;
+
+        /**
+         * Decides whether a probe may be sent. While the circuit is open no probe is sent until
+         * the open interval has passed, then exactly one trial probe is let through.
+         */
+        private synchronized boolean tryAcquire(long now) {
+            if (!open) {
+                return true;
+            }
+            if (trialInFlight || now - openUntilNanos < 0) {
+                return false;
+            }
+            trialInFlight = true;
+            return true;
+        }
+
+        /**
+         * Returns the permit of a probe that was not sent.
+         */
+        private synchronized void release(long startNanos) {
+            if (isTrial(startNanos)) {
+                trialInFlight = false;
+            }
+        }
+
+        /**
+         * Records the outcome of a probe. Probes that were sent before the circuit opened are
+         * ignored while it is open, only the trial probe decides whether it closes again.
+         */
+        private synchronized void record(String target, boolean timeout, long startNanos, long now) {
+            if (open) {
+                if (!isTrial(startNanos)) {
+                    return;
+                }
+                trialInFlight = false;
+            }
+            if (!timeout) {
+                if (open) {
+                    log.info("Health probe circuit for {} closed", target);
+                }
+                consecutiveTimeouts = 0;
+                open = false;
+                return;
+            }
+            consecutiveTimeouts++;
+            if (consecutiveTimeouts >= breakerThreshold) {
+                if (!open) {
+                    openedNanos = now;
+                    log.warn("Health probe circuit for {} opened after {} consecutive timeouts", target, consecutiveTimeouts);
+                }
+                open = true;
+                openUntilNanos = now + breakerOpenNanos;
+            }
+        }
+
+        private boolean isTrial(long startNanos) {
+            return open && startNanos - openedNanos >= 0;
+        }
+
+        private synchronized boolean isOpen(long now) {
+            return open && (trialInFlight || now - openUntilNanos < 0);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package org.alexmond.jsupervisor.healthcheck;
+
+import lombok.extern.slf4j.Slf4j;
+import org.alexmond.jsupervisor.config.ListenHealthCheckConfig;
+import org.alexmond.jsupervisor.model.RunningProcess;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Health check implementation that verifies the monitored process is listening on a TCP port
+ * without connecting to it. The kernel socket tables are shared by all listen checks through a
+ * {@link ListenSocketTable}, so no traffic reaches the process and no sockets linger on the host.
+ */
+@Slf4j
+public class ListenHealthCheck extends AbstractHealthCheck<ListenHealthCheckConfig> {
+    private final ListenSocketTable socketTable;
+
+    /**
+     * Creates a new ListenHealthCheck instance.
+     *
+     * @param config         Configuration containing the port and threshold settings
+     * @param runningProcess The process being monitored
+     * @param socketTable    Shared view of the kernel socket tables
+     */
+    public ListenHealthCheck(ListenHealthCheckConfig config, RunningProcess runningProcess, ListenSocketTable socketTable) {
+        super(config, runningProcess);
+        this.socketTable = socketTable;
+    }
+
+    /**
+     * Looks up whether the process, or one of its descendants, listens on the configured port.
+     *
+     * @return completed future holding the result, failed if the process is not running or the
+     * socket tables cannot be read
+     */
+    @Override
+    protected CompletableFuture<Boolean> probe() {
+        Long pid = runningProcess.getPid();
+        if (pid == null) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Process is not running"));
+        }
+        if (config.getPort() == null) {
+            return CompletableFuture.failedFuture(new IllegalStateException("No port configured"));
+        }
+        return CompletableFuture.completedFuture(
+                socketTable.isListening(pid, config.getPort(), config.isIncludeDescendants()));
+    }
+}
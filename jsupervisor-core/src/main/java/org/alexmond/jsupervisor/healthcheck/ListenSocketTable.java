@@ -0,0 +1,209 @@
+package org.alexmond.jsupervisor.healthcheck;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Answers whether a process is listening on a TCP port by reading the Linux kernel socket
+ * tables instead of connecting to the port.
+ * <p>
+ * {@code /proc/net/tcp} and {@code /proc/net/tcp6} are parsed at most once per refresh interval.
+ * The same refresh resolves which processes own the listening sockets by reading the descriptors
+ * under {@code /proc/<pid>/fd} once, and caches the listening socket inodes by port together with
+ * the pids holding each inode. Checking any number of processes therefore costs one scan of the
+ * tables and descriptors per interval, and a check itself is only a map lookup. Descriptors are
+ * not read at all while nothing listens.
+ */
+@Slf4j
+public class ListenSocketTable {
+
+    /**
+     * Default minimum time between two scans of the socket tables.
+     */
+    public static final Duration DEFAULT_REFRESH_INTERVAL = Duration.ofMillis(500);
+
+    private static final String TCP_LISTEN = "0A";
+    private static final List<Path> TABLES = List.of(Path.of("/proc/net/tcp"), Path.of("/proc/net/tcp6"));
+
+    private final long refreshIntervalNanos;
+    private volatile Snapshot snapshot;
+
+    /**
+     * Creates a socket table with the default refresh interval.
+     */
+    public ListenSocketTable() {
+        this(DEFAULT_REFRESH_INTERVAL);
+    }
+
+    /**
+     * Creates a socket table.
+     *
+     * @param refreshInterval minimum time between two scans of the socket tables
+     */
+    public ListenSocketTable(Duration refreshInterval) {
+        this.refreshIntervalNanos = refreshInterval.toNanos();
+    }
+
+    /**
+     * Checks whether a process has a socket listening on a port.
+     *
+     * @param pid                process id
+     * @param port               TCP port
+     * @param includeDescendants whether sockets of descendants of the process count as well
+     * @return true if the process, or one of its descendants if included, listens on the port
+     * @throws UncheckedIOException if the socket tables cannot be read, e.g. on platforms other than Linux
+     */
+    public boolean isListening(long pid, int port, boolean includeDescendants) {
+        Snapshot current = current();
+        for (Long inode : current.listening().getOrDefault(port, Set.of())) {
+            for (Long owner : current.owners().getOrDefault(inode, Set.of())) {
+                if (owner == pid || includeDescendants && isDescendant(owner, pid)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the inodes of the sockets listening on a port, rescanning the socket tables if
+     * the cached scan is older than the refresh interval.
+     *
+     * @param port TCP port
+     * @return inodes of the listening sockets, empty if nothing listens on the port
+     */
+    public Set<Long> listeningInodes(int port) {
+        return current().listening().getOrDefault(port, Set.of());
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        long now = System.nanoTime();
+        if (current != null && now - current.scannedAt() < refreshIntervalNanos) {
+            return current;
+        }
+        synchronized (this) {
+            current = snapshot;
+            if (current == null || now - current.scannedAt() >= refreshIntervalNanos) {
+                Map<Integer, Set<Long>> listening = scan();
+                current = new Snapshot(System.nanoTime(), listening, owners(listening));
+                snapshot = current;
+            }
+            return current;
+        }
+    }
+
+    private Map<Integer, Set<Long>> scan() {
+        Map<Integer, Set<Long>> listening = new HashMap<>();
+        boolean found = false;
+        for (Path table : TABLES) {
+            try (BufferedReader reader = Files.newBufferedReader(table)) {
+                found = true;
+                reader.readLine(); // header
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    parseLine(line, listening);
+                }
+            } catch (NoSuchFileException e) {
+                log.debug("Socket table {} not available", table);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read socket table " + table, e);
+            }
+        }
+        if (!found) {
+            throw new UncheckedIOException(new NoSuchFileException(TABLES.get(0).toString(),
+                    null, "Kernel socket tables are not available on this platform"));
+        }
+        return listening;
+    }
+
+    /**
+     * Parses one entry of a socket table, e.g.
+     * {@code 0: 00000000:1F90 00000000:0000 0A 00000000:00000000 00:00000000 00000000 1000 0 123456 ...}
+     */
+    private static void parseLine(String line, Map<Integer, Set<Long>> listening) {
+        String[] fields = line.trim().split("\\s+");
+        if (fields.length < 10 || !TCP_LISTEN.equals(fields[3])) {
+            return;
+        }
+        String localAddress = fields[1];
+        int port = Integer.parseInt(localAddress.substring(localAddress.lastIndexOf(':') + 1), 16);
+        long inode = Long.parseLong(fields[9]);
+        if (inode != 0) {
+            listening.computeIfAbsent(port, p -> new HashSet<>()).add(inode);
+        }
+    }
+
+    /**
+     * Maps the inodes of the listening sockets to the pids holding a descriptor of them, reading
+     * the descriptors of every visible process once.
+     */
+    private static Map<Long, Set<Long>> owners(Map<Integer, Set<Long>> listening) {
+        Set<Long> inodes = new HashSet<>();
+        listening.values().forEach(inodes::addAll);
+        if (inodes.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, Set<Long>> owners = new HashMap<>();
+        try (DirectoryStream<Path> processes = Files.newDirectoryStream(Path.of("/proc"))) {
+            for (Path process : processes) {
+                String name = process.getFileName().toString();
+                if (!name.isEmpty() && name.chars().allMatch(Character::isDigit)) {
+                    collectSockets(Long.parseLong(name), process.resolve("fd"), inodes, owners);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list processes", e);
+        }
+        return owners;
+    }
+
+    private static void collectSockets(long pid, Path fdDirectory, Set<Long> inodes, Map<Long, Set<Long>> owners) {
+        try (DirectoryStream<Path> fds = Files.newDirectoryStream(fdDirectory)) {
+            for (Path descriptor : fds) {
+                try {
+                    String target = Files.readSymbolicLink(descriptor).toString();
+                    if (target.startsWith("socket:[")) {
+                        long inode = Long.parseLong(target.substring(8, target.length() - 1));
+                        if (inodes.contains(inode)) {
+                            owners.computeIfAbsent(inode, i -> new HashSet<>()).add(pid);
+                        }
+                    }
+                } catch (IOException | NumberFormatException e) {
+                    // descriptor closed while scanning
+                }
+            }
+        } catch (IOException e) {
+            // the process exited or its descriptors are not accessible
+            log.trace("Cannot list descriptors of pid {}: {}", pid, e.toString());
+        }
+    }
+
+    private static boolean isDescendant(long pid, long ancestor) {
+        Optional<ProcessHandle> parent = ProcessHandle.of(pid).flatMap(ProcessHandle::parent);
+        while (parent.isPresent()) {
+            if (parent.get().pid() == ancestor) {
+                return true;
+            }
+            parent = parent.get().parent();
+        }
+        return false;
+    }
+
+    private record Snapshot(long scannedAt, Map<Integer, Set<Long>> listening, Map<Long, Set<Long>> owners) {
+    }
+}
@@ -2,12 +2,10 @@ package org.alexmond.jsupervisor.healthcheck;
 
 import lombok.extern.slf4j.Slf4j;
 import org.alexmond.jsupervisor.config.PortHealthCheckConfig;
-import org.alexmond.jsupervisor.model.ProcessStatus;
 import org.alexmond.jsupervisor.model.RunningProcess;
 
-import java.io.IOException;
-import java.net.InetSocketAddress;
-import java.net.Socket;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Health check implementation that monitors a specific TCP port on a host.
@@ -15,61 +13,29 @@ import java.net.Socket;
  * of the monitored process based on configured thresholds.
  */
 @Slf4j
-public class PortHealthCheck implements HealthCheck {
-    private boolean cachedHealth = false;
-    private PortHealthCheckConfig config;
-    private RunningProcess runningProcess;
-    private int successesCount = 0;
-    private int failureCount = 0;
+public class PortHealthCheck extends AbstractHealthCheck<PortHealthCheckConfig> {
+    private final PortProbeEngine probeEngine;
 
     /**
      * Creates a new PortHealthCheck instance.
      *
      * @param portHealthCheckConfig Configuration for the port health check including host, port, and thresholds
      * @param runningProcess        The process being monitored
+     * @param probeEngine           Shared engine executing the connects
      */
-    public PortHealthCheck(PortHealthCheckConfig portHealthCheckConfig, RunningProcess runningProcess) {
-        config = portHealthCheckConfig;
-        this.runningProcess = runningProcess;
+    public PortHealthCheck(PortHealthCheckConfig portHealthCheckConfig, RunningProcess runningProcess, PortProbeEngine probeEngine) {
+        super(portHealthCheckConfig, runningProcess);
+        this.probeEngine = probeEngine;
     }
 
     /**
-     * Returns the current cached health status.
+     * Attempts to connect to the configured port within {@code timeoutSeconds}.
      *
-     * @return true if the monitored port is considered healthy, false otherwise
+     * @return future completing with true once connected, or exceptionally if the connect failed
      */
     @Override
-    public boolean check() {
-        return cachedHealth;
-    }
-
-    /**
-     * Performs the health check by attempting to connect to the configured port.
-     * Updates the health status based on successful/failed connection attempts
-     * and configured thresholds.
-     */
-    @Override
-    public void run() {
-        try {
-            log.info("Performing health check");
-            try (var socket = new Socket()) {
-                socket.connect(new InetSocketAddress(config.getHost(), config.getPort()), config.getTimeoutSeconds());
-                successesCount++;
-                failureCount = 0;
-                if (successesCount >= config.getSuccessThreshold()) {
-                    cachedHealth = true;
-                    runningProcess.setProcessStatus(ProcessStatus.healthy);
-                }
-            }
-        } catch (IOException ex) {
-            log.error("Health check failed {}", ex.toString());
-            failureCount++;
-            successesCount = 0;
-            if (failureCount >= config.getFailureThreshold()) {
-                cachedHealth = false;
-                runningProcess.setProcessStatus(ProcessStatus.unhealthy);
-            }
-        }
+    protected CompletableFuture<Boolean> probe() {
+        return probeEngine.connect(config.getHost(), config.getPort(), Duration.ofSeconds(config.getTimeoutSeconds()));
     }
 
 }
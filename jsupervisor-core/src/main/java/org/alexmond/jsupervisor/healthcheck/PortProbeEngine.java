@@ -0,0 +1,149 @@
+package org.alexmond.jsupervisor.healthcheck;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Executes TCP port probes for all supervised processes.
+ * <p>
+ * Probes are non-blocking {@link SocketChannel} connects driven by a single {@link Selector}
+ * thread, so probing the ports of any number of processes costs one thread. A connect that
+ * has not completed within its timeout is aborted and fails with a {@link SocketTimeoutException}.
+ */
+@Slf4j
+public class PortProbeEngine {
+
+    /**
+     * Upper bound of a selector wait, so expired connects are noticed without a wakeup.
+     */
+    private static final long MAX_SELECT_MILLIS = 100;
+
+    private final Selector selector;
+    private final Queue<PendingConnect> pendingConnects = new ConcurrentLinkedQueue<>();
+    private final Thread worker;
+
+    /**
+     * Creates a new port probe engine and starts its selector thread.
+     */
+    public PortProbeEngine() {
+        try {
+            this.selector = Selector.open();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open port probe selector", e);
+        }
+        this.worker = new Thread(this::runSelector, "jsupervisor-port-probe");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Attempts to connect to a TCP port. The connection is closed as soon as it is established.
+     *
+     * @param host    host to connect to
+     * @param port    port to connect to
+     * @param timeout maximum time the connect may take
+     * @return future completing with true once connected, or exceptionally if the connect failed or timed out
+     */
+    public CompletableFuture<Boolean> connect(String host, int port, Duration timeout) {
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        SocketChannel channel = null;
+        try {
+            channel = SocketChannel.open();
+            channel.configureBlocking(false);
+            if (channel.connect(new InetSocketAddress(host, port))) {
+                channel.close();
+                result.complete(true);
+                return result;
+            }
+            pendingConnects.add(new PendingConnect(channel, result, System.nanoTime() + timeout.toNanos()));
+            selector.wakeup();
+        } catch (IOException | RuntimeException e) {
+            closeQuietly(channel);
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    private void runSelector() {
+        while (selector.isOpen()) {
+            try {
+                registerPendingConnects();
+                selector.select(MAX_SELECT_MILLIS);
+                Iterator<SelectionKey> selected = selector.selectedKeys().iterator();
+                while (selected.hasNext()) {
+                    SelectionKey key = selected.next();
+                    selected.remove();
+                    finishConnect(key);
+                }
+                expireConnects();
+            } catch (IOException | RuntimeException e) {
+                log.error("Port probe selector failed", e);
+            }
+        }
+    }
+
+    private void registerPendingConnects() {
+        PendingConnect pending;
+        while ((pending = pendingConnects.poll()) != null) {
+            try {
+                pending.channel().register(selector, SelectionKey.OP_CONNECT, pending);
+            } catch (IOException e) {
+                closeQuietly(pending.channel());
+                pending.result().completeExceptionally(e);
+            }
+        }
+    }
+
+    private void finishConnect(SelectionKey key) {
+        PendingConnect pending = (PendingConnect) key.attachment();
+        try {
+            if (pending.channel().finishConnect()) {
+                key.cancel();
+                closeQuietly(pending.channel());
+                pending.result().complete(true);
+            }
+        } catch (IOException e) {
+            key.cancel();
+            closeQuietly(pending.channel());
+            pending.result().completeExceptionally(e);
+        }
+    }
+
+    private void expireConnects() {
+        long now = System.nanoTime();
+        for (SelectionKey key : selector.keys()) {
+            PendingConnect pending = (PendingConnect) key.attachment();
+            if (key.isValid() && now - pending.deadline() >= 0) {
+                key.cancel();
+                closeQuietly(pending.channel());
+                pending.result().completeExceptionally(new SocketTimeoutException("Connect timed out"));
+            }
+        }
+    }
+
+    private static void closeQuietly(SocketChannel channel) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.debug("Failed to close probe channel: {}", e.toString());
+        }
+    }
+
+    private record PendingConnect(SocketChannel channel, CompletableFuture<Boolean> result, long deadline) {
+    }
+}
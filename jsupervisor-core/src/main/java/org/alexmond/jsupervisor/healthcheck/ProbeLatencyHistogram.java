@@ -0,0 +1,90 @@
+package org.alexmond.jsupervisor.healthcheck;
+
+import org.alexmond.jsupervisor.model.ProbeLatencyStats;
+
+/**
+ * Fixed-memory histogram of probe latencies.
+ * <p>
+ * Latencies are counted in buckets with power-of-two millisecond upper bounds, from 1ms up to
+ * {@code 2^(BUCKETS-2)}ms, plus an overflow bucket, so recording a probe never allocates and the
+ * histogram has the same size however many probes it has seen. Percentiles are reported as the
+ * upper bound of the bucket they fall into. Not thread-safe; callers synchronize.
+ */
+class ProbeLatencyHistogram {
+
+    /**
+     * Number of buckets, the last one counting latencies above {@code 2^(BUCKETS-2)}ms.
+     */
+    static final int BUCKETS = 18;
+
+    private final long[] counts = new long[BUCKETS];
+    private long count;
+    private long failures;
+    private long totalNanos;
+    private long maxNanos;
+
+    /**
+     * Records the latency of one probe.
+     *
+     * @param latencyNanos time the probe took
+     * @param success      whether the probe succeeded
+     */
+    void record(long latencyNanos, boolean success) {
+        counts[bucket(latencyNanos)]++;
+        count++;
+        if (!success) {
+            failures++;
+        }
+        totalNanos += latencyNanos;
+        maxNanos = Math.max(maxNanos, latencyNanos);
+    }
+
+    /**
+     * Returns a summary of the recorded latencies.
+     *
+     * @return latency statistics
+     */
+    ProbeLatencyStats snapshot() {
+        long[] bucketCounts = counts.clone();
+        return new ProbeLatencyStats(count, failures,
+                count == 0 ? 0 : totalNanos / count / 1_000_000,
+                maxNanos / 1_000_000,
+                percentile(0.50), percentile(0.90), percentile(0.99),
+                bucketCounts);
+    }
+
+    /**
+     * Returns the upper bound of a bucket in milliseconds.
+     *
+     * @param bucket bucket index
+     * @return upper bound, or {@link Long#MAX_VALUE} for the overflow bucket
+     */
+    static long upperBoundMillis(int bucket) {
+        return bucket == BUCKETS - 1 ? Long.MAX_VALUE : 1L << bucket;
+    }
+
+    private static int bucket(long latencyNanos) {
+        long millis = latencyNanos / 1_000_000;
+        if (millis < 1) {
+            return 0;
+        }
+        // smallest b with millis <= 2^b
+        int bucket = 64 - Long.numberOfLeadingZeros(millis - 1);
+        return Math.min(bucket, BUCKETS - 1);
+    }
+
+    private long percentile(double quantile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(quantile * count);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return i == BUCKETS - 1 ? maxNanos / 1_000_000 : upperBoundMillis(i);
+            }
+        }
+        return maxNanos / 1_000_000;
+    }
+}
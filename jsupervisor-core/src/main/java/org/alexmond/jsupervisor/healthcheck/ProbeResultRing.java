@@ -0,0 +1,73 @@
+package org.alexmond.jsupervisor.healthcheck;
+
+import org.alexmond.jsupervisor.model.ProbeResult;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed-size ring of the most recent probe results.
+ * <p>
+ * Results are stored in preallocated parallel arrays and the oldest result is overwritten
+ * once the ring is full, so recording a probe does not allocate. Not thread-safe; callers
+ * synchronize.
+ */
+class ProbeResultRing {
+
+    /**
+     * Default number of results kept.
+     */
+    static final int DEFAULT_CAPACITY = 32;
+
+    private final long[] timestamps;
+    private final long[] latencies;
+    private final boolean[] outcomes;
+    private final String[] errors;
+    private long written;
+
+    /**
+     * Creates a ring.
+     *
+     * @param capacity number of results kept
+     */
+    ProbeResultRing(int capacity) {
+        this.timestamps = new long[capacity];
+        this.latencies = new long[capacity];
+        this.outcomes = new boolean[capacity];
+        this.errors = new String[capacity];
+    }
+
+    /**
+     * Records the result of one probe, replacing the oldest result if the ring is full.
+     *
+     * @param timestampMillis completion time of the probe in epoch milliseconds
+     * @param latencyNanos    time the probe took
+     * @param success         whether the probe succeeded
+     * @param error           class name of the error the probe failed with, or null
+     */
+    void record(long timestampMillis, long latencyNanos, boolean success, String error) {
+        int slot = (int) (written % timestamps.length);
+        timestamps[slot] = timestampMillis;
+        latencies[slot] = latencyNanos;
+        outcomes[slot] = success;
+        errors[slot] = error;
+        written++;
+    }
+
+    /**
+     * Returns the results kept in the ring.
+     *
+     * @return results, most recent first
+     */
+    List<ProbeResult> snapshot() {
+        int size = (int) Math.min(written, timestamps.length);
+        List<ProbeResult> results = new ArrayList<>(size);
+        for (long i = written - 1; i >= written - size; i--) {
+            int slot = (int) (i % timestamps.length);
+            results.add(new ProbeResult(Instant.ofEpochMilli(timestamps[slot]),
+                    latencies[slot] / 1_000_000, outcomes[slot], errors[slot]));
+        }
+        return results;
+    }
+}
@@ -0,0 +1,66 @@
+package org.alexmond.jsupervisor.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.alexmond.jsupervisor.config.EventOverflowPolicy;
+
+/**
+ * Statistics of the process event pipeline.
+ * A queue depth close to the capacity means the event writer cannot keep up with the event rate.
+ */
+@Data
+@Schema(description = "Statistics of the process event pipeline")
+@AllArgsConstructor
+@NoArgsConstructor
+public class EventBusStats {
+
+    /**
+     * Number of events waiting to be persisted
+     */
+    @Schema(description = "Number of events waiting to be persisted", example = "0")
+    private int queueDepth;
+
+    /**
+     * Maximum number of events waiting to be persisted
+     */
+    @Schema(description = "Maximum number of events waiting to be persisted", example = "8192")
+    private int queueCapacity;
+
+    /**
+     * What happens to events published while the queue is full
+     */
+    @Schema(description = "What happens to events published while the queue is full", example = "DROP")
+    private EventOverflowPolicy overflowPolicy;
+
+    /**
+     * Number of events queued since startup
+     */
+    @Schema(description = "Number of events queued since startup", example = "1500")
+    private long publishedEvents;
+
+    /**
+     * Number of events persisted since startup
+     */
+    @Schema(description = "Number of events persisted since startup", example = "1500")
+    private long persistedEvents;
+
+    /**
+     * Number of events dropped because the queue was full
+     */
+    @Schema(description = "Number of events dropped because the queue was full", example = "0")
+    private long droppedEvents;
+
+    /**
+     * Number of batches written since startup
+     */
+    @Schema(description = "Number of batches written since startup", example = "900")
+    private long batches;
+
+    /**
+     * Largest number of events written in one batch
+     */
+    @Schema(description = "Largest number of events written in one batch", example = "40")
+    private int maxBatchSize;
+}
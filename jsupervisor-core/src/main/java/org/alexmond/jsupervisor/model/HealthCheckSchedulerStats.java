@@ -0,0 +1,54 @@
+package org.alexmond.jsupervisor.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Statistics of the health check probe scheduler.
+ * Scheduling lag is the delay between the time a probe was due and the time it was handed
+ * to the probe executor; growing lag means the scheduler cannot keep up with the probe rate.
+ */
+@Data
+@Schema(description = "Statistics of the health check probe scheduler")
+@AllArgsConstructor
+@NoArgsConstructor
+public class HealthCheckSchedulerStats {
+
+    /**
+     * Number of probes currently scheduled
+     */
+    @Schema(description = "Number of probes currently scheduled", example = "300")
+    private int scheduledProbes;
+
+    /**
+     * Number of probe runs handed to the executor since startup
+     */
+    @Schema(description = "Number of probe runs handed to the executor since startup", example = "12000")
+    private long firedProbes;
+
+    /**
+     * Number of runs of adaptive health checks skipped because their stretched period had not passed
+     */
+    @Schema(description = "Number of runs of adaptive health checks skipped because their stretched period had not passed", example = "30000")
+    private long skippedProbes;
+
+    /**
+     * Scheduling lag of the most recent probe run in milliseconds
+     */
+    @Schema(description = "Scheduling lag of the most recent probe run in milliseconds", example = "3")
+    private long lastLagMillis;
+
+    /**
+     * Largest scheduling lag observed in milliseconds
+     */
+    @Schema(description = "Largest scheduling lag observed in milliseconds", example = "40")
+    private long maxLagMillis;
+
+    /**
+     * Mean scheduling lag in milliseconds
+     */
+    @Schema(description = "Mean scheduling lag in milliseconds", example = "2")
+    private long meanLagMillis;
+}
@@ -0,0 +1,36 @@
+package org.alexmond.jsupervisor.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Probe latency and recent results of the health check of a process.
+ */
+@Data
+@Schema(description = "Probe latency and recent results of the health check of a process")
+@AllArgsConstructor
+@NoArgsConstructor
+public class HealthCheckStats {
+
+    /**
+     * Latency statistics of all probes recorded for the process
+     */
+    @Schema(description = "Latency statistics of all probes recorded for the process")
+    private ProbeLatencyStats latency;
+
+    /**
+     * Most recent probe results, most recent first
+     */
+    @Schema(description = "Most recent probe results, most recent first")
+    private List<ProbeResult> recentResults;
+
+    /**
+     * Current probe period in milliseconds, longer than the configured period while an adaptive check is stable
+     */
+    @Schema(description = "Current probe period in milliseconds, longer than the configured period while an adaptive check is stable", example = "40000")
+    private long periodMillis;
+}
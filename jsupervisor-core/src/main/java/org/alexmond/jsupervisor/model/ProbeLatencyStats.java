@@ -0,0 +1,65 @@
+package org.alexmond.jsupervisor.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Latency statistics of the health check probes of a process.
+ * Percentiles are approximated by the upper bound of the histogram bucket they fall into.
+ */
+@Data
+@Schema(description = "Latency statistics of the health check probes of a process")
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProbeLatencyStats {
+
+    /**
+     * Number of probes recorded
+     */
+    @Schema(description = "Number of probes recorded", example = "1200")
+    private long probes;
+
+    /**
+     * Number of probes that failed
+     */
+    @Schema(description = "Number of probes that failed", example = "3")
+    private long failures;
+
+    /**
+     * Mean probe latency in milliseconds
+     */
+    @Schema(description = "Mean probe latency in milliseconds", example = "8")
+    private long meanMillis;
+
+    /**
+     * Largest probe latency in milliseconds
+     */
+    @Schema(description = "Largest probe latency in milliseconds", example = "250")
+    private long maxMillis;
+
+    /**
+     * Median probe latency in milliseconds
+     */
+    @Schema(description = "Median probe latency in milliseconds", example = "8")
+    private long p50Millis;
+
+    /**
+     * 90th percentile of the probe latency in milliseconds
+     */
+    @Schema(description = "90th percentile of the probe latency in milliseconds", example = "16")
+    private long p90Millis;
+
+    /**
+     * 99th percentile of the probe latency in milliseconds
+     */
+    @Schema(description = "99th percentile of the probe latency in milliseconds", example = "64")
+    private long p99Millis;
+
+    /**
+     * Probe counts per latency bucket; bucket i counts latencies up to 2^i milliseconds, the last bucket all longer ones
+     */
+    @Schema(description = "Probe counts per latency bucket; bucket i counts latencies up to 2^i milliseconds, the last bucket all longer ones")
+    private long[] buckets;
+}
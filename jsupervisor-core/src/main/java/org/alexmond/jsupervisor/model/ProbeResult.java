@@ -0,0 +1,42 @@
+package org.alexmond.jsupervisor.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Result of a single health check probe.
+ */
+@Data
+@Schema(description = "Result of a single health check probe")
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProbeResult {
+
+    /**
+     * Time the probe completed
+     */
+    @Schema(description = "Time the probe completed")
+    private Instant timestamp;
+
+    /**
+     * Time the probe took in milliseconds
+     */
+    @Schema(description = "Time the probe took in milliseconds", example = "12")
+    private long latencyMillis;
+
+    /**
+     * Whether the probe succeeded
+     */
+    @Schema(description = "Whether the probe succeeded", example = "true")
+    private boolean success;
+
+    /**
+     * Class of the error the probe failed with
+     */
+    @Schema(description = "Class of the error the probe failed with, null if the probe completed", example = "java.net.ConnectException")
+    private String error;
+}
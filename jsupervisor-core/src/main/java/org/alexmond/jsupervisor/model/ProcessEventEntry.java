@@ -6,7 +6,6 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
-import org.springframework.data.keyvalue.annotation.KeySpace;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
@@ -18,7 +17,6 @@ import java.time.LocalDateTime;
  */
 @Data
 //@Entity
-@KeySpace("ProcessEvents")
 @NoArgsConstructor
 @Schema(description = "Represents an event entry for process state changes and lifecycle events")
 public class ProcessEventEntry {
@@ -85,32 +83,23 @@ public class ProcessEventEntry {
     private Duration processUptime;
 
     /**
-     * Creates a new process event entry based on the running process and its new status.
+     * Creates a new process event entry for a state transition of a process.
      *
-     * @param runningProcess the process for which the event is being created
-     * @param newStatus      the new status that the process is transitioning to
+     * @param processName name of the process that changed state
+     * @param previous    state before the transition
+     * @param next        state after the transition
      */
-    public ProcessEventEntry(RunningProcess runningProcess, ProcessStatus newStatus) {
-
-        if (runningProcess.getProcess() != null) {
-            this.pid = runningProcess.getProcess().pid();
-        }
-        this.processName = runningProcess.getProcessName();
-        this.startTime = runningProcess.getStartTime();
-        this.endTime = runningProcess.getEndTime();
-        this.exitCode = runningProcess.getExitCode();
-        this.oldStatus = runningProcess.getProcessStatus();
-        this.newStatus = newStatus;
+    public ProcessEventEntry(String processName, ProcessState previous, ProcessState next) {
+        // an exit clears the pid, so fall back to the pid of the process that exited
+        this.pid = next.pid() != null ? next.pid() : previous.pid();
+        this.processName = processName;
+        this.startTime = next.startTime();
+        this.endTime = next.endTime();
+        this.exitCode = next.exitCode();
+        this.oldStatus = previous.status();
+        this.newStatus = next.status();
 
         this.eventTime = LocalDateTime.now();
-        if (this.startTime == null) {
-            this.processUptime = Duration.ZERO;
-        } else if (this.endTime != null) {
-            // Process has ended
-            this.processUptime = Duration.between(this.startTime, this.endTime);
-        } else {
-            // Process is still running or no end time recorded
-            this.processUptime = Duration.between(this.startTime, this.eventTime);
-        }
+        this.processUptime = next.runtime(this.eventTime);
     }
 }
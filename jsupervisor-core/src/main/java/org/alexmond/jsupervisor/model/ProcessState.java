@@ -0,0 +1,94 @@
+package org.alexmond.jsupervisor.model;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Immutable snapshot of the lifecycle state of a supervised process.
+ * A {@link RunningProcess} holds exactly one snapshot at a time and replaces it atomically,
+ * so readers always see the status, pid, times and exit code of the same lifecycle step.
+ *
+ * @param status         current status of the process
+ * @param pid            operating system process id, null unless the process is alive
+ * @param startTime      time the process was started, null if it has not been started
+ * @param endTime        time the process ended, null while it is running
+ * @param exitCode       exit code of the process, null while it is running
+ * @param failedErrorLog error message in case the process failed to start
+ */
+public record ProcessState(ProcessStatus status,
+                           Long pid,
+                           LocalDateTime startTime,
+                           LocalDateTime endTime,
+                           Integer exitCode,
+                           String failedErrorLog) {
+
+    /**
+     * State of a process that has never been started.
+     */
+    public static final ProcessState NOT_STARTED = new ProcessState(ProcessStatus.not_started, null, null, null, null, null);
+
+    /**
+     * Returns a copy of this state with a different status.
+     *
+     * @param status the new status
+     * @return the new state
+     */
+    public ProcessState withStatus(ProcessStatus status) {
+        return new ProcessState(status, pid, startTime, endTime, exitCode, failedErrorLog);
+    }
+
+    /**
+     * Returns the state of a process that is being launched, clearing the previous run.
+     *
+     * @return the new state
+     */
+    public ProcessState starting() {
+        return new ProcessState(ProcessStatus.starting, null, null, null, null, null);
+    }
+
+    /**
+     * Returns the state of a process that has been launched successfully.
+     *
+     * @param pid       operating system process id
+     * @param startTime time the process was started
+     * @return the new state
+     */
+    public ProcessState started(long pid, LocalDateTime startTime) {
+        return new ProcessState(ProcessStatus.running, pid, startTime, null, null, null);
+    }
+
+    /**
+     * Returns the state of a process that could not be launched.
+     *
+     * @param failedErrorLog reason the launch failed
+     * @return the new state
+     */
+    public ProcessState failedToStart(String failedErrorLog) {
+        return new ProcessState(ProcessStatus.failed, null, startTime, endTime, exitCode, failedErrorLog);
+    }
+
+    /**
+     * Returns the state of a process that has exited.
+     *
+     * @param status   status resulting from the exit
+     * @param exitCode exit code reported by the operating system
+     * @param endTime  time the exit was detected
+     * @return the new state
+     */
+    public ProcessState exited(ProcessStatus status, int exitCode, LocalDateTime endTime) {
+        return new ProcessState(status, null, startTime, endTime, exitCode, failedErrorLog);
+    }
+
+    /**
+     * Calculates how long the process has been running, or ran, as of the given time.
+     *
+     * @param now time used as the end of the runtime when the process has not ended
+     * @return the runtime, zero if the process was never started
+     */
+    public Duration runtime(LocalDateTime now) {
+        if (startTime == null) {
+            return Duration.ZERO;
+        }
+        return Duration.between(startTime, endTime != null ? endTime : now);
+    }
+}
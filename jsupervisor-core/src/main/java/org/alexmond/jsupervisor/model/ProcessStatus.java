@@ -53,5 +53,9 @@ public enum ProcessStatus {
     /**
      * Process is running but failing health checks
      */
-    unhealthy
+    unhealthy,
+    /**
+     * Process kept exiting shortly after being started and auto-restart gave up
+     */
+    crash_loop
 }
@@ -100,6 +100,42 @@ public class ProcessStatusInfo {
     @Schema(description = "Error log content when process failed to start")
     private String failedErrorLog;
 
+    /**
+     * Number of the instance currently serving as the active one
+     */
+    @Schema(description = "Number of the instance currently serving as the active one, 0 unless a warm spare was promoted", example = "0")
+    private Integer activeInstance;
+
+    /**
+     * Number of warm standby instances that are running and ready to be promoted
+     */
+    @Schema(description = "Number of warm standby instances that are running and ready to be promoted", example = "1")
+    private Integer readySpares;
+
+    /**
+     * Number of configured instances of the process
+     */
+    @Schema(description = "Number of configured instances of the process", example = "1")
+    private Integer instances;
+
+    /**
+     * Number of instances of the process that are running
+     */
+    @Schema(description = "Number of instances of the process that are running", example = "1")
+    private Integer runningInstances;
+
+    /**
+     * Status text last reported by the process over its notification socket
+     */
+    @Schema(description = "Status text last reported by the process with STATUS= over its notification socket", example = "Accepting connections")
+    private String statusText;
+
+    /**
+     * Probe latency and recent results of the health check
+     */
+    @Schema(description = "Probe latency and recent results of the health check, absent if the process has no health check")
+    private HealthCheckStats healthCheck;
+
     /**
      * Constructs a ProcessStatusRest object from a running process.
      *
@@ -107,21 +143,22 @@ public class ProcessStatusInfo {
      * @param runningProcess The running process instance containing detailed status information
      */
     public ProcessStatusInfo(String name, RunningProcess runningProcess) {
+        ProcessState state = runningProcess.getState();
         this.name = name;
-        this.startTime = runningProcess.getStartTime();
-        this.endTime = runningProcess.getEndTime();
-        this.exitCode = runningProcess.getExitCode();
+        this.startTime = state.startTime();
+        this.endTime = state.endTime();
+        this.exitCode = state.exitCode();
         processConfig = runningProcess.getProcessConfig();
-        processRuntime = runningProcess.getProcessRuntime();
-        processUptime = runningProcess.getProcessRuntimeFormatted();
+        processRuntime = state.runtime(LocalDateTime.now());
+        processUptime = RunningProcess.formatRuntime(processRuntime);
         stdoutLogfile = runningProcess.getStdoutLogfile();
         stderrLogfile = runningProcess.getStderrLogfile();
-        failedErrorLog = runningProcess.getFailedErrorLog();
-
-        if (runningProcess.getProcess() != null) {
-            pid = runningProcess.getProcess().pid();
-        }
-        status = runningProcess.getProcessStatus();
+        failedErrorLog = state.failedErrorLog();
+        pid = state.pid();
+        status = state.status();
+        activeInstance = runningProcess.getInstanceId();
+        statusText = runningProcess.getNotifiedStatus();
+        healthCheck = runningProcess.getHealthCheck() != null ? runningProcess.getHealthCheck().getStats() : null;
     }
 
     /**
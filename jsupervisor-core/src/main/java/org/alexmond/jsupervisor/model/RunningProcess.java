@@ -1,8 +1,8 @@
 package org.alexmond.jsupervisor.model;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
-import lombok.Synchronized;
 import lombok.experimental.Delegate;
 import lombok.extern.slf4j.Slf4j;
 import org.alexmond.jsupervisor.config.ProcessConfig;
@@ -14,14 +14,23 @@ import java.io.File;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.concurrent.CompletableFuture;
+import java.util.Objects;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
 
 /**
  * Represents a running process managed by the JSupervisor system.
  * This class maintains the state and metadata of a supervised process,
  * including its runtime information, health checks, and status monitoring.
- * It handles process lifecycle events, logging, and health monitoring while
- * providing thread-safe access to process state through synchronized methods.
+ * It handles process lifecycle events, logging, and health monitoring.
+ * <p>
+ * The lifecycle state (status, pid, start and end time, exit code, failure reason) is held
+ * in an immutable {@link ProcessState} that is replaced with compare-and-set transitions.
+ * Readers take a consistent snapshot without locking, and status change events are
+ * published after the transition, so lifecycle threads never wait on event listeners.
  */
 @Getter
 @Setter
@@ -41,6 +50,14 @@ public class RunningProcess {
      */
     @Delegate
     private final ProcessConfig processConfig;
+    /**
+     * Number of this instance of the process, 0 for the primary instance
+     */
+    private final int instanceId;
+    /**
+     * Whether this instance is a warm standby. Standby instances do not publish events.
+     */
+    private volatile boolean standby = false;
 
     /**
      * Self-reference for the running process
@@ -53,19 +70,7 @@ public class RunningProcess {
     /**
      * Java Process instance
      */
-    private Process process = null;
-    /**
-     * Timestamp when the process started
-     */
-    private LocalDateTime startTime;
-    /**
-     * Timestamp when the process ended
-     */
-    private LocalDateTime endTime;
-    /**
-     * Process exit code
-     */
-    private Integer exitCode;
+    private volatile Process process = null;
     /**
      * Standard output log file
      */
@@ -81,11 +86,35 @@ public class RunningProcess {
     /**
      * Future representing the asynchronous process completion
      */
-    private CompletableFuture<Void> completableFuture = null;
+    private volatile CompletableFuture<Void> completableFuture = null;
+    /**
+     * Handle of the scheduled health check probe, cancel to stop probing
+     */
+    private volatile Future<?> scheduledFuture = null;
     /**
-     * Future for scheduled tasks related to the process
+     * Whether the running process has sent READY=1
      */
-    private ScheduledFuture<?> scheduledFuture = null;
+    private volatile boolean notifiedReady = false;
+    /**
+     * Whether the running process has sent STOPPING=1
+     */
+    private volatile boolean notifiedStopping = false;
+    /**
+     * Last STATUS= text sent by the running process
+     */
+    private volatile String notifiedStatus = null;
+    /**
+     * {@link System#nanoTime()} of the last WATCHDOG=1 sent by the running process, or of its start
+     */
+    private volatile long lastWatchdogNanos = 0;
+    /**
+     * Pending automatic restart, null if none is scheduled
+     */
+    private volatile ScheduledFuture<?> restartFuture = null;
+    /**
+     * Number of consecutive failed start attempts made by auto-restart
+     */
+    private volatile int restartAttempts = 0;
     /**
      * Path to the stdout log file
      */
@@ -95,13 +124,10 @@ public class RunningProcess {
      */
     private String stderrLogfile;
     /**
-     * Current status of the process
-     */
-    private ProcessStatus processStatus = ProcessStatus.not_started;
-    /**
-     * Error log message in case of failure
+     * Current lifecycle state of the process, replaced atomically on every transition
      */
-    private String failedErrorLog;
+    @Getter(AccessLevel.NONE)
+    private final AtomicReference<ProcessState> state = new AtomicReference<>(ProcessState.NOT_STARTED);
 
     /**
      * Constructs a new RunningProcess instance.
@@ -111,15 +137,30 @@ public class RunningProcess {
      * @param eventPublisher publisher for process-related events
      */
     public RunningProcess(String processName, ProcessConfig processConfig, ApplicationEventPublisher eventPublisher) {
+        this(processName, 0, processConfig, eventPublisher);
+    }
+
+    /**
+     * Constructs a new RunningProcess instance for one instance of a process.
+     * Default log file names of instances other than 0 include the instance number.
+     *
+     * @param processName    unique identifier for the process
+     * @param instanceId     number of the instance, 0 for the primary instance
+     * @param processConfig  configuration settings of the instance
+     * @param eventPublisher publisher for process-related events
+     */
+    public RunningProcess(String processName, int instanceId, ProcessConfig processConfig, ApplicationEventPublisher eventPublisher) {
         this.eventPublisher = eventPublisher;
         this.processName = processName;
+        this.instanceId = instanceId;
         this.processConfig = processConfig;
+        String logPrefix = instanceId == 0 ? processName : processName + "-" + instanceId;
 
         if (!processConfig.isRedirectErrorStream()) {
             if (processConfig.getStderrLogfile() != null) {
                 stderrLogfile = processConfig.getStderrLogfile();
             } else {
-                stderrLogfile = processName + "-stderr.log";
+                stderrLogfile = logPrefix + "-stderr.log";
             }
             stderr = new File(stderrLogfile);
         }
@@ -127,7 +168,7 @@ public class RunningProcess {
         if (processConfig.getStdoutLogfile() != null) {
             stdoutLogfile = processConfig.getStdoutLogfile();
         } else {
-            stdoutLogfile = processName + "-stdout.log";
+            stdoutLogfile = logPrefix + "-stdout.log";
         }
 
         stdout = new File(stdoutLogfile);
@@ -138,78 +179,204 @@ public class RunningProcess {
     }
 
     /**
-     * Sets the Java Process instance in a thread-safe manner.
+     * Returns a consistent snapshot of the lifecycle state of the process.
      *
-     * @param process the Java Process to set
+     * @return the current state
      */
-    @Synchronized
-    public void setProcess(Process process) {
-        this.process = process;
+    public ProcessState getState() {
+        return state.get();
     }
 
     /**
-     * Sets the process start time in a thread-safe manner.
+     * Atomically applies a state transition and publishes a status change event if the
+     * status changed. The transition function may be invoked more than once under contention
+     * and must be free of side effects.
      *
-     * @param startTime the start time to set
+     * @param transition function computing the new state from the current one
+     * @return the state after the transition
      */
-    @Synchronized
-    public void setStartTime(LocalDateTime startTime) {
-        this.startTime = startTime;
+    public ProcessState transition(UnaryOperator<ProcessState> transition) {
+        return transition(current -> true, transition);
     }
 
     /**
-     * Sets the process end time in a thread-safe manner.
+     * Atomically applies a state transition if the current state satisfies the guard, and
+     * publishes a status change event if the status changed. The event is published after
+     * the new state has been installed.
      *
-     * @param endTime the end time to set
+     * @param guard      condition the current state must satisfy
+     * @param transition function computing the new state from the current one
+     * @return the state after the transition, or null if the guard rejected it
      */
-    @Synchronized
-    public void setEndTime(LocalDateTime endTime) {
-        this.endTime = endTime;
+    public ProcessState transition(Predicate<ProcessState> guard, UnaryOperator<ProcessState> transition) {
+        ProcessState previous;
+        ProcessState next;
+        do {
+            previous = state.get();
+            if (!guard.test(previous)) {
+                return null;
+            }
+            next = transition.apply(previous);
+        } while (!state.compareAndSet(previous, next));
+
+        if (previous.status() != next.status()) {
+            if (standby) {
+                log.debug("Standby instance {} of '{}' status {} -> {}", instanceId, processName, previous.status(), next.status());
+            } else {
+                log.info("Process '{}' status {} -> {}", processName, previous.status(), next.status());
+                eventPublisher.publishEvent(new ProcessEvent(new ProcessEventEntry(processName, previous, next)));
+            }
+        }
+        return next;
     }
 
     /**
-     * Sets the process exit code in a thread-safe manner.
+     * Publishes the event of this instance taking over from the previously active instance.
      *
-     * @param exitCode the exit code to set
+     * @param previousActive state of the instance that was active before
      */
-    @Synchronized
-    public void setExitCode(Integer exitCode) {
-        this.exitCode = exitCode;
+    public void announcePromotion(ProcessState previousActive) {
+        log.info("Standby instance {} of '{}' promoted to active", instanceId, processName);
+        eventPublisher.publishEvent(new ProcessEvent(new ProcessEventEntry(processName, previousActive, state.get())));
     }
 
     /**
-     * Sets the process status and publishes a status change event in a thread-safe manner.
+     * Sets the process status and publishes a status change event.
      *
      * @param processStatus the new process status to set
      */
-    @Synchronized
     public void setProcessStatus(ProcessStatus processStatus) {
-        if (this.processStatus != processStatus) {
-            log.info("setProcessStatus {}", processStatus);
-            eventPublisher.publishEvent(new ProcessEvent(new ProcessEventEntry(this, processStatus)));
+        transition(current -> current.withStatus(processStatus));
+    }
 
-            this.processStatus = processStatus;
-        }
+    /**
+     * Records a health check result. The status is only changed while the process is
+     * running, so a late result cannot overwrite a stopped or exited process.
+     *
+     * @param processStatus healthy or unhealthy
+     */
+    public void setHealthStatus(ProcessStatus processStatus) {
+        transition(current -> current.status() == ProcessStatus.running
+                        || current.status() == ProcessStatus.healthy
+                        || current.status() == ProcessStatus.unhealthy,
+                current -> current.withStatus(processStatus));
     }
 
     /**
-     * Sets the completable future for process completion in a thread-safe manner.
+     * Records that the given process has exited. Ignored if the state already belongs
+     * to a different process instance.
      *
-     * @param completableFuture the completable future to set
+     * @param pid        pid of the process that exited
+     * @param exitStatus function computing the resulting status from the status at exit
+     * @param exitCode   exit code reported by the operating system
+     * @param endTime    time the exit was detected
+     * @return the state after the transition, or null if it was ignored
+     */
+    public ProcessState exited(long pid, UnaryOperator<ProcessStatus> exitStatus, int exitCode, LocalDateTime endTime) {
+        return transition(current -> Objects.equals(current.pid(), pid),
+                current -> current.exited(exitStatus.apply(current.status()), exitCode, endTime));
+    }
+
+    /**
+     * @return current status of the process
+     */
+    public ProcessStatus getProcessStatus() {
+        return state.get().status();
+    }
+
+    /**
+     * @return pid of the running process, null if it is not running
+     */
+    public Long getPid() {
+        return state.get().pid();
+    }
+
+    /**
+     * @return timestamp when the process started
+     */
+    public LocalDateTime getStartTime() {
+        return state.get().startTime();
+    }
+
+    /**
+     * @return timestamp when the process ended
+     */
+    public LocalDateTime getEndTime() {
+        return state.get().endTime();
+    }
+
+    /**
+     * @return process exit code
+     */
+    public Integer getExitCode() {
+        return state.get().exitCode();
+    }
+
+    /**
+     * @return error log message in case of failure
+     */
+    public String getFailedErrorLog() {
+        return state.get().failedErrorLog();
+    }
+
+    /**
+     * Resets the notification state for a new run of the process.
      */
-    @Synchronized
-    public void setCompletableFuture(CompletableFuture<Void> completableFuture) {
-        this.completableFuture = completableFuture;
+    public void resetNotifications() {
+        notifiedReady = false;
+        notifiedStopping = false;
+        notifiedStatus = null;
+        lastWatchdogNanos = System.nanoTime();
     }
 
     /**
-     * Sets the scheduled future for process-related tasks in a thread-safe manner.
+     * Applies a notification sent by the process over its notification socket.
+     * {@code READY=1} marks the process healthy, {@code WATCHDOG=1} records a keep-alive,
+     * {@code STATUS=} records a free-form status text and {@code STOPPING=1} suspends the
+     * watchdog. Other assignments are ignored.
      *
-     * @param scheduledFuture the scheduled future to set
+     * @param name  name of the assignment
+     * @param value value of the assignment
      */
-    @Synchronized
-    public void setScheduledFuture(ScheduledFuture<?> scheduledFuture) {
-        this.scheduledFuture = scheduledFuture;
+    public void applyNotification(String name, String value) {
+        switch (name) {
+            case "READY" -> {
+                if ("1".equals(value)) {
+                    notifiedReady = true;
+                    setHealthStatus(ProcessStatus.healthy);
+                }
+            }
+            case "WATCHDOG" -> {
+                if ("1".equals(value)) {
+                    lastWatchdogNanos = System.nanoTime();
+                    if (notifiedReady && healthCheck == null) {
+                        setHealthStatus(ProcessStatus.healthy);
+                    }
+                }
+            }
+            case "STATUS" -> {
+                notifiedStatus = value;
+                log.debug("Process '{}' status text: {}", processName, value);
+            }
+            case "STOPPING" -> {
+                if ("1".equals(value)) {
+                    notifiedStopping = true;
+                    log.info("Process '{}' reported that it is stopping", processName);
+                }
+            }
+            default -> log.debug("Ignoring notification {}={} from '{}'", name, value, processName);
+        }
+    }
+
+    /**
+     * Cancels a pending automatic restart, if any.
+     */
+    public void cancelPendingRestart() {
+        ScheduledFuture<?> pending = restartFuture;
+        if (pending != null) {
+            pending.cancel(false);
+            restartFuture = null;
+        }
     }
 
     /**
@@ -222,14 +389,24 @@ public class RunningProcess {
     }
 
     /**
-     * Resets the process timing information.
-     * Clears start time, end time, and exit code.
+     * Checks if the process is ready to serve dependents.
+     * A process with a health check is ready once it is healthy, a process with
+     * notification once it has sent READY=1, a process with neither as soon as it is running.
+     *
+     * @return true if the process is alive and ready, false otherwise
      */
-    @Synchronized
-    public void reset() {
-        startTime = null;
-        endTime = null;
-        exitCode = null;
+    public boolean isProcessReady() {
+        if (!isProcessRunning()) {
+            return false;
+        }
+        ProcessStatus processStatus = getProcessStatus();
+        if (processConfig.isNotify() && !notifiedReady) {
+            return false;
+        }
+        if (healthCheck != null || processConfig.isNotify()) {
+            return processStatus == ProcessStatus.healthy;
+        }
+        return processStatus == ProcessStatus.running || processStatus == ProcessStatus.healthy;
     }
 
 
@@ -239,20 +416,7 @@ public class RunningProcess {
      * @return Duration representing the time the process has been/was running
      */
     public Duration getProcessRuntime() {
-        if (startTime == null) {
-            return Duration.ZERO;
-        }
-
-        if (endTime != null) {
-            // Process has ended
-            return Duration.between(startTime, endTime);
-        } else if (isProcessRunning()) {
-            // Process is still running
-            return Duration.between(startTime, LocalDateTime.now());
-        } else {
-            // Process ended but no end time recorded (shouldn't happen normally)
-            return Duration.between(startTime, LocalDateTime.now());
-        }
+        return state.get().runtime(LocalDateTime.now());
     }
 
 
@@ -262,7 +426,16 @@ public class RunningProcess {
      * @return formatted string representation of the process runtime (e.g., "HH:mm:ss" or "mm:ss")
      */
     public String getProcessRuntimeFormatted() {
-        Duration runtime = getProcessRuntime();
+        return formatRuntime(getProcessRuntime());
+    }
+
+    /**
+     * Formats a process runtime into a human-readable string.
+     *
+     * @param runtime the runtime to format
+     * @return formatted string representation of the runtime (e.g., "HH:mm:ss" or "mm:ss")
+     */
+    public static String formatRuntime(Duration runtime) {
         if (runtime == Duration.ZERO) return "";
 
         long hours = runtime.toHours();
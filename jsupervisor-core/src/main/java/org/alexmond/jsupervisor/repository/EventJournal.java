@@ -0,0 +1,577 @@
+package org.alexmond.jsupervisor.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.alexmond.jsupervisor.model.ProcessEventEntry;
+import org.alexmond.jsupervisor.model.ProcessStatus;
+import org.springframework.util.unit.DataSize;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only on-disk journal of process events, written to fixed-size memory-mapped segment
+ * files.
+ * <p>
+ * Each segment starts with a header holding the highest event id written before it, followed by
+ * length prefixed, checksummed records of a compact binary encoding of stored events, deleted
+ * event ids and clears. Records are copied into the mapped segment, so appending does not call
+ * into the file system; the page cache keeps the writes if the supervisor dies, and they are
+ * flushed to disk by a background thread at the configured sync interval, when a segment is
+ * full and on shutdown. A host crash therefore loses at most the records of the last sync
+ * interval. Flushing does not hold the journal lock, so it never delays appending.
+ * <p>
+ * On startup the records of all segments are replayed in order. Replay stops at the first
+ * record with a bad checksum in a segment, which discards a partially written tail. Segments
+ * whose events have all been evicted from the event store are deleted as a whole.
+ * <p>
+ * Statuses are stored by ordinal, so new {@link ProcessStatus} constants must be added last.
+ */
+@Slf4j
+public class EventJournal implements Closeable {
+
+    /**
+     * Minimum size of a segment file.
+     */
+    public static final DataSize MIN_SEGMENT_SIZE = DataSize.ofKilobytes(4);
+
+    private static final int MAGIC = 0x4A534556;
+    private static final int VERSION = 1;
+    private static final int SEGMENT_HEADER_BYTES = 16;
+    private static final int RECORD_HEADER_BYTES = 8;
+    private static final String SEGMENT_PREFIX = "events-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    private static final byte EVENT = 1;
+    private static final byte DELETE = 2;
+    private static final byte CLEAR = 3;
+
+    private static final int PID = 1;
+    private static final int EVENT_TIME = 1 << 1;
+    private static final int PROCESS_NAME = 1 << 2;
+    private static final int START_TIME = 1 << 3;
+    private static final int END_TIME = 1 << 4;
+    private static final int EXIT_CODE = 1 << 5;
+    private static final int NEW_STATUS = 1 << 6;
+    private static final int OLD_STATUS = 1 << 7;
+    private static final int PROCESS_UPTIME = 1 << 8;
+
+    private static final ProcessStatus[] STATUSES = ProcessStatus.values();
+
+    /**
+     * Receives the records of the journal during replay.
+     */
+    interface ReplayHandler {
+
+        /**
+         * Called for a stored event.
+         *
+         * @param entry the event
+         */
+        void event(ProcessEventEntry entry);
+
+        /**
+         * Called for a deleted event.
+         *
+         * @param id id of the event
+         */
+        void delete(long id);
+
+        /**
+         * Called when all events were deleted.
+         */
+        void clear();
+    }
+
+    /**
+     * A segment file and the highest event id written before it.
+     */
+    private record Segment(Path path, long baseId) {
+    }
+
+    private final Path directory;
+    private final int segmentSize;
+    private final ScheduledExecutorService syncer;
+    private final List<Segment> segments = new ArrayList<>();
+    private final CRC32 crc = new CRC32();
+    private MappedByteBuffer active;
+    private long nextSegment;
+    private long lastId;
+    private boolean dirty;
+    private boolean closed;
+
+    /**
+     * Opens the journal in a directory, creating the directory if needed, and positions the
+     * writer after the last valid record of the newest segment.
+     *
+     * @param directory    directory of the segment files
+     * @param segmentSize  size of each segment file
+     * @param syncInterval interval at which a background thread flushes writes to disk, zero to
+     *                     flush only full segments and on close
+     */
+    public EventJournal(Path directory, DataSize segmentSize, Duration syncInterval) {
+        this.directory = directory;
+        this.segmentSize = (int) Math.min(Integer.MAX_VALUE,
+                Math.max(MIN_SEGMENT_SIZE.toBytes(), segmentSize.toBytes()));
+        try {
+            Files.createDirectories(directory);
+            openSegments();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open event journal in " + directory, e);
+        }
+        if (syncInterval != null && syncInterval.toNanos() > 0) {
+            this.syncer = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "jsupervisor-journal-sync");
+                thread.setDaemon(true);
+                return thread;
+            });
+            syncer.scheduleWithFixedDelay(this::syncIfDirty, syncInterval.toNanos(), syncInterval.toNanos(),
+                    TimeUnit.NANOSECONDS);
+        } else {
+            this.syncer = null;
+        }
+        log.info("Opened event journal in {} with {} segments", directory, segments.size());
+    }
+
+    /**
+     * Replays all records of the journal in the order they were written.
+     *
+     * @param handler receives the records
+     */
+    synchronized void replay(ReplayHandler handler) {
+        for (Segment segment : segments) {
+            try {
+                ByteBuffer buffer = segment == segments.get(segments.size() - 1)
+                        ? active.duplicate() : map(segment.path(), FileChannel.MapMode.READ_ONLY);
+                int end = validEnd(buffer, segment.path());
+                buffer.position(SEGMENT_HEADER_BYTES);
+                while (buffer.position() < end) {
+                    int length = buffer.getInt();
+                    buffer.getInt();
+                    ByteBuffer record = buffer.slice(buffer.position(), length);
+                    buffer.position(buffer.position() + length);
+                    try {
+                        replayRecord(record, handler);
+                    } catch (RuntimeException e) {
+                        log.warn("Skipping unreadable event journal record in {}: {}", segment.path(), e.toString());
+                    }
+                }
+            } catch (IOException e) {
+                log.error("Failed to replay event journal segment {}", segment.path(), e);
+            }
+        }
+    }
+
+    /**
+     * Returns the highest event id the journal has seen, including ids of deleted and expired
+     * events.
+     *
+     * @return the last id, 0 if the journal is empty
+     */
+    public synchronized long getLastId() {
+        return lastId;
+    }
+
+    /**
+     * Returns the number of segment files, including the one being written.
+     *
+     * @return number of segments
+     */
+    public synchronized int getSegmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Appends a stored event.
+     *
+     * @param entry the event, with id
+     */
+    public synchronized void appendEvent(ProcessEventEntry entry) {
+        byte[] name = entry.getProcessName() != null
+                ? entry.getProcessName().getBytes(StandardCharsets.UTF_8) : null;
+        if (name != null && name.length > 0xFFFF) {
+            log.warn("Not journaling event {}, process name too long", entry.getId());
+            return;
+        }
+        int size = eventSize(entry, name);
+        ByteBuffer buffer = reserve(size);
+        if (buffer == null) {
+            return;
+        }
+        int mask = (entry.getPid() != null ? PID : 0)
+                | (entry.getEventTime() != null ? EVENT_TIME : 0)
+                | (name != null ? PROCESS_NAME : 0)
+                | (entry.getStartTime() != null ? START_TIME : 0)
+                | (entry.getEndTime() != null ? END_TIME : 0)
+                | (entry.getExitCode() != null ? EXIT_CODE : 0)
+                | (entry.getNewStatus() != null ? NEW_STATUS : 0)
+                | (entry.getOldStatus() != null ? OLD_STATUS : 0)
+                | (entry.getProcessUptime() != null ? PROCESS_UPTIME : 0);
+        buffer.put(EVENT).putLong(entry.getId()).putShort((short) mask);
+        if (entry.getPid() != null) {
+            buffer.putLong(entry.getPid());
+        }
+        putTime(buffer, entry.getEventTime());
+        if (name != null) {
+            buffer.putShort((short) name.length).put(name);
+        }
+        putTime(buffer, entry.getStartTime());
+        putTime(buffer, entry.getEndTime());
+        if (entry.getExitCode() != null) {
+            buffer.putInt(entry.getExitCode());
+        }
+        if (entry.getNewStatus() != null) {
+            buffer.put((byte) entry.getNewStatus().ordinal());
+        }
+        if (entry.getOldStatus() != null) {
+            buffer.put((byte) entry.getOldStatus().ordinal());
+        }
+        if (entry.getProcessUptime() != null) {
+            buffer.putLong(entry.getProcessUptime().getSeconds()).putInt(entry.getProcessUptime().getNano());
+        }
+        commit(buffer, size);
+        lastId = Math.max(lastId, entry.getId());
+    }
+
+    /**
+     * Appends the deletion of an event.
+     *
+     * @param id id of the deleted event
+     */
+    public synchronized void appendDelete(long id) {
+        ByteBuffer buffer = reserve(9);
+        if (buffer != null) {
+            buffer.put(DELETE).putLong(id);
+            commit(buffer, 9);
+        }
+    }
+
+    /**
+     * Appends the deletion of all events.
+     */
+    public synchronized void appendClear() {
+        ByteBuffer buffer = reserve(1);
+        if (buffer != null) {
+            buffer.put(CLEAR);
+            commit(buffer, 1);
+        }
+    }
+
+    /**
+     * Deletes the oldest segments whose events all have lower ids than the given one. The
+     * segment being written is kept.
+     *
+     * @param firstRetainedId id of the oldest event still kept by the event store
+     */
+    public synchronized void expire(long firstRetainedId) {
+        while (segments.size() > 1 && segments.get(1).baseId() < firstRetainedId) {
+            Segment expired = segments.remove(0);
+            try {
+                Files.deleteIfExists(expired.path());
+                log.debug("Deleted expired event journal segment {}", expired.path());
+            } catch (IOException e) {
+                log.warn("Failed to delete event journal segment {}: {}", expired.path(), e.toString());
+            }
+        }
+    }
+
+    /**
+     * Flushes the segment being written if anything was appended since the last flush. Runs on
+     * the sync thread; the flush itself happens outside the lock, appending may continue
+     * meanwhile and is picked up by the next run.
+     */
+    private void syncIfDirty() {
+        MappedByteBuffer segment;
+        synchronized (this) {
+            if (!dirty || active == null) {
+                return;
+            }
+            segment = active;
+            dirty = false;
+        }
+        try {
+            segment.force();
+        } catch (RuntimeException e) {
+            log.warn("Failed to flush event journal: {}", e.toString());
+            synchronized (this) {
+                dirty = true;
+            }
+        }
+    }
+
+    /**
+     * Flushes the journal to disk.
+     */
+    public synchronized void sync() {
+        if (active != null && dirty) {
+            active.force();
+        }
+        dirty = false;
+    }
+
+    /**
+     * Flushes the journal to disk and stops appending.
+     */
+    @Override
+    public synchronized void close() {
+        if (syncer != null) {
+            syncer.shutdownNow();
+        }
+        if (!closed) {
+            sync();
+            closed = true;
+            active = null;
+        }
+    }
+
+    private void openSegments() throws IOException {
+        List<Path> paths;
+        try (Stream<Path> files = Files.list(directory)) {
+            paths = files.filter(path -> segmentNumber(path) >= 0).sorted().toList();
+        }
+        for (Path path : paths) {
+            nextSegment = Math.max(nextSegment, segmentNumber(path) + 1);
+            long baseId = readBaseId(path);
+            if (baseId < 0) {
+                log.warn("Ignoring event journal file {} without a valid header", path);
+                continue;
+            }
+            segments.add(new Segment(path, baseId));
+            lastId = Math.max(lastId, baseId);
+        }
+        if (segments.isEmpty()) {
+            roll();
+            return;
+        }
+        Segment newest = segments.get(segments.size() - 1);
+        active = map(newest.path(), FileChannel.MapMode.READ_WRITE);
+        int end = validEnd(active, newest.path());
+        for (int i = end; i < active.limit(); i++) {
+            if (active.get(i) != 0) {
+                active.put(i, (byte) 0);
+            }
+        }
+        active.position(end);
+        for (Segment segment : segments) {
+            ByteBuffer buffer = segment == newest ? active.duplicate()
+                    : map(segment.path(), FileChannel.MapMode.READ_ONLY);
+            scanLastId(buffer, validEnd(buffer, segment.path()));
+        }
+    }
+
+    /**
+     * Returns a buffer positioned at the payload of a new record of the given size, rolling
+     * over to a new segment if the record does not fit, or null if it cannot be written.
+     */
+    private ByteBuffer reserve(int size) {
+        if (closed) {
+            return null;
+        }
+        if (size + RECORD_HEADER_BYTES > segmentSize - SEGMENT_HEADER_BYTES) {
+            log.warn("Not journaling record of {} bytes, larger than a journal segment", size);
+            return null;
+        }
+        if (active == null || active.remaining() < size + RECORD_HEADER_BYTES) {
+            try {
+                roll();
+            } catch (IOException e) {
+                log.error("Failed to create event journal segment in {}", directory, e);
+                return null;
+            }
+        }
+        active.position(active.position() + RECORD_HEADER_BYTES);
+        return active;
+    }
+
+    /**
+     * Writes the header of the record whose payload was just written, the length last so a
+     * record is only complete once its payload and checksum are in place.
+     */
+    private void commit(ByteBuffer buffer, int size) {
+        int payload = buffer.position() - size;
+        crc.reset();
+        crc.update(buffer.slice(payload, size));
+        buffer.putInt(payload - 4, (int) crc.getValue());
+        buffer.putInt(payload - RECORD_HEADER_BYTES, size);
+        dirty = true;
+    }
+
+    private void roll() throws IOException {
+        if (active != null) {
+            active.force();
+        }
+        Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, nextSegment, SEGMENT_SUFFIX));
+        MappedByteBuffer segment;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+        segment.putInt(MAGIC).putInt(VERSION).putLong(lastId);
+        nextSegment++;
+        segments.add(new Segment(path, lastId));
+        active = segment;
+        dirty = true;
+        log.debug("Started event journal segment {}", path);
+    }
+
+    private MappedByteBuffer map(Path path, FileChannel.MapMode mode) throws IOException {
+        try (FileChannel channel = mode == FileChannel.MapMode.READ_ONLY
+                ? FileChannel.open(path, StandardOpenOption.READ)
+                : FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(mode, 0, channel.size());
+        }
+    }
+
+    /**
+     * Returns the position after the last record of a segment that is complete and has a
+     * valid checksum.
+     */
+    private int validEnd(ByteBuffer segment, Path path) {
+        int position = SEGMENT_HEADER_BYTES;
+        int limit = segment.limit();
+        while (position + RECORD_HEADER_BYTES <= limit) {
+            int length = segment.getInt(position);
+            if (length == 0) {
+                return position;
+            }
+            if (length < 0 || length > limit - position - RECORD_HEADER_BYTES) {
+                break;
+            }
+            crc.reset();
+            crc.update(segment.slice(position + RECORD_HEADER_BYTES, length));
+            if ((int) crc.getValue() != segment.getInt(position + 4)) {
+                break;
+            }
+            position += RECORD_HEADER_BYTES + length;
+        }
+        if (position + RECORD_HEADER_BYTES <= limit) {
+            log.warn("Event journal segment {} is damaged at offset {}, ignoring the rest of the segment", path, position);
+        }
+        return position;
+    }
+
+    private void scanLastId(ByteBuffer segment, int end) {
+        int position = SEGMENT_HEADER_BYTES;
+        while (position < end) {
+            int length = segment.getInt(position);
+            int payload = position + RECORD_HEADER_BYTES;
+            if (segment.get(payload) == EVENT) {
+                lastId = Math.max(lastId, segment.getLong(payload + 1));
+            }
+            position = payload + length;
+        }
+    }
+
+    private static void replayRecord(ByteBuffer record, ReplayHandler handler) {
+        byte type = record.get();
+        if (type == DELETE) {
+            handler.delete(record.getLong());
+        } else if (type == CLEAR) {
+            handler.clear();
+        } else if (type == EVENT) {
+            handler.event(readEvent(record));
+        }
+    }
+
+    private static ProcessEventEntry readEvent(ByteBuffer record) {
+        ProcessEventEntry entry = new ProcessEventEntry();
+        entry.setId(record.getLong());
+        int mask = record.getShort() & 0xFFFF;
+        if ((mask & PID) != 0) {
+            entry.setPid(record.getLong());
+        }
+        if ((mask & EVENT_TIME) != 0) {
+            entry.setEventTime(getTime(record));
+        }
+        if ((mask & PROCESS_NAME) != 0) {
+            byte[] name = new byte[record.getShort() & 0xFFFF];
+            record.get(name);
+            entry.setProcessName(new String(name, StandardCharsets.UTF_8));
+        }
+        if ((mask & START_TIME) != 0) {
+            entry.setStartTime(getTime(record));
+        }
+        if ((mask & END_TIME) != 0) {
+            entry.setEndTime(getTime(record));
+        }
+        if ((mask & EXIT_CODE) != 0) {
+            entry.setExitCode(record.getInt());
+        }
+        if ((mask & NEW_STATUS) != 0) {
+            entry.setNewStatus(STATUSES[record.get()]);
+        }
+        if ((mask & OLD_STATUS) != 0) {
+            entry.setOldStatus(STATUSES[record.get()]);
+        }
+        if ((mask & PROCESS_UPTIME) != 0) {
+            entry.setProcessUptime(Duration.ofSeconds(record.getLong(), record.getInt()));
+        }
+        return entry;
+    }
+
+    private static int eventSize(ProcessEventEntry entry, byte[] name) {
+        return 11
+                + (entry.getPid() != null ? 8 : 0)
+                + (entry.getEventTime() != null ? 12 : 0)
+                + (name != null ? 2 + name.length : 0)
+                + (entry.getStartTime() != null ? 12 : 0)
+                + (entry.getEndTime() != null ? 12 : 0)
+                + (entry.getExitCode() != null ? 4 : 0)
+                + (entry.getNewStatus() != null ? 1 : 0)
+                + (entry.getOldStatus() != null ? 1 : 0)
+                + (entry.getProcessUptime() != null ? 12 : 0);
+    }
+
+    private static void putTime(ByteBuffer buffer, LocalDateTime time) {
+        if (time != null) {
+            buffer.putLong(time.toEpochSecond(ZoneOffset.UTC)).putInt(time.getNano());
+        }
+    }
+
+    private static LocalDateTime getTime(ByteBuffer buffer) {
+        return LocalDateTime.ofEpochSecond(buffer.getLong(), buffer.getInt(), ZoneOffset.UTC);
+    }
+
+    private static long readBaseId(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_BYTES);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // read the whole header
+            }
+            header.flip();
+            if (header.remaining() < SEGMENT_HEADER_BYTES || header.getInt() != MAGIC || header.getInt() != VERSION) {
+                return -1;
+            }
+            return header.getLong();
+        }
+    }
+
+    private static long segmentNumber(Path path) {
+        String name = path.getFileName().toString();
+        if (!name.startsWith(SEGMENT_PREFIX) || !name.endsWith(SEGMENT_SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
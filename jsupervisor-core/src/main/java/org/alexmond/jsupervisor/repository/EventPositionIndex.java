@@ -0,0 +1,138 @@
+package org.alexmond.jsupervisor.repository;
+
+/**
+ * Ascending sequence of ring positions of the events matching one criterion.
+ * <p>
+ * Positions are appended at the end and, as the ring evicts its oldest event first, removed
+ * from the front, both in constant time; the buffer is circular and grows on demand. The
+ * position at a given rank is read directly, so a page of an index is read without walking
+ * the entries before it. Removing or inserting a position elsewhere shifts the positions after
+ * it and is only used for deleted and replaced events. Not thread-safe; callers synchronize.
+ */
+class EventPositionIndex {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private long[] positions = new long[INITIAL_CAPACITY];
+    private int first;
+    private int size;
+
+    /**
+     * Appends a position higher than all positions in the index.
+     *
+     * @param position ring position of the event
+     */
+    void add(long position) {
+        if (size == positions.length) {
+            grow();
+        }
+        positions[(first + size) % positions.length] = position;
+        size++;
+    }
+
+    /**
+     * Removes the lowest position if it is the given one.
+     *
+     * @param position ring position of the evicted event
+     */
+    void evict(long position) {
+        if (size > 0 && positions[first] == position) {
+            first = (first + 1) % positions.length;
+            size--;
+        }
+    }
+
+    /**
+     * Inserts a position at its place in the ascending order.
+     *
+     * @param position ring position of the event
+     */
+    void insert(long position) {
+        int rank = rankOf(position);
+        if (rank < size && get(rank) == position) {
+            return;
+        }
+        add(position);
+        for (int i = size - 1; i > rank; i--) {
+            set(i, get(i - 1));
+        }
+        set(rank, position);
+    }
+
+    /**
+     * Removes a position if present.
+     *
+     * @param position ring position of the event
+     */
+    void remove(long position) {
+        int rank = rankOf(position);
+        if (rank >= size || get(rank) != position) {
+            return;
+        }
+        for (int i = rank; i < size - 1; i++) {
+            set(i, get(i + 1));
+        }
+        size--;
+    }
+
+    /**
+     * Returns the position at a rank.
+     *
+     * @param rank 0 for the lowest position
+     * @return the position
+     */
+    long get(int rank) {
+        return positions[(first + rank) % positions.length];
+    }
+
+    /**
+     * Returns the number of positions.
+     *
+     * @return number of indexed events
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns whether the index is empty.
+     *
+     * @return true if no event is indexed
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the rank of the lowest position not below the given one.
+     *
+     * @param position ring position
+     * @return number of positions below the given one
+     */
+    int rankOf(long position) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (get(mid) < position) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private void set(int rank, long position) {
+        positions[(first + rank) % positions.length] = position;
+    }
+
+    private void grow() {
+        long[] grown = new long[positions.length * 2];
+        for (int i = 0; i < size; i++) {
+            grown[i] = get(i);
+        }
+        positions = grown;
+        first = 0;
+    }
+}
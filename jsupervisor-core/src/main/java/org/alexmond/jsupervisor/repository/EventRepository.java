@@ -6,19 +6,28 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.PagingAndSortingRepository;
-import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
 
 
 /**
- * Repository interface for managing ProcessEvent entities in the database.
+ * Repository interface for storing process events.
  * Provides basic CRUD operations and additional query methods for process events storage.
  * Extends both CrudRepository and PagingAndSortingRepository to support basic operations
- * and pagination capabilities.
+ * and pagination capabilities. The default implementation is the bounded in-memory
+ * {@link RingBufferEventRepository}.
  */
-@Repository
 public interface EventRepository extends CrudRepository<ProcessEventEntry, Long>,
         PagingAndSortingRepository<ProcessEventEntry, Long> {
 
+    /**
+     * Returns the highest id ever stored, including events that were since evicted or deleted,
+     * so that new events continue the id sequence.
+     *
+     * @return the last id, 0 if no event was stored
+     */
+    long getLastId();
+
     /**
      * Finds all process events associated with a specific process name.
      *
@@ -37,6 +46,50 @@ public interface EventRepository extends CrudRepository<ProcessEventEntry, Long>
      */
     Page<ProcessEventEntry> findByNewStatus(ProcessStatus status, Pageable pageable);
 
+    /**
+     * Finds all process events with a higher id than the given one, that is the events stored
+     * after it.
+     *
+     * @param id       id of the last known event, or null for all events
+     * @param pageable pagination and sorting information
+     * @return a page of ProcessEventEntry objects stored after the given event
+     */
+    Page<ProcessEventEntry> findByIdGreaterThan(Long id, Pageable pageable);
+
+    /**
+     * Finds all process events whose event time lies within a range.
+     *
+     * @param from     earliest event time, inclusive, or null for no lower bound
+     * @param to       latest event time, inclusive, or null for no upper bound
+     * @param pageable pagination and sorting information
+     * @return a page of ProcessEventEntry objects within the range
+     */
+    Page<ProcessEventEntry> findByEventTimeBetween(LocalDateTime from, LocalDateTime to, Pageable pageable);
+
+    /**
+     * Finds the process events of a specific process whose event time lies within a range.
+     *
+     * @param processName the name of the process to search for
+     * @param from        earliest event time, inclusive, or null for no lower bound
+     * @param to          latest event time, inclusive, or null for no upper bound
+     * @param pageable    pagination and sorting information
+     * @return a page of ProcessEventEntry objects matching the process name within the range
+     */
+    Page<ProcessEventEntry> findByProcessNameAndEventTimeBetween(String processName, LocalDateTime from,
+                                                                 LocalDateTime to, Pageable pageable);
+
+    /**
+     * Finds the process events with a specific status whose event time lies within a range.
+     *
+     * @param status   the ProcessStatus to search for
+     * @param from     earliest event time, inclusive, or null for no lower bound
+     * @param to       latest event time, inclusive, or null for no upper bound
+     * @param pageable pagination and sorting information
+     * @return a page of ProcessEventEntry objects matching the status within the range
+     */
+    Page<ProcessEventEntry> findByNewStatusAndEventTimeBetween(ProcessStatus status, LocalDateTime from,
+                                                               LocalDateTime to, Pageable pageable);
+
     /**
      * Finds all events with pagination support.
      *
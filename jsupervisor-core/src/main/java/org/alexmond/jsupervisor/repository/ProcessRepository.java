@@ -4,12 +4,15 @@ import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.alexmond.jsupervisor.config.ProcessConfig;
 import org.alexmond.jsupervisor.config.SupervisorConfig;
+import org.alexmond.jsupervisor.exception.JSupervisorException;
 import org.alexmond.jsupervisor.model.ProcessStatusInfo;
 import org.alexmond.jsupervisor.model.RunningProcess;
+import org.alexmond.jsupervisor.utility.InstanceTemplate;
 import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Repository class managing running processes in the supervisor system.
@@ -20,6 +23,9 @@ public class ProcessRepository {
 
 
     private final Map<String, RunningProcess> runningProcesses = new ConcurrentHashMap<>();
+    private final Map<String, List<RunningProcess>> standbyProcesses = new ConcurrentHashMap<>();
+    private final Map<String, List<RunningProcess>> scaledInstances = new ConcurrentHashMap<>();
+    private final Map<String, ProcessConfig> processTemplates = new ConcurrentHashMap<>();
     @Getter
     private final Map<Integer, List<String>> processOrders = new TreeMap<>();
     @Getter
@@ -36,19 +42,56 @@ public class ProcessRepository {
     public ProcessRepository(SupervisorConfig supervisorConfig, ApplicationEventPublisher eventPublisher) {
         this.eventPublisher = eventPublisher;
         for (var processConfig : supervisorConfig.getProcess().entrySet()) {
-            addProcess(processConfig.getKey(), processConfig.getValue());
+            registerProcess(processConfig.getKey(), processConfig.getValue());
         }
+        validateDependencies();
     }
 
     /**
      * Adds a new process to the repository with specified configuration.
      * Process is added to running processes map and ordered list based on its priority.
+     * The dependencies are validated before anything is registered, so a rejected process
+     * leaves the repository, including a previous configuration of the same name, unchanged.
      *
      * @param processName   Name of the process to add
      * @param processConfig Configuration for the process
+     * @throws JSupervisorException if the process depends on an unknown process or introduces a dependency cycle
      */
     public void addProcess(String processName, ProcessConfig processConfig) {
-        runningProcesses.put(processName, new RunningProcess(processName, processConfig, eventPublisher));
+        Map<String, List<String>> graph = dependencyGraph();
+        graph.put(processName, processConfig.getDependsOn() == null ? List.of() : processConfig.getDependsOn());
+        validateDependencies(graph);
+        registerProcess(processName, processConfig);
+    }
+
+    private void registerProcess(String processName, ProcessConfig processConfig) {
+        if (processConfig.getInstances() < 1) {
+            throw new JSupervisorException("Process " + processName + " must have at least one instance",
+                    "INVALID_INSTANCES");
+        }
+        if (processConfig.getInstances() > 1 && processConfig.getWarmSpares() > 0) {
+            throw new JSupervisorException("Process " + processName
+                    + " cannot combine multiple instances with warm spares", "INVALID_INSTANCES");
+        }
+        processTemplates.put(processName, processConfig);
+        runningProcesses.put(processName, new RunningProcess(processName, 0,
+                InstanceTemplate.forInstance(processName, processConfig, 0), eventPublisher));
+        if (processConfig.getWarmSpares() > 0) {
+            List<RunningProcess> standbys = new CopyOnWriteArrayList<>();
+            for (int instance = 1; instance <= processConfig.getWarmSpares(); instance++) {
+                RunningProcess standby = new RunningProcess(processName, instance,
+                        InstanceTemplate.forInstance(processName, processConfig, instance), eventPublisher);
+                standby.setStandby(true);
+                standbys.add(standby);
+            }
+            standbyProcesses.put(processName, standbys);
+        }
+        List<RunningProcess> instances = new CopyOnWriteArrayList<>();
+        for (int instance = 1; instance < processConfig.getInstances(); instance++) {
+            instances.add(new RunningProcess(processName, instance,
+                    InstanceTemplate.forInstance(processName, processConfig, instance), eventPublisher));
+        }
+        scaledInstances.put(processName, instances);
         // Handle order
         int order = Integer.MAX_VALUE;
         if (processConfig.getOrder() != null) {
@@ -79,8 +122,20 @@ public class ProcessRepository {
      * @param processName Name of the process to remove
      */
     public void removeProcess(String processName) {
-        if (runningProcesses.containsKey(processName) && !runningProcesses.get(processName).isProcessRunning()) {
+        List<String> dependents = runningProcesses.keySet().stream()
+                .filter(name -> dependenciesOf(name).contains(processName))
+                .toList();
+        if (!dependents.isEmpty()) {
+            log.error("Process {} is a dependency of {} and cannot be removed", processName, dependents);
+            return;
+        }
+        if (runningProcesses.containsKey(processName) && !runningProcesses.get(processName).isProcessRunning()
+                && getStandbyProcesses(processName).stream().noneMatch(RunningProcess::isProcessRunning)
+                && getScaledInstances(processName).stream().noneMatch(RunningProcess::isProcessRunning)) {
             runningProcesses.remove(processName);
+            standbyProcesses.remove(processName);
+            scaledInstances.remove(processName);
+            processTemplates.remove(processName);
             Iterator<Map.Entry<Integer, List<String>>> iterator = processOrders.entrySet().iterator();
             while (iterator.hasNext()) {
                 Map.Entry<Integer, List<String>> entry = iterator.next();
@@ -139,6 +194,137 @@ public class ProcessRepository {
     }
 
 
+    /**
+     * Verifies that every declared dependency refers to a known process and that
+     * the dependency graph is free of cycles.
+     *
+     * @throws JSupervisorException if an unknown dependency or a cycle is found
+     */
+    public void validateDependencies() {
+        validateDependencies(dependencyGraph());
+    }
+
+    /**
+     * Returns the declared dependencies of all registered processes.
+     */
+    private Map<String, List<String>> dependencyGraph() {
+        Map<String, List<String>> graph = new HashMap<>();
+        runningProcesses.keySet().forEach(processName -> graph.put(processName, dependenciesOf(processName)));
+        return graph;
+    }
+
+    private static void validateDependencies(Map<String, List<String>> graph) {
+        graph.forEach((processName, dependencies) -> {
+            for (String dependency : dependencies) {
+                if (!graph.containsKey(dependency)) {
+                    throw new JSupervisorException("Process '" + processName
+                            + "' depends on unknown process '" + dependency + "'", "INVALID_DEPENDENCY");
+                }
+            }
+        });
+        Map<String, Boolean> visited = new HashMap<>();
+        graph.keySet().forEach(processName -> detectCycle(processName, graph, visited, new ArrayDeque<>()));
+    }
+
+    /**
+     * Depth-first search marking nodes as in progress (false) or completed (true).
+     */
+    private static void detectCycle(String processName, Map<String, List<String>> graph,
+                                    Map<String, Boolean> visited, Deque<String> path) {
+        Boolean completed = visited.get(processName);
+        if (Boolean.TRUE.equals(completed)) {
+            return;
+        }
+        if (Boolean.FALSE.equals(completed)) {
+            List<String> cycle = new ArrayList<>(path);
+            cycle = new ArrayList<>(cycle.subList(cycle.indexOf(processName), cycle.size()));
+            cycle.add(processName);
+            throw new JSupervisorException("Dependency cycle detected: " + String.join(" -> ", cycle),
+                    "DEPENDENCY_CYCLE");
+        }
+        visited.put(processName, false);
+        path.addLast(processName);
+        graph.get(processName).forEach(dependency -> detectCycle(dependency, graph, visited, path));
+        path.removeLast();
+        visited.put(processName, true);
+    }
+
+    /**
+     * Returns the declared dependencies of a process.
+     *
+     * @param processName Name of the process
+     * @return list of process names the process depends on, never null
+     */
+    public List<String> dependenciesOf(String processName) {
+        RunningProcess runningProcess = runningProcesses.get(processName);
+        if (runningProcess == null || runningProcess.getProcessConfig().getDependsOn() == null) {
+            return List.of();
+        }
+        return runningProcess.getProcessConfig().getDependsOn();
+    }
+
+    /**
+     * Checks whether any of the given processes declares dependencies.
+     *
+     * @param processNames names of the processes to check
+     * @return true if at least one process has dependencies
+     */
+    public boolean hasDependencies(Collection<String> processNames) {
+        return processNames.stream().anyMatch(processName -> !dependenciesOf(processName).isEmpty());
+    }
+
+    /**
+     * Expands the given processes with all of their transitive dependencies.
+     *
+     * @param processNames names of the processes to resolve
+     * @return the given processes together with everything they depend on
+     */
+    public Set<String> resolveDependencies(Collection<String> processNames) {
+        Set<String> resolved = new LinkedHashSet<>();
+        Deque<String> toVisit = new ArrayDeque<>(processNames);
+        while (!toVisit.isEmpty()) {
+            String processName = toVisit.removeFirst();
+            if (resolved.add(processName)) {
+                toVisit.addAll(dependenciesOf(processName));
+            }
+        }
+        return resolved;
+    }
+
+    /**
+     * Groups the given processes into topological levels. Level 0 contains processes
+     * without dependencies among the given set, level n processes whose deepest
+     * dependency is on level n-1. Starting level by level respects all dependencies;
+     * stopping in reverse level order stops dependents before their dependencies.
+     *
+     * @param processNames names of the processes to order
+     * @return processes grouped by level, in ascending level order
+     */
+    public List<List<String>> getDependencyLevels(Collection<String> processNames) {
+        Set<String> selection = new HashSet<>(processNames);
+        Map<String, Integer> levels = new HashMap<>();
+        Map<Integer, List<String>> byLevel = new TreeMap<>();
+        processNames.forEach(processName -> byLevel
+                .computeIfAbsent(dependencyLevel(processName, selection, levels), level -> new ArrayList<>())
+                .add(processName));
+        return new ArrayList<>(byLevel.values());
+    }
+
+    private int dependencyLevel(String processName, Set<String> selection, Map<String, Integer> levels) {
+        Integer known = levels.get(processName);
+        if (known != null) {
+            return known;
+        }
+        int level = 0;
+        for (String dependency : dependenciesOf(processName)) {
+            if (selection.contains(dependency)) {
+                level = Math.max(level, dependencyLevel(dependency, selection, levels) + 1);
+            }
+        }
+        levels.put(processName, level);
+        return level;
+    }
+
     /**
      * Retrieves all running processes.
      *
@@ -165,7 +351,102 @@ public class ProcessRepository {
      * @return ProcessStatusRest object containing process status information
      */
     public ProcessStatusInfo getRunningProcessInfo(String name) {
-        return new ProcessStatusInfo(name, runningProcesses.get(name));
+        ProcessStatusInfo processStatusInfo = new ProcessStatusInfo(name, runningProcesses.get(name));
+        processStatusInfo.setReadySpares((int) getStandbyProcesses(name).stream()
+                .filter(RunningProcess::isProcessReady)
+                .count());
+        List<RunningProcess> instances = getScaledInstances(name);
+        processStatusInfo.setInstances(instances.size() + 1);
+        processStatusInfo.setRunningInstances((processStatusInfo.isAlive() ? 1 : 0)
+                + (int) instances.stream().filter(RunningProcess::isProcessRunning).count());
+        return processStatusInfo;
+    }
+
+    /**
+     * Retrieves the warm standby instances of a process.
+     *
+     * @param name Name of the process
+     * @return the standby instances, empty if the process has no warm spares
+     */
+    public List<RunningProcess> getStandbyProcesses(String name) {
+        return standbyProcesses.getOrDefault(name, List.of());
+    }
+
+    /**
+     * Retrieves the additional instances of a multi-instance process, numbered from 1.
+     * Instance 0 is the process returned by {@link #getRunningProcess(String)}.
+     *
+     * @param name Name of the process
+     * @return the additional instances in ascending instance order, empty for a single-instance process
+     */
+    public List<RunningProcess> getScaledInstances(String name) {
+        return scaledInstances.getOrDefault(name, List.of());
+    }
+
+    /**
+     * Changes the number of instances of a process. New instances are created from the
+     * configuration template of the process with the next free instance numbers; when
+     * scaling down the highest numbered instances are removed. Neither are started or stopped.
+     *
+     * @param name      Name of the process
+     * @param instances New number of instances, including instance 0
+     * @param added     Receives the instances that were created
+     * @param removed   Receives the instances that were removed
+     * @throws JSupervisorException if the process does not exist, has warm spares or the count is below one
+     */
+    public void scaleInstances(String name, int instances, List<RunningProcess> added, List<RunningProcess> removed) {
+        List<RunningProcess> current = scaledInstances.get(name);
+        ProcessConfig template = processTemplates.get(name);
+        if (current == null || template == null) {
+            throw new JSupervisorException("Process " + name + " not found", "PROCESS_NOT_FOUND");
+        }
+        if (instances < 1) {
+            throw new JSupervisorException("Process " + name + " must have at least one instance", "INVALID_INSTANCES");
+        }
+        if (instances > 1 && template.getWarmSpares() > 0) {
+            throw new JSupervisorException("Process " + name
+                    + " cannot combine multiple instances with warm spares", "INVALID_INSTANCES");
+        }
+        synchronized (current) {
+            for (int instance = current.size() + 1; instance < instances; instance++) {
+                RunningProcess runningProcess = new RunningProcess(name, instance,
+                        InstanceTemplate.forInstance(name, template, instance), eventPublisher);
+                current.add(runningProcess);
+                added.add(runningProcess);
+            }
+            while (current.size() + 1 > instances) {
+                removed.add(current.remove(current.size() - 1));
+            }
+        }
+        template.setInstances(instances);
+    }
+
+    /**
+     * Promotes the first ready standby instance of a process to be the active instance.
+     * The previously active instance takes its place among the standby instances.
+     *
+     * @param name Name of the process
+     * @return the promoted instance, or null if no standby instance is ready
+     */
+    public RunningProcess promoteStandby(String name) {
+        List<RunningProcess> standbys = standbyProcesses.get(name);
+        if (standbys == null) {
+            return null;
+        }
+        synchronized (standbys) {
+            RunningProcess active = runningProcesses.get(name);
+            for (RunningProcess standby : standbys) {
+                if (standby.isProcessReady()) {
+                    standbys.remove(standby);
+                    active.setStandby(true);
+                    standbys.add(active);
+                    standby.setStandby(false);
+                    runningProcesses.put(name, standby);
+                    return standby;
+                }
+            }
+        }
+        return null;
     }
 
 
@@ -0,0 +1,696 @@
+package org.alexmond.jsupervisor.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.alexmond.jsupervisor.config.EventsConfig;
+import org.alexmond.jsupervisor.model.ProcessEventEntry;
+import org.alexmond.jsupervisor.model.ProcessStatus;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * In-memory event store keeping process events in a fixed-size ring buffer.
+ * <p>
+ * Events are appended in id order into preallocated slots. Once the ring is full, appending
+ * an event evicts the oldest one, and events older than the configured maximum age are evicted
+ * from the head of the ring, so both appending and eviction take constant time and the number
+ * of stored events never exceeds the capacity. The capacity is the smaller of the configured
+ * maximum event count and the number of events fitting into the configured memory cap.
+ * <p>
+ * Every stored event is indexed by position in a global index, an index of its process and an
+ * index of its new status, all kept in ring order. As events are stored in publishing order,
+ * each index is also ordered by event time; a time range is found by binary search over the
+ * event times of the index, and a page sorted by id or event time is read directly at its
+ * offset. Paged, filtered and time-range queries therefore cost O(log n + page size). Event
+ * times that are earlier than the time of the preceding event, as can happen for events
+ * published concurrently, are ranked at the time of the preceding event. Queries sorted by
+ * other properties sort the matching range. Lookups by id use a binary search over the ring.
+ * <p>
+ * With an {@link EventJournal}, the journal is replayed into the ring on creation, every stored
+ * or deleted event is appended to it, and journal segments are expired once all their events
+ * have been evicted from the ring.
+ */
+@Slf4j
+public class RingBufferEventRepository implements EventRepository, DisposableBean {
+
+    /**
+     * Estimated heap size of one stored event including its slot, used to derive the capacity
+     * from the memory cap.
+     */
+    static final int ESTIMATED_EVENT_BYTES = 320;
+
+    private static final Map<String, Function<ProcessEventEntry, Comparable<?>>> SORT_PROPERTIES = Map.of(
+            "id", ProcessEventEntry::getId,
+            "pid", ProcessEventEntry::getPid,
+            "eventTime", ProcessEventEntry::getEventTime,
+            "processName", ProcessEventEntry::getProcessName,
+            "startTime", ProcessEventEntry::getStartTime,
+            "endTime", ProcessEventEntry::getEndTime,
+            "exitCode", ProcessEventEntry::getExitCode,
+            "newStatus", ProcessEventEntry::getNewStatus,
+            "oldStatus", ProcessEventEntry::getOldStatus,
+            "processUptime", ProcessEventEntry::getProcessUptime);
+
+    private final ProcessEventEntry[] slots;
+    private final long[] ids;
+    private final long[] timeKeys;
+    private final Duration maxAge;
+    private final EventJournal journal;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final EventPositionIndex allEvents = new EventPositionIndex();
+    private final Map<String, EventPositionIndex> processIndexes = new HashMap<>();
+    private final Map<ProcessStatus, EventPositionIndex> statusIndexes = new EnumMap<>(ProcessStatus.class);
+    private long head;
+    private long tail;
+    private long lastId;
+    private long lastTimeKey = Long.MIN_VALUE;
+
+    /**
+     * Creates an event store kept only in memory.
+     *
+     * @param eventsConfig retention settings
+     */
+    public RingBufferEventRepository(EventsConfig eventsConfig) {
+        this(eventsConfig, null);
+    }
+
+    /**
+     * Creates an event store and loads the events of a journal into it.
+     *
+     * @param eventsConfig retention settings
+     * @param journal      journal the events are replayed from and written to, or null
+     */
+    public RingBufferEventRepository(EventsConfig eventsConfig, EventJournal journal) {
+        long memoryCapacity = eventsConfig.getMaxMemory().toBytes() / ESTIMATED_EVENT_BYTES;
+        int capacity = (int) Math.max(1, Math.min(eventsConfig.getMaxEvents(), memoryCapacity));
+        this.slots = new ProcessEventEntry[capacity];
+        this.ids = new long[capacity];
+        this.timeKeys = new long[capacity];
+        this.maxAge = eventsConfig.getMaxAge();
+        this.journal = journal;
+        log.debug("Event store capacity {} events", capacity);
+        if (journal != null) {
+            replay(journal);
+        }
+    }
+
+    /**
+     * Returns the maximum number of events kept.
+     *
+     * @return capacity of the ring
+     */
+    public int getCapacity() {
+        return slots.length;
+    }
+
+    @Override
+    public long getLastId() {
+        lock.readLock().lock();
+        try {
+            return lastId;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Stores an event. An event without id is given the id following the last stored one.
+     * An event with a higher id than all stored events is appended, an event with the id of a
+     * stored event replaces it.
+     *
+     * @param entry the event
+     * @return the stored event
+     * @throws IllegalArgumentException if the event has a lower id than the newest event and
+     *                                  no stored event has its id
+     */
+    @Override
+    public <S extends ProcessEventEntry> S save(S entry) {
+        lock.writeLock().lock();
+        try {
+            evictExpired(LocalDateTime.now());
+            store(entry);
+            journal(entry);
+            return entry;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Stores events in order, see {@link #save}.
+     *
+     * @param entries the events
+     * @return the stored events
+     */
+    @Override
+    public <S extends ProcessEventEntry> Iterable<S> saveAll(Iterable<S> entries) {
+        lock.writeLock().lock();
+        try {
+            evictExpired(LocalDateTime.now());
+            for (S entry : entries) {
+                store(entry);
+                journal(entry);
+            }
+            return entries;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<ProcessEventEntry> findById(Long id) {
+        lockForRead();
+        try {
+            long index = indexOf(id);
+            return index < 0 ? Optional.empty() : Optional.ofNullable(slot(index));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return findById(id).isPresent();
+    }
+
+    @Override
+    public Iterable<ProcessEventEntry> findAll() {
+        return findAll(Sort.unsorted());
+    }
+
+    @Override
+    public Iterable<ProcessEventEntry> findAll(Sort sort) {
+        return findByEventTimeBetween(null, null, Pageable.unpaged(sort)).getContent();
+    }
+
+    @Override
+    public Page<ProcessEventEntry> findAll(Pageable pageable) {
+        return findByEventTimeBetween(null, null, pageable);
+    }
+
+    @Override
+    public Iterable<ProcessEventEntry> findAllById(Iterable<Long> idList) {
+        List<ProcessEventEntry> entries = new ArrayList<>();
+        lockForRead();
+        try {
+            for (Long id : idList) {
+                long index = indexOf(id);
+                if (index >= 0 && slot(index) != null) {
+                    entries.add(slot(index));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return entries;
+    }
+
+    @Override
+    public Page<ProcessEventEntry> findByProcessName(String processName, Pageable pageable) {
+        return findByProcessNameAndEventTimeBetween(processName, null, null, pageable);
+    }
+
+    @Override
+    public Page<ProcessEventEntry> findByNewStatus(ProcessStatus status, Pageable pageable) {
+        return findByNewStatusAndEventTimeBetween(status, null, null, pageable);
+    }
+
+    @Override
+    public Page<ProcessEventEntry> findByEventTimeBetween(LocalDateTime from, LocalDateTime to, Pageable pageable) {
+        lockForRead();
+        try {
+            return find(allEvents, from, to, pageable);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Page<ProcessEventEntry> findByProcessNameAndEventTimeBetween(String processName, LocalDateTime from,
+                                                                        LocalDateTime to, Pageable pageable) {
+        lockForRead();
+        try {
+            return find(processIndexes.get(processName), from, to, pageable);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Page<ProcessEventEntry> findByNewStatusAndEventTimeBetween(ProcessStatus status, LocalDateTime from,
+                                                                      LocalDateTime to, Pageable pageable) {
+        lockForRead();
+        try {
+            return find(statusIndexes.get(status), from, to, pageable);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Page<ProcessEventEntry> findByIdGreaterThan(Long id, Pageable pageable) {
+        lockForRead();
+        try {
+            int low = id == null ? 0 : allEvents.rankOf(positionAfterId(id));
+            return page(allEvents, low, allEvents.size(), pageable);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long count() {
+        lockForRead();
+        try {
+            return allEvents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Deletes an event. Its slot stays allocated until the event would have been evicted.
+     *
+     * @param id id of the event
+     */
+    @Override
+    public void deleteById(Long id) {
+        lock.writeLock().lock();
+        try {
+            long index = indexOf(id);
+            ProcessEventEntry entry = index >= 0 ? slot(index) : null;
+            if (entry != null) {
+                remove(entry, index);
+                if (journal != null) {
+                    journal.appendDelete(id);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void delete(ProcessEventEntry entry) {
+        if (entry.getId() != null) {
+            deleteById(entry.getId());
+        }
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends Long> idList) {
+        idList.forEach(this::deleteById);
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends ProcessEventEntry> entries) {
+        entries.forEach(this::delete);
+    }
+
+    /**
+     * Removes all events. The id and event time sequences continue after the last stored event.
+     */
+    @Override
+    public void deleteAll() {
+        lock.writeLock().lock();
+        try {
+            clear();
+            if (journal != null) {
+                journal.appendClear();
+                journal.expire(lastId + 1);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Flushes and closes the journal, if any.
+     */
+    @Override
+    public void destroy() {
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    /**
+     * Loads the events of a journal. Events that have expired since they were written or whose
+     * replacement targets an evicted event are skipped.
+     */
+    private void replay(EventJournal journal) {
+        lock.writeLock().lock();
+        try {
+            journal.replay(new EventJournal.ReplayHandler() {
+                @Override
+                public void event(ProcessEventEntry entry) {
+                    try {
+                        store(entry);
+                    } catch (IllegalArgumentException e) {
+                        log.debug("Skipping journaled event {}: {}", entry.getId(), e.getMessage());
+                    }
+                }
+
+                @Override
+                public void delete(long id) {
+                    long index = indexOf(id);
+                    ProcessEventEntry entry = index >= 0 ? slot(index) : null;
+                    if (entry != null) {
+                        remove(entry, index);
+                    }
+                }
+
+                @Override
+                public void clear() {
+                    RingBufferEventRepository.this.clear();
+                }
+            });
+            lastId = Math.max(lastId, journal.getLastId());
+            evictExpired(LocalDateTime.now());
+            journal.expire(firstRetainedId());
+            log.info("Loaded {} events from the event journal, last event id {}", allEvents.size(), lastId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Appends a stored event to the journal and expires the journal segments the ring no
+     * longer holds events of.
+     */
+    private void journal(ProcessEventEntry entry) {
+        if (journal != null) {
+            journal.appendEvent(entry);
+            journal.expire(firstRetainedId());
+        }
+    }
+
+    /**
+     * Returns the id of the oldest event in the ring, or the next id if the ring is empty.
+     */
+    private long firstRetainedId() {
+        return head < tail ? ids[slotOf(head)] : lastId + 1;
+    }
+
+    private void remove(ProcessEventEntry entry, long index) {
+        unindex(entry, index);
+        allEvents.remove(index);
+        slots[slotOf(index)] = null;
+    }
+
+    private void clear() {
+        while (head < tail) {
+            evictHead();
+        }
+    }
+
+    private void store(ProcessEventEntry entry) {
+        if (entry.getId() == null) {
+            entry.setId(lastId + 1);
+        }
+        long id = entry.getId();
+        if (id <= lastId) {
+            long index = indexOf(id);
+            if (index < 0) {
+                throw new IllegalArgumentException("Event " + id + " is older than the newest event " + lastId);
+            }
+            ProcessEventEntry replaced = slot(index);
+            if (replaced != null) {
+                unindex(replaced, index);
+            } else {
+                allEvents.insert(index);
+            }
+            slots[slotOf(index)] = entry;
+            processIndex(entry).insert(index);
+            statusIndex(entry).insert(index);
+            return;
+        }
+        if (tail - head == slots.length) {
+            evictHead();
+        }
+        int slot = slotOf(tail);
+        slots[slot] = entry;
+        ids[slot] = id;
+        lastTimeKey = Math.max(lastTimeKey, timeKey(entry.getEventTime(), lastTimeKey));
+        timeKeys[slot] = lastTimeKey;
+        allEvents.add(tail);
+        processIndex(entry).add(tail);
+        statusIndex(entry).add(tail);
+        tail++;
+        lastId = id;
+    }
+
+    private void evictHead() {
+        int slot = slotOf(head);
+        ProcessEventEntry entry = slots[slot];
+        if (entry != null) {
+            allEvents.evict(head);
+            EventPositionIndex processIndex = processIndexes.get(entry.getProcessName());
+            processIndex.evict(head);
+            if (processIndex.isEmpty()) {
+                processIndexes.remove(entry.getProcessName());
+            }
+            statusIndexes.get(entry.getNewStatus()).evict(head);
+        }
+        slots[slot] = null;
+        head++;
+    }
+
+    private EventPositionIndex processIndex(ProcessEventEntry entry) {
+        return processIndexes.computeIfAbsent(entry.getProcessName(), name -> new EventPositionIndex());
+    }
+
+    private EventPositionIndex statusIndex(ProcessEventEntry entry) {
+        return statusIndexes.computeIfAbsent(entry.getNewStatus(), status -> new EventPositionIndex());
+    }
+
+    /**
+     * Removes an event from its process and status indexes.
+     */
+    private void unindex(ProcessEventEntry entry, long index) {
+        EventPositionIndex processIndex = processIndexes.get(entry.getProcessName());
+        processIndex.remove(index);
+        if (processIndex.isEmpty()) {
+            processIndexes.remove(entry.getProcessName());
+        }
+        statusIndexes.get(entry.getNewStatus()).remove(index);
+    }
+
+    private static long timeKey(LocalDateTime time, long fallback) {
+        if (time == null) {
+            return fallback;
+        }
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + time.getNano();
+    }
+
+    private void evictExpired(LocalDateTime now) {
+        while (headExpired(now)) {
+            evictHead();
+        }
+    }
+
+    /**
+     * Returns whether the oldest slot of the ring holds an expired or deleted event.
+     */
+    private boolean headExpired(LocalDateTime now) {
+        if (maxAge == null || maxAge.isZero() || maxAge.isNegative() || head == tail) {
+            return false;
+        }
+        ProcessEventEntry oldest = slot(head);
+        return oldest == null
+                || oldest.getEventTime() != null && oldest.getEventTime().isBefore(now.minus(maxAge));
+    }
+
+    /**
+     * Takes the read lock. Only if the oldest event has expired, the write lock is taken first
+     * to evict the expired events, so queries do not exclude each other.
+     */
+    private void lockForRead() {
+        lock.readLock().lock();
+        LocalDateTime now = LocalDateTime.now();
+        if (!headExpired(now)) {
+            return;
+        }
+        lock.readLock().unlock();
+        lock.writeLock().lock();
+        try {
+            evictExpired(now);
+            lock.readLock().lock();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the ring index of an event by binary search over the ids, which ascend from head
+     * to tail.
+     *
+     * @return the index, or -1 if no event with the id is in the ring
+     */
+    private long indexOf(Long id) {
+        if (id == null) {
+            return -1;
+        }
+        long low = head;
+        long high = tail - 1;
+        while (low <= high) {
+            long mid = (low + high) >>> 1;
+            long midId = ids[slotOf(mid)];
+            if (midId < id) {
+                low = mid + 1;
+            } else if (midId > id) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds by binary search the ring position of the first event with a higher id than the
+     * given one, which is the tail if there is none.
+     */
+    private long positionAfterId(long id) {
+        long low = head;
+        long high = tail;
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            if (ids[slotOf(mid)] <= id) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Reads a page of the events of an index whose event time lies between the bounds.
+     *
+     * @param index events to read, null for none
+     * @param from  earliest event time, inclusive, or null
+     * @param to    latest event time, inclusive, or null
+     */
+    private Page<ProcessEventEntry> find(EventPositionIndex index, LocalDateTime from, LocalDateTime to,
+                                         Pageable pageable) {
+        if (index == null) {
+            return new PageImpl<>(List.of(), pageable, 0);
+        }
+        int low = from == null ? 0 : rankOfTime(index, timeKey(from, Long.MIN_VALUE), false);
+        int high = to == null ? index.size() : rankOfTime(index, timeKey(to, Long.MAX_VALUE), true);
+        return page(index, low, high, pageable);
+    }
+
+    /**
+     * Reads a page of the events of an index between two ranks.
+     *
+     * @param low  rank of the first event, inclusive
+     * @param high rank of the last event, exclusive
+     */
+    private Page<ProcessEventEntry> page(EventPositionIndex index, int low, int high, Pageable pageable) {
+        int total = Math.max(0, high - low);
+        Sort sort = pageable.getSort();
+        Boolean ascending = ringOrder(sort);
+        if (ascending == null) {
+            List<ProcessEventEntry> matches = new ArrayList<>(total);
+            for (int rank = low; rank < high; rank++) {
+                matches.add(slot(index.get(rank)));
+            }
+            matches.sort(comparator(sort));
+            if (pageable.isUnpaged()) {
+                return new PageImpl<>(matches, pageable, total);
+            }
+            int first = (int) Math.min(pageable.getOffset(), total);
+            int last = Math.min(first + pageable.getPageSize(), total);
+            return new PageImpl<>(new ArrayList<>(matches.subList(first, last)), pageable, total);
+        }
+        int skip = pageable.isPaged() ? (int) Math.min(pageable.getOffset(), total) : 0;
+        int count = pageable.isPaged() ? Math.min(pageable.getPageSize(), total - skip) : total;
+        List<ProcessEventEntry> content = new ArrayList<>(count);
+        for (int i = skip; i < skip + count; i++) {
+            content.add(slot(index.get(ascending ? low + i : high - 1 - i)));
+        }
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    /**
+     * Finds by binary search the rank of the first event of an index that is ranked after the
+     * given time, or at or after it if {@code after} is false.
+     */
+    private int rankOfTime(EventPositionIndex index, long timeKey, boolean after) {
+        int low = 0;
+        int high = index.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            long midKey = timeKeys[slotOf(index.get(mid))];
+            if (midKey < timeKey || after && midKey == timeKey) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Determines whether a sort matches the order of the ring, which holds events by ascending
+     * id, that is in publishing order and therefore by event time.
+     *
+     * @return true for ascending, false for descending ring order, null if the sort needs sorting
+     */
+    private static Boolean ringOrder(Sort sort) {
+        if (sort.isUnsorted()) {
+            return Boolean.TRUE;
+        }
+        List<Sort.Order> orders = sort.toList();
+        if (orders.size() != 1) {
+            return null;
+        }
+        Sort.Order order = orders.get(0);
+        if (!"id".equals(order.getProperty()) && !"eventTime".equals(order.getProperty())) {
+            return null;
+        }
+        return order.isAscending();
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Comparator<ProcessEventEntry> comparator(Sort sort) {
+        Comparator<ProcessEventEntry> comparator = null;
+        for (Sort.Order order : sort) {
+            Function<ProcessEventEntry, Comparable<?>> property = SORT_PROPERTIES.get(order.getProperty());
+            if (property == null) {
+                throw new IllegalArgumentException("Unknown event property: " + order.getProperty());
+            }
+            Comparator<Comparable> values = Comparator.nullsLast(order.isAscending()
+                    ? Comparator.<Comparable>naturalOrder() : Comparator.<Comparable>reverseOrder());
+            Comparator<ProcessEventEntry> next = Comparator.comparing(entry -> (Comparable) property.apply(entry), values);
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        return comparator;
+    }
+
+    private ProcessEventEntry slot(long index) {
+        return slots[slotOf(index)];
+    }
+
+    private int slotOf(long index) {
+        return (int) (index % slots.length);
+    }
+}
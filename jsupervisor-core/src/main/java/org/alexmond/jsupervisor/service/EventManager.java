@@ -11,7 +11,9 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.stream.StreamSupport;
 
@@ -36,16 +38,32 @@ public class EventManager {
      * @return Page of ProcessEventEntry objects
      */
     public Page<ProcessEventEntry> getEvents(int page, int size, String sortBy, String sortDirection) {
+        return getEvents(page, size, sortBy, sortDirection, null, null);
+    }
+
+    /**
+     * Retrieves a page of events within a time range with customizable sorting.
+     *
+     * @param page          Page number (0-based)
+     * @param size          Number of items per page
+     * @param sortBy        Field to sort by (e.g., "eventTime", "processName", "newStatus")
+     * @param sortDirection Sort direction ("asc" or "desc")
+     * @param from          Earliest event time, inclusive, or null for no lower bound
+     * @param to            Latest event time, inclusive, or null for no upper bound
+     * @return Page of ProcessEventEntry objects
+     */
+    public Page<ProcessEventEntry> getEvents(int page, int size, String sortBy, String sortDirection,
+                                             LocalDateTime from, LocalDateTime to) {
         try {
             Sort.Direction direction = Sort.Direction.fromString(sortDirection);
             Sort sort = Sort.by(direction, sortBy);
             Pageable pageable = PageRequest.of(page, size, sort);
-            return eventRepository.findAll(pageable);
+            return eventRepository.findByEventTimeBetween(from, to, pageable);
         } catch (IllegalArgumentException e) {
             log.warn("Invalid sort direction '{}', defaulting to DESC", sortDirection);
             Sort sort = Sort.by(Sort.Direction.DESC, sortBy);
             Pageable pageable = PageRequest.of(page, size, sort);
-            return eventRepository.findAll(pageable);
+            return eventRepository.findByEventTimeBetween(from, to, pageable);
         }
     }
 
@@ -72,9 +90,27 @@ public class EventManager {
      */
     public Page<ProcessEventEntry> getEventsByProcessName(String processName, int page, int size,
                                                           String sortBy, String sortDirection) {
+        return getEventsByProcessName(processName, page, size, sortBy, sortDirection, null, null);
+    }
+
+    /**
+     * Retrieves a page of events for a specific process within a time range.
+     *
+     * @param processName   Name of the process to filter by
+     * @param page          Page number (0-based)
+     * @param size          Number of items per page
+     * @param sortBy        Field to sort by
+     * @param sortDirection Sort direction ("asc" or "desc")
+     * @param from          Earliest event time, inclusive, or null for no lower bound
+     * @param to            Latest event time, inclusive, or null for no upper bound
+     * @return Page of ProcessEventEntry objects for the specified process
+     */
+    public Page<ProcessEventEntry> getEventsByProcessName(String processName, int page, int size,
+                                                          String sortBy, String sortDirection,
+                                                          LocalDateTime from, LocalDateTime to) {
         Sort sort = Sort.by(Sort.Direction.fromString(sortDirection), sortBy);
         Pageable pageable = PageRequest.of(page, size, sort);
-        return eventRepository.findByProcessName(processName, pageable);
+        return eventRepository.findByProcessNameAndEventTimeBetween(processName, from, to, pageable);
     }
 
     /**
@@ -89,9 +125,27 @@ public class EventManager {
      */
     public Page<ProcessEventEntry> getEventsByStatus(ProcessStatus status, int page, int size,
                                                      String sortBy, String sortDirection) {
+        return getEventsByStatus(status, page, size, sortBy, sortDirection, null, null);
+    }
+
+    /**
+     * Retrieves events filtered by status within a time range with pagination.
+     *
+     * @param status        The process status to filter by
+     * @param page          Page number (0-based)
+     * @param size          Number of items per page
+     * @param sortBy        Field to sort by
+     * @param sortDirection Sort direction ("asc" or "desc")
+     * @param from          Earliest event time, inclusive, or null for no lower bound
+     * @param to            Latest event time, inclusive, or null for no upper bound
+     * @return Page of events matching the specified status
+     */
+    public Page<ProcessEventEntry> getEventsByStatus(ProcessStatus status, int page, int size,
+                                                     String sortBy, String sortDirection,
+                                                     LocalDateTime from, LocalDateTime to) {
         Sort sort = Sort.by(Sort.Direction.fromString(sortDirection), sortBy);
         Pageable pageable = PageRequest.of(page, size, sort);
-        return eventRepository.findByNewStatus(status, pageable);
+        return eventRepository.findByNewStatusAndEventTimeBetween(status, from, to, pageable);
     }
 
     /**
@@ -104,6 +158,18 @@ public class EventManager {
         return eventRepository.findById(id);
     }
 
+    /**
+     * Retrieves the events stored after a given event, oldest first.
+     *
+     * @param id    The ID of the last known event, or null to start with the oldest event
+     * @param limit Maximum number of events to retrieve
+     * @return List of ProcessEventEntry objects with a higher ID, in ID order
+     */
+    public List<ProcessEventEntry> getEventsAfter(Long id, int limit) {
+        return eventRepository.findByIdGreaterThan(id, PageRequest.of(0, limit, Sort.by(Sort.Direction.ASC, "id")))
+                .getContent();
+    }
+
     /**
      * Gets the total count of all events in the repository.
      *
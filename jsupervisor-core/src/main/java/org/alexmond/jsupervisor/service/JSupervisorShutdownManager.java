@@ -0,0 +1,48 @@
+package org.alexmond.jsupervisor.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.alexmond.jsupervisor.repository.ProcessRepository;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.core.annotation.Order;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Shutdown manager for JSupervisor.
+ * Stops all supervised processes when the application context is closed, using the same
+ * parallel, reverse-order stop as {@link ProcessGroupManager#stopAll()}, and waits for them
+ * to exit before the supervisor itself goes away.
+ */
+@Slf4j
+@Order(100)
+@RequiredArgsConstructor
+public class JSupervisorShutdownManager implements ApplicationListener<ContextClosedEvent> {
+
+    /**
+     * Extra time granted after the stop deadline for force killed processes to be reaped.
+     */
+    private static final Duration REAP_GRACE = Duration.ofSeconds(5);
+
+    private final ProcessRepository processRepository;
+    private final ProcessGroupManager processGroupManager;
+
+    @Override
+    public void onApplicationEvent(ContextClosedEvent event) {
+        log.info("JSupervisor Shutting Down");
+        Duration timeout = processGroupManager.shutdownTimeout(processRepository.findAll().keySet()).plus(REAP_GRACE);
+        try {
+            processGroupManager.stopAll().get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Interrupted while stopping processes");
+        } catch (ExecutionException | TimeoutException e) {
+            log.error("Failed to stop all processes on shutdown: {}", e.toString());
+        }
+        log.info("JSupervisor Stopped");
+    }
+}
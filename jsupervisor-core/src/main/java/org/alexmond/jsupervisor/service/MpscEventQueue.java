@@ -0,0 +1,108 @@
+package org.alexmond.jsupervisor.service;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free queue for many producers and a single consumer.
+ * <p>
+ * Producers claim a slot by advancing the producer index with a compare-and-set and then
+ * publish the element into the slot; the consumer takes elements in claim order and frees the
+ * slots it has drained. An element whose slot has been claimed but not yet published stops the
+ * consumer until the next drain, so the order of elements is never violated. Offering to a full
+ * queue fails instead of waiting.
+ *
+ * @param <E> type of the elements
+ */
+class MpscEventQueue<E> {
+
+    private final AtomicReferenceArray<E> buffer;
+    private final int mask;
+    private final AtomicLong producerIndex = new AtomicLong();
+    private final AtomicLong consumerIndex = new AtomicLong();
+
+    /**
+     * Creates a queue.
+     *
+     * @param capacity maximum number of elements, rounded up to a power of two
+     */
+    MpscEventQueue(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.buffer = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * Adds an element if the queue is not full. May be called from any thread.
+     *
+     * @param element the element, not null
+     * @return false if the queue is full
+     */
+    boolean offer(E element) {
+        long index;
+        do {
+            index = producerIndex.get();
+            if (index - consumerIndex.get() > mask) {
+                return false;
+            }
+        } while (!producerIndex.compareAndSet(index, index + 1));
+        buffer.lazySet((int) index & mask, element);
+        return true;
+    }
+
+    /**
+     * Moves up to {@code limit} elements into {@code target}, oldest first. Must only be called
+     * from the consumer thread.
+     *
+     * @param target receives the elements
+     * @param limit  maximum number of elements moved
+     * @return number of elements moved
+     */
+    int drain(List<? super E> target, int limit) {
+        long index = consumerIndex.get();
+        int drained = 0;
+        while (drained < limit) {
+            int slot = (int) index & mask;
+            E element = buffer.get(slot);
+            if (element == null) {
+                break;
+            }
+            buffer.lazySet(slot, null);
+            target.add(element);
+            index++;
+            drained++;
+        }
+        if (drained > 0) {
+            consumerIndex.lazySet(index);
+        }
+        return drained;
+    }
+
+    /**
+     * Returns the number of elements claimed and not yet drained.
+     *
+     * @return number of queued elements
+     */
+    int size() {
+        return (int) Math.max(0, producerIndex.get() - consumerIndex.get());
+    }
+
+    /**
+     * Returns whether no element is claimed or queued.
+     *
+     * @return true if the queue is empty
+     */
+    boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Returns the maximum number of elements.
+     *
+     * @return capacity of the queue
+     */
+    int capacity() {
+        return mask + 1;
+    }
+}
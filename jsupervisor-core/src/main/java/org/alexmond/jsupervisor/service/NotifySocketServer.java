@@ -0,0 +1,288 @@
+package org.alexmond.jsupervisor.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * Receives state notifications from supervised processes over Unix domain sockets.
+ * <p>
+ * Every process with notification enabled gets its own socket, so a message is attributed to
+ * its sender without credentials passing. A process connects to the socket, writes newline
+ * separated sd_notify style assignments such as {@code READY=1} or {@code STATUS=...} and may
+ * keep the connection open or close it after each message. All sockets are served by a single
+ * selector thread that sleeps until a process connects or writes, so idle processes cost nothing.
+ * <p>
+ * The JDK only supports stream Unix domain sockets, so unlike the datagram socket of systemd the
+ * protocol is line based; clients such as {@code socat} or {@code nc -U} can be used from scripts.
+ */
+@Slf4j
+public class NotifySocketServer implements DisposableBean {
+
+    /**
+     * Environment variable holding the path of the notification socket of a process.
+     */
+    public static final String NOTIFY_SOCKET_ENV = "JSUPERVISOR_NOTIFY_SOCKET";
+
+    private static final int MAX_LINE = 4096;
+
+    private final Path directory;
+    private final Selector selector;
+    private final Queue<Runnable> pendingTasks = new ConcurrentLinkedQueue<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final Thread worker;
+
+    /**
+     * Creates a notification server and starts its selector thread.
+     *
+     * @param directory directory the sockets are created in, or null for a new temporary directory
+     */
+    public NotifySocketServer(Path directory) {
+        try {
+            this.directory = directory != null ? Files.createDirectories(directory)
+                    : Files.createTempDirectory("jsupervisor-notify");
+            this.selector = Selector.open();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to initialize notification sockets", e);
+        }
+        this.worker = new Thread(this::runSelector, "jsupervisor-notify");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Creates a notification socket for one process.
+     *
+     * @param listener receives the name and value of each assignment the process sends
+     * @return the socket; close it once the process has exited
+     * @throws IOException if the socket cannot be created
+     */
+    public NotifySocket open(BiConsumer<String, String> listener) throws IOException {
+        Path path = directory.resolve("n" + sequence.incrementAndGet() + ".sock");
+        Files.deleteIfExists(path);
+        ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        try {
+            server.bind(UnixDomainSocketAddress.of(path));
+            server.configureBlocking(false);
+        } catch (IOException e) {
+            server.close();
+            throw e;
+        }
+        NotifySocket socket = new NotifySocket(path, server, listener);
+        submit(() -> {
+            try {
+                server.register(selector, SelectionKey.OP_ACCEPT, socket);
+            } catch (IOException e) {
+                log.error("Failed to register notification socket {}", path, e);
+                socket.release();
+            }
+        });
+        return socket;
+    }
+
+    /**
+     * Stops the selector thread and removes the socket directory if it is empty.
+     */
+    @Override
+    public void destroy() throws IOException {
+        selector.close();
+        worker.interrupt();
+        try {
+            Files.deleteIfExists(directory);
+        } catch (IOException e) {
+            log.debug("Notification socket directory {} not removed: {}", directory, e.toString());
+        }
+    }
+
+    private void submit(Runnable task) {
+        pendingTasks.add(task);
+        selector.wakeup();
+    }
+
+    private void runSelector() {
+        while (selector.isOpen()) {
+            try {
+                Runnable task;
+                while ((task = pendingTasks.poll()) != null) {
+                    task.run();
+                }
+                selector.select();
+                Iterator<SelectionKey> selected = selector.selectedKeys().iterator();
+                while (selected.hasNext()) {
+                    SelectionKey key = selected.next();
+                    selected.remove();
+                    if (key.isValid() && key.isAcceptable()) {
+                        accept(key);
+                    } else if (key.isValid() && key.isReadable()) {
+                        read(key);
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                if (selector.isOpen()) {
+                    log.error("Notification socket selector failed", e);
+                }
+            }
+        }
+    }
+
+    private void accept(SelectionKey key) throws IOException {
+        NotifySocket socket = (NotifySocket) key.attachment();
+        SocketChannel client = ((ServerSocketChannel) key.channel()).accept();
+        if (client == null) {
+            return;
+        }
+        client.configureBlocking(false);
+        Connection connection = new Connection(socket, client);
+        socket.connections.add(connection);
+        client.register(selector, SelectionKey.OP_READ, connection);
+    }
+
+    private void read(SelectionKey key) {
+        Connection connection = (Connection) key.attachment();
+        try {
+            int read = connection.channel.read(connection.buffer);
+            connection.dispatchLines();
+            if (read < 0) {
+                connection.dispatchRemainder();
+                connection.close();
+            } else if (!connection.buffer.hasRemaining()) {
+                log.warn("Discarding notification longer than {} bytes on {}", MAX_LINE, connection.socket.path);
+                connection.buffer.clear();
+            }
+        } catch (IOException e) {
+            log.debug("Notification connection on {} failed: {}", connection.socket.path, e.toString());
+            connection.close();
+        }
+    }
+
+    /**
+     * Notification socket of one process.
+     */
+    public final class NotifySocket implements Closeable {
+        private final Path path;
+        private final ServerSocketChannel server;
+        private final BiConsumer<String, String> listener;
+        private final Set<Connection> connections = new HashSet<>();
+
+        private NotifySocket(Path path, ServerSocketChannel server, BiConsumer<String, String> listener) {
+            this.path = path;
+            this.server = server;
+            this.listener = listener;
+        }
+
+        /**
+         * Returns the path of the socket, to be passed to the process.
+         *
+         * @return socket path
+         */
+        public Path getPath() {
+            return path;
+        }
+
+        /**
+         * Closes the socket and its connections and removes the socket file.
+         */
+        @Override
+        public void close() {
+            submit(this::release);
+        }
+
+        private void release() {
+            new HashSet<>(connections).forEach(Connection::close);
+            try {
+                server.close();
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                log.debug("Failed to remove notification socket {}: {}", path, e.toString());
+            }
+        }
+
+        private void dispatch(String line) {
+            int separator = line.indexOf('=');
+            if (separator <= 0) {
+                log.debug("Ignoring malformed notification '{}' on {}", line, path);
+                return;
+            }
+            try {
+                listener.accept(line.substring(0, separator), line.substring(separator + 1));
+            } catch (RuntimeException e) {
+                log.error("Failed to handle notification '{}' on {}", line, path, e);
+            }
+        }
+    }
+
+    /**
+     * A connection from a process to its notification socket.
+     */
+    private static final class Connection {
+        private final NotifySocket socket;
+        private final SocketChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(MAX_LINE);
+
+        private Connection(NotifySocket socket, SocketChannel channel) {
+            this.socket = socket;
+            this.channel = channel;
+        }
+
+        /**
+         * Dispatches every complete line in the buffer and keeps a trailing partial line.
+         */
+        private void dispatchLines() {
+            buffer.flip();
+            int start = 0;
+            for (int i = 0; i < buffer.limit(); i++) {
+                if (buffer.get(i) == '\n') {
+                    dispatch(start, i);
+                    start = i + 1;
+                }
+            }
+            buffer.position(start);
+            buffer.compact();
+        }
+
+        /**
+         * Dispatches a last line that was not terminated before the process closed the connection.
+         */
+        private void dispatchRemainder() {
+            buffer.flip();
+            dispatch(0, buffer.limit());
+            buffer.clear();
+        }
+
+        private void dispatch(int start, int end) {
+            String line = new String(buffer.array(), start, end - start, StandardCharsets.UTF_8).strip();
+            if (!line.isEmpty()) {
+                socket.dispatch(line);
+            }
+        }
+
+        private void close() {
+            socket.connections.remove(this);
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.debug("Failed to close notification connection: {}", e.toString());
+            }
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package org.alexmond.jsupervisor.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.alexmond.jsupervisor.config.EventOverflowPolicy;
+import org.alexmond.jsupervisor.config.EventsConfig;
+import org.alexmond.jsupervisor.model.EventBusStats;
+import org.alexmond.jsupervisor.model.ProcessEvent;
+import org.alexmond.jsupervisor.model.ProcessEventEntry;
+import org.alexmond.jsupervisor.repository.EventRepository;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Records process events off the lifecycle threads.
+ * <p>
+ * Threads changing process state only put the event into a bounded lock-free queue. A single
+ * writer thread drains the queue, assigns event ids continuing after the last id of the
+ * repository, saves each batch with one repository call and then delivers the events to the subscribers and, as {@link ProcessEvent}, to the
+ * application event listeners. As there is only one writer, every consumer sees the events in
+ * the order they were published, which keeps the events of each process in order.
+ * <p>
+ * If the queue is full an event is either dropped or the publishing thread waits, depending on
+ * the configured {@link EventOverflowPolicy}. Queue depth and drop counts are available from
+ * {@link #getStats()}.
+ */
+@Slf4j
+public class ProcessEventBus implements DisposableBean {
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final EventRepository eventRepository;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final EventOverflowPolicy overflowPolicy;
+    private final int batchSize;
+    private final MpscEventQueue<ProcessEventEntry> queue;
+    private final List<Consumer<ProcessEventEntry>> subscribers = new CopyOnWriteArrayList<>();
+    private final AtomicLong idGenerator = new AtomicLong();
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong persisted = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final Thread writer;
+    private volatile boolean running = true;
+    private volatile boolean writerParked;
+    private volatile int maxBatch;
+
+    /**
+     * Creates an event bus and starts its writer thread.
+     *
+     * @param eventsConfig              queue and batch settings
+     * @param eventRepository           repository the events are saved to
+     * @param applicationEventPublisher publisher the saved events are passed on to
+     */
+    public ProcessEventBus(EventsConfig eventsConfig, EventRepository eventRepository,
+                           ApplicationEventPublisher applicationEventPublisher) {
+        this.eventRepository = eventRepository;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.overflowPolicy = eventsConfig.getOverflowPolicy();
+        this.batchSize = Math.max(1, eventsConfig.getBatchSize());
+        this.queue = new MpscEventQueue<>(eventsConfig.getQueueCapacity());
+        this.idGenerator.set(eventRepository.getLastId());
+        this.writer = new Thread(this::runWriter, "jsupervisor-events");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Publishes an event. {@link ProcessEvent}s are queued for the writer thread, any other
+     * event is passed on to the application event publisher directly. Matches
+     * {@link ApplicationEventPublisher#publishEvent(Object)}, so the bus can be handed to
+     * {@link org.alexmond.jsupervisor.model.RunningProcess} as its publisher.
+     *
+     * @param event the event
+     */
+    public void publishEvent(Object event) {
+        if (event instanceof ProcessEvent processEvent) {
+            publish(processEvent.getEntry());
+        } else {
+            applicationEventPublisher.publishEvent(event);
+        }
+    }
+
+    /**
+     * Queues a process event for persisting and delivery. Never blocks with the
+     * {@link EventOverflowPolicy#DROP} policy.
+     *
+     * @param entry the event
+     * @return false if the event was dropped
+     */
+    public boolean publish(ProcessEventEntry entry) {
+        while (!queue.offer(entry)) {
+            if (overflowPolicy == EventOverflowPolicy.DROP || !running) {
+                if (dropped.incrementAndGet() == 1) {
+                    log.warn("Process event queue full ({} events), dropping events", queue.capacity());
+                }
+                log.debug("Dropped {} event of '{}'", entry.getNewStatus(), entry.getProcessName());
+                return false;
+            }
+            LockSupport.parkNanos(BLOCK_PARK_NANOS);
+        }
+        published.incrementAndGet();
+        if (writerParked) {
+            LockSupport.unpark(writer);
+        }
+        return true;
+    }
+
+    /**
+     * Registers a subscriber. Subscribers are called on the writer thread, in publishing order,
+     * after the event has been saved, and should return quickly.
+     *
+     * @param subscriber receives every saved event
+     */
+    public void subscribe(Consumer<ProcessEventEntry> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    /**
+     * Removes a subscriber.
+     *
+     * @param subscriber the subscriber to remove
+     */
+    public void unsubscribe(Consumer<ProcessEventEntry> subscriber) {
+        subscribers.remove(subscriber);
+    }
+
+    /**
+     * Returns queue depth and throughput counters of the bus.
+     *
+     * @return event bus statistics
+     */
+    public EventBusStats getStats() {
+        return new EventBusStats(queue.size(), queue.capacity(), overflowPolicy,
+                published.get(), persisted.get(), dropped.get(), batches.get(), maxBatch);
+    }
+
+    /**
+     * Stops the writer thread after it has written the events still queued.
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    private void runWriter() {
+        List<ProcessEventEntry> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            if (queue.drain(batch, batchSize) == 0) {
+                idle();
+                continue;
+            }
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void idle() {
+        writerParked = true;
+        if (queue.isEmpty() && running) {
+            LockSupport.parkNanos(IDLE_PARK_NANOS);
+        } else {
+            // an event is claimed but not yet stored in its slot
+            Thread.onSpinWait();
+        }
+        writerParked = false;
+    }
+
+    private void write(List<ProcessEventEntry> batch) {
+        for (ProcessEventEntry entry : batch) {
+            entry.setId(idGenerator.incrementAndGet());
+        }
+        try {
+            eventRepository.saveAll(batch);
+            persisted.addAndGet(batch.size());
+        } catch (RuntimeException e) {
+            log.error("Failed to save {} process events", batch.size(), e);
+        }
+        batches.incrementAndGet();
+        if (batch.size() > maxBatch) {
+            maxBatch = batch.size();
+        }
+        for (ProcessEventEntry entry : batch) {
+            deliver(entry);
+        }
+    }
+
+    private void deliver(ProcessEventEntry entry) {
+        for (Consumer<ProcessEventEntry> subscriber : subscribers) {
+            try {
+                subscriber.accept(entry);
+            } catch (RuntimeException e) {
+                log.error("Process event subscriber failed for event {}", entry.getId(), e);
+            }
+        }
+        try {
+            applicationEventPublisher.publishEvent(new ProcessEvent(entry));
+        } catch (RuntimeException e) {
+            log.error("Process event listener failed for event {}", entry.getId(), e);
+        }
+    }
+}
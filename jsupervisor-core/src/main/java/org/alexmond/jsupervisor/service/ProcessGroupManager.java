@@ -2,17 +2,29 @@ package org.alexmond.jsupervisor.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.alexmond.jsupervisor.config.StartupFailurePolicy;
 import org.alexmond.jsupervisor.config.SupervisorConfig;
 import org.alexmond.jsupervisor.repository.ProcessRepository;
 import org.alexmond.jsupervisor.model.RunningProcess;
 import org.apache.commons.io.ThreadUtils;
 import org.springframework.scheduling.annotation.Async;
 
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Manages Group operations for process management, allowing start and stop operations
@@ -22,6 +34,11 @@ import java.util.concurrent.CompletableFuture;
 @RequiredArgsConstructor
 public class ProcessGroupManager {
 
+    /**
+     * Interval at which the readiness of a starting tier is re-evaluated.
+     */
+    private static final Duration READY_POLL_INTERVAL = Duration.ofMillis(100);
+
     /**
      * Stores CompletableFuture objects for tracking asynchronous process operations.
      */
@@ -44,102 +61,372 @@ public class ProcessGroupManager {
      */
     @Async
     public void startAll() {
-        orderedStart(processRepository.getProcessOrders());
+        if (processRepository.hasDependencies(processRepository.findAll().keySet())) {
+            dependencyStart(new ArrayList<>(processRepository.findAll().keySet()));
+        } else {
+            orderedStart(processRepository.getProcessOrders());
+        }
     }
 
     /**
      * Asynchronously starts all registered processes that have autoStart configuration enabled.
-     * Processes are started according to their defined order with configured delays between starts.
+     * Processes are started according to their defined order, each tier once the previous one is ready.
      */
     @Async
     public void autoStartAll() {
-        orderedStart(processRepository.getAutostartProcessOrders());
+        List<String> autostartProcesses = processRepository.findAll().entrySet().stream()
+                .filter(e -> e.getValue().isAutoStart())
+                .map(Map.Entry::getKey)
+                .toList();
+        if (processRepository.hasDependencies(autostartProcesses)) {
+            dependencyStart(processRepository.resolveDependencies(autostartProcesses));
+        } else {
+            orderedStart(processRepository.getAutostartProcessOrders());
+        }
     }
 
     /**
-     * Asynchronously stops all currently running processes.
+     * Stops all currently running processes. Processes are stopped in reverse startup order
+     * under a single deadline, see {@link #stopProcesses(List)}.
      *
+     * @return CompletableFuture completing once every stopped process has exited
      */
-    @Async
-    public void stopAll() {
+    public CompletableFuture<Void> stopAll() {
         // Create a snapshot to avoid ConcurrentModificationException
-        Map<String, ?> allProcessesSnapshot = new HashMap<>(processRepository.findAll());
-        
-        allProcessesSnapshot.entrySet().stream()
-                .filter(e -> ((RunningProcess) e.getValue()).isProcessRunning())
-                .forEach(e -> processManager.stopProcess(e.getKey()));
+        Map<String, RunningProcess> allProcessesSnapshot = new HashMap<>(processRepository.findAll());
+        allProcessesSnapshot.values().forEach(RunningProcess::cancelPendingRestart);
+
+        List<String> runningProcesses = allProcessesSnapshot.entrySet().stream()
+                .filter(e -> e.getValue().isProcessRunning())
+                .map(Map.Entry::getKey)
+                .toList();
+        return stopProcesses(runningProcesses);
     }
 
     /**
      * Asynchronously restarts all processes by stopping all running processes first,
-     * waiting for a brief period, and then starting them again.
+     * waiting until every one of them has exited, and then starting them again.
      */
     @Async
     public void restartAll() {
-        stopAll();
-        try {
-            Thread.sleep(100);
-        } catch (InterruptedException e) {
-            log.error("Thread.sleep interrupted {}", e.getMessage(), e);
-        }
+        awaitStopped(stopAll());
         startAll();
     }
 
 
+    /**
+     * Asynchronously starts all processes of a group. When group members declare dependencies,
+     * the dependencies are resolved transitively and started first, even outside the group.
+     *
+     * @param groupName name of the group to start
+     */
     @Async
     public void startGroup(String groupName) {
-        orderedStart(processRepository.getProcessGroupOrders(groupName));
+        List<String> groupProcesses = processRepository.getProcessGroups().getOrDefault(groupName, List.of());
+        if (processRepository.hasDependencies(groupProcesses)) {
+            dependencyStart(processRepository.resolveDependencies(groupProcesses));
+        } else {
+            orderedStart(processRepository.getProcessGroupOrders(groupName));
+        }
     }
 
-    @Async
-    public void stopGroup(String groupName) {
+    /**
+     * Stops all running processes of a group. Processes are stopped in reverse startup order
+     * under a single deadline, see {@link #stopProcesses(List)}.
+     *
+     * @param groupName name of the group to stop
+     * @return CompletableFuture completing once every stopped process has exited
+     */
+    public CompletableFuture<Void> stopGroup(String groupName) {
         var processList = processRepository.getProcessGroups().get(groupName);
         if (processList == null) {
             log.warn("No processes found for group '{}'", groupName);
-            return;
+            return CompletableFuture.completedFuture(null);
         }
 
         log.info("Stopping processes for group '{}'", groupName);
-        List<String> processesCopy = new ArrayList<>(processList);
-
-        processesCopy.forEach(processName -> {
-            var runningProcess = processRepository.getRunningProcess(processName);
-            if (runningProcess.isProcessRunning()) {
-                processManager.stopProcess(processName);
+        List<String> runningProcesses = new ArrayList<>();
+        new ArrayList<>(processList).forEach(processName -> {
+            processRepository.getRunningProcess(processName).cancelPendingRestart();
+            if (processRepository.getRunningProcess(processName).isProcessRunning()) {
+                runningProcesses.add(processName);
             } else {
                 log.info("Process '{}' is not running, skipping stop", processName);
             }
         });
+        return stopProcesses(runningProcesses);
     }
 
+    /**
+     * Asynchronously restarts a group by stopping its running processes, waiting until every
+     * one of them has exited, and then starting the group again.
+     *
+     * @param groupName name of the group to restart
+     */
     @Async
     public void restartGroup(String groupName) {
-        stopGroup(groupName);
+        awaitStopped(stopGroup(groupName));
+        startGroup(groupName);
+    }
+
+    /**
+     * Stops processes level by level in reverse startup order: reverse dependency levels when
+     * the processes declare dependencies, reverse startup tiers otherwise. All members of a level
+     * are asked to stop concurrently and the next level is stopped once all of them have exited.
+     * <p>
+     * The whole operation shares one deadline, the longest shutdown timeout of the stopped
+     * processes. Processes still alive at the deadline, including those of levels that have not
+     * been asked to stop yet, are force killed together. No thread is blocked while waiting.
+     *
+     * @param processNames names of the running processes to stop
+     * @return CompletableFuture completing once every process has exited
+     */
+    public CompletableFuture<Void> stopProcesses(List<String> processNames) {
+        if (processNames.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        List<List<String>> levels = stopLevels(processNames);
+        AtomicBoolean deadlinePassed = new AtomicBoolean();
+        CompletableFuture<Void> stopped = CompletableFuture.completedFuture(null);
+        for (int i = levels.size() - 1; i >= 0; i--) {
+            List<String> level = levels.get(i);
+            stopped = stopped.thenCompose(v -> {
+                if (deadlinePassed.get()) {
+                    // kill before asking, so a graceful exit cannot overtake the deadline
+                    log.warn("Stop deadline passed, force killing process(es) {}", level);
+                    level.forEach(processManager::forceStop);
+                } else {
+                    log.info("Stopping process(es) {}", level);
+                }
+                return CompletableFuture.allOf(level.stream()
+                        .map(processManager::requestStop)
+                        .toArray(CompletableFuture[]::new));
+            });
+        }
+
+        CompletableFuture<Void> allStopped = stopped;
+        Duration deadline = shutdownTimeout(processNames);
+        CompletableFuture.runAsync(() -> {
+            if (!allStopped.isDone()) {
+                deadlinePassed.set(true);
+                log.warn("Process(es) {} did not stop within {}, force killing", processNames, deadline);
+                processNames.forEach(processManager::forceStop);
+            }
+        }, CompletableFuture.delayedExecutor(deadline.toMillis(), TimeUnit.MILLISECONDS));
+        return allStopped;
+    }
+
+    /**
+     * Returns the longest shutdown timeout of the given processes, which is the deadline
+     * applied when stopping them together.
+     *
+     * @param processNames names of the processes
+     * @return the longest configured shutdown timeout, zero if there are no processes
+     */
+    public Duration shutdownTimeout(Collection<String> processNames) {
+        return processNames.stream()
+                .map(processName -> processRepository.getRunningProcess(processName).getProcessConfig().getShutdownTimeout())
+                .max(Duration::compareTo)
+                .orElse(Duration.ZERO);
+    }
+
+    private List<List<String>> stopLevels(List<String> processNames) {
+        if (processRepository.hasDependencies(processNames)) {
+            return processRepository.getDependencyLevels(processNames);
+        }
+        List<List<String>> levels = new ArrayList<>();
+        processRepository.getProcessOrders().values().forEach(tier -> {
+            List<String> members = tier.stream().filter(processNames::contains).toList();
+            if (!members.isEmpty()) {
+                levels.add(members);
+            }
+        });
+        return levels;
+    }
+
+    private void awaitStopped(CompletableFuture<Void> stopped) {
         try {
-            Thread.sleep(100);
-        } catch (InterruptedException e) {
-            log.error("Thread.sleep interrupted {}", e.getMessage(), e);
+            stopped.join();
+        } catch (CompletionException e) {
+            log.error("Stopping processes failed: {}", e.getMessage(), e);
         }
-        startGroup(groupName);
     }
 
+    /**
+     * Starts processes tier by tier. All members of a tier are started concurrently and the
+     * next tier starts as soon as every member is ready, i.e. healthy, or running when no
+     * health check is configured. A tier that fails or exceeds the tier timeout is handled
+     * according to the configured {@link StartupFailurePolicy}.
+     *
+     * @param processOrders process names grouped by startup order, in ascending order
+     */
     private void orderedStart(Map<Integer, List<String>> processOrders) {
-        processOrders.forEach((order, processes) -> {
-            log.info("Starting for Order {} and {} process(es)", order, processes);
+        List<String> startedProcesses = new ArrayList<>();
+        for (Map.Entry<Integer, List<String>> tier : processOrders.entrySet()) {
+            List<String> processes = tier.getValue();
+            log.info("Starting for Order {} and {} process(es)", tier.getKey(), processes);
+            List<CompletableFuture<Void>> launches = new ArrayList<>();
             processes.forEach(processName -> {
                 var runningProcess = processRepository.getRunningProcess(processName);
                 if (runningProcess.getProcess() == null) {
-                    processManager.startProcess(processName);
+                    launches.add(processManager.startProcess(processName));
+                    startedProcesses.add(processName);
                 } else {
                     log.info("Process '{}' is already running with PID: {}, skipping start",
                             processName, runningProcess.getProcess().pid());
                 }
             });
-            try {
-                ThreadUtils.sleep(config.getAutoStartDelay());
-            } catch (InterruptedException e) {
-                log.error("Thread.sleep interrupted {}", e.getMessage());
+
+            List<String> notReady = awaitReady(processes, launches, config.getTierReadyTimeout());
+            if (!notReady.isEmpty()) {
+                StartupFailurePolicy policy = config.getTierFailurePolicy();
+                log.error("Order {} did not become ready, failed process(es): {}, applying policy {}",
+                        tier.getKey(), notReady, policy);
+                if (policy == StartupFailurePolicy.ROLLBACK) {
+                    rollback(startedProcesses);
+                }
+                if (policy != StartupFailurePolicy.CONTINUE) {
+                    return;
+                }
+            } else {
+                log.info("Order {} is ready", tier.getKey());
             }
-        });
+
+            if (!config.getAutoStartDelay().isZero()) {
+                try {
+                    ThreadUtils.sleep(config.getAutoStartDelay());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    log.error("Thread.sleep interrupted {}", e.getMessage());
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Starts processes following their dependency graph. Each process starts as soon as all of
+     * its dependencies are ready, independently of unrelated processes, so startup is bounded by
+     * the critical path rather than by tiers. A process that fails or does not become ready within
+     * the tier timeout is handled according to the configured {@link StartupFailurePolicy};
+     * with {@code continue} its dependents are started anyway.
+     *
+     * @param processNames names of the processes to start, including their dependencies
+     */
+    private void dependencyStart(Collection<String> processNames) {
+        Set<String> pending = new LinkedHashSet<>(processNames);
+        Set<String> settled = new HashSet<>();
+        Map<String, CompletableFuture<Void>> launches = new HashMap<>();
+        Map<String, Long> deadlines = new HashMap<>();
+        List<String> startedProcesses = new ArrayList<>();
+        long timeout = config.getTierReadyTimeout().toNanos();
+        try {
+            while (!pending.isEmpty()) {
+                for (String processName : pending) {
+                    if (launches.containsKey(processName) || !dependenciesSettled(processName, processNames, settled)) {
+                        continue;
+                    }
+                    var runningProcess = processRepository.getRunningProcess(processName);
+                    if (runningProcess.getProcess() == null) {
+                        log.info("Dependencies of '{}' are ready, starting", processName);
+                        launches.put(processName, processManager.startProcess(processName));
+                        startedProcesses.add(processName);
+                    } else {
+                        log.info("Process '{}' is already running with PID: {}, skipping start",
+                                processName, runningProcess.getProcess().pid());
+                        launches.put(processName, CompletableFuture.completedFuture(null));
+                    }
+                    deadlines.put(processName, System.nanoTime() + timeout);
+                }
+
+                List<String> failed = new ArrayList<>();
+                for (Iterator<String> iterator = pending.iterator(); iterator.hasNext(); ) {
+                    String processName = iterator.next();
+                    CompletableFuture<Void> launch = launches.get(processName);
+                    if (launch == null) {
+                        continue;
+                    }
+                    var runningProcess = processRepository.getRunningProcess(processName);
+                    boolean timedOut = System.nanoTime() - deadlines.get(processName) >= 0;
+                    if (launch.isDone() && runningProcess.isProcessReady()) {
+                        log.info("Process '{}' is ready", processName);
+                    } else if (timedOut || (launch.isDone() && !runningProcess.isProcessRunning())) {
+                        failed.add(processName);
+                    } else {
+                        continue;
+                    }
+                    settled.add(processName);
+                    iterator.remove();
+                }
+
+                if (!failed.isEmpty()) {
+                    StartupFailurePolicy policy = config.getTierFailurePolicy();
+                    log.error("Process(es) {} did not become ready, applying policy {}", failed, policy);
+                    if (policy == StartupFailurePolicy.ROLLBACK) {
+                        rollback(startedProcesses);
+                    }
+                    if (policy != StartupFailurePolicy.CONTINUE) {
+                        return;
+                    }
+                }
+                if (!pending.isEmpty()) {
+                    ThreadUtils.sleep(READY_POLL_INTERVAL);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Dependency start interrupted {}", e.getMessage());
+        }
+    }
+
+    private boolean dependenciesSettled(String processName, Collection<String> processNames, Set<String> settled) {
+        return processRepository.dependenciesOf(processName).stream()
+                .filter(processNames::contains)
+                .allMatch(settled::contains);
+    }
+
+    /**
+     * Waits until all given processes are ready, one of them has exited, or the timeout elapses.
+     *
+     * @param processes names of the processes to wait for
+     * @param launches  futures of the launches issued for these processes
+     * @param timeout   maximum time to wait
+     * @return names of the processes that are not ready, empty if all of them are
+     */
+    private List<String> awaitReady(List<String> processes, List<CompletableFuture<Void>> launches, Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        try {
+            CompletableFuture.allOf(launches.toArray(CompletableFuture[]::new))
+                    .get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+            while (true) {
+                List<String> notReady = processes.stream()
+                        .filter(processName -> !processRepository.getRunningProcess(processName).isProcessReady())
+                        .toList();
+                boolean anyExited = notReady.stream()
+                        .anyMatch(processName -> !processRepository.getRunningProcess(processName).isProcessRunning());
+                if (notReady.isEmpty() || anyExited || System.nanoTime() - deadline >= 0) {
+                    return notReady;
+                }
+                ThreadUtils.sleep(READY_POLL_INTERVAL);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Waiting for readiness interrupted {}", e.getMessage());
+        } catch (ExecutionException | TimeoutException e) {
+            log.error("Launching processes {} did not complete: {}", processes, e.toString());
+        }
+        return processes.stream()
+                .filter(processName -> !processRepository.getRunningProcess(processName).isProcessReady())
+                .toList();
+    }
+
+    /**
+     * Stops the given processes in reverse start order and waits until they have exited.
+     *
+     * @param startedProcesses names of the processes started by the failed operation
+     */
+    private void rollback(List<String> startedProcesses) {
+        log.warn("Rolling back started process(es): {}", startedProcesses);
+        awaitStopped(stopProcesses(startedProcesses));
     }
 }
@@ -3,7 +3,11 @@ package org.alexmond.jsupervisor.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.alexmond.jsupervisor.config.ProcessConfig;
+import org.alexmond.jsupervisor.config.WatchdogAction;
 import org.alexmond.jsupervisor.exception.JSupervisorException;
+import org.alexmond.jsupervisor.healthcheck.HealthCheckScheduler;
+import org.alexmond.jsupervisor.model.HealthCheckStats;
+import org.alexmond.jsupervisor.model.ProcessState;
 import org.alexmond.jsupervisor.model.ProcessStatus;
 import org.alexmond.jsupervisor.model.ProcessStatusInfo;
 import org.alexmond.jsupervisor.repository.ProcessRepository;
@@ -19,7 +23,9 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Manages the lifecycle of processes in the supervisor system.
@@ -32,29 +38,38 @@ public class ProcessManager {
     private final ProcessRepository processRepository;
     private final ProcessManagerMonitor processManagerMonitor;
     private final ThreadPoolTaskScheduler threadPoolTaskScheduler;
+    private final HealthCheckScheduler healthCheckScheduler;
+    private final NotifySocketServer notifySocketServer;
 
     /**
-     * Restarts a process by stopping it and then starting it again.
+     * Restarts a process. If a warm standby instance is ready it is promoted and the
+     * replaced instance is restarted in the background as a new standby; otherwise the
+     * process is stopped and started again once it has exited.
      * This operation is performed asynchronously.
      *
      * @param name The name of the process to restart
      */
     @Async
     public void restartProcess(String name) {
-        stopProcess(name);
+        if (promoteSpare(name)) {
+            return;
+        }
+        stopProcess(name).join();
         startProcess(name);
     }
 
     /**
-     * Starts a process with the given name according to its configuration.
+     * Starts a process with the given name according to its configuration, followed by its
+     * additional instances and warm standby instances, if any.
      * Handles process creation, output redirection, environment setup, and monitoring.
      * This operation is performed asynchronously.
      *
      * @param name The name of the process to start
+     * @return CompletableFuture completing once the launch attempt has finished, whether it succeeded or not
      * @throws IllegalArgumentException if no process configuration is found for the given name
      */
     @Async
-    public void startProcess(String name) {
+    public CompletableFuture<Void> startProcess(String name) {
         var runningProcess = processRepository.getRunningProcess(name);
         ProcessConfig processConfig = runningProcess.getProcessConfig();
         if (processConfig == null) {
@@ -63,11 +78,112 @@ public class ProcessManager {
 
         if (runningProcess.getProcess() != null) {
             log.error("Process {} is already running with pid {}", name, runningProcess.getProcess().pid());
+            return CompletableFuture.completedFuture(null);
+        }
+        if (runningProcess.getProcessStatus() == ProcessStatus.crash_loop) {
+            // a manual start after auto-restart gave up gets a fresh retry budget
+            runningProcess.setRestartAttempts(0);
+        }
+        launch(runningProcess);
+        processRepository.getScaledInstances(name).forEach(instance -> {
+            if (instance.getProcess() == null) {
+                instance.setRestartAttempts(0);
+                launch(instance);
+            }
+        });
+        processRepository.getStandbyProcesses(name).forEach(standby -> {
+            if (standby.getProcess() == null) {
+                standby.setRestartAttempts(0);
+                launch(standby);
+            }
+        });
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Promotes a ready warm standby instance of a process to be the active instance.
+     * The replaced instance is stopped if it is still running and then started again in
+     * the background as a new standby.
+     *
+     * @param name The name of the process
+     * @return true if a standby instance was promoted, false if none was ready
+     */
+    public boolean promoteSpare(String name) {
+        RunningProcess previous = processRepository.getRunningProcess(name);
+        RunningProcess promoted = processRepository.promoteStandby(name);
+        if (promoted == null) {
+            return false;
+        }
+        promoted.announcePromotion(previous.getState());
+        stopInstance(previous).thenRun(() -> threadPoolTaskScheduler.execute(() -> backfillSpare(name, previous)));
+        return true;
+    }
+
+    /**
+     * Starts a warm standby instance again after it was replaced or has exited, provided the
+     * active instance of the process is still running.
+     *
+     * @param name    The name of the process
+     * @param standby The standby instance to start
+     */
+    public void backfillSpare(String name, RunningProcess standby) {
+        RunningProcess active = processRepository.getRunningProcess(name);
+        if (active == null || active.getProcess() == null || standby.getProcess() != null || !standby.isStandby()) {
+            return;
+        }
+        log.info("Starting standby instance {} of '{}'", standby.getInstanceId(), name);
+        launch(standby);
+    }
+
+    /**
+     * Changes the number of instances of a process at runtime. Only the difference is acted
+     * on: if the process is running, added instances are started, and removed instances are
+     * stopped, all in parallel. Instances that are kept are not touched.
+     *
+     * @param name      The name of the process to scale
+     * @param instances The new number of instances
+     * @return CompletableFuture completing once added instances have been launched and removed instances have exited
+     * @throws JSupervisorException if the process does not exist, has warm spares or the count is below one
+     */
+    public CompletableFuture<Void> scaleProcess(String name, int instances) {
+        List<RunningProcess> added = new ArrayList<>();
+        List<RunningProcess> removed = new ArrayList<>();
+        processRepository.scaleInstances(name, instances, added, removed);
+        log.info("Scaling process '{}' to {} instances: {} added, {} removed", name, instances, added.size(), removed.size());
+
+        List<CompletableFuture<Void>> changes = new ArrayList<>();
+        removed.forEach(instance -> changes.add(stopInstance(instance)));
+        RunningProcess primary = processRepository.getRunningProcess(name);
+        if (primary.getProcess() != null) {
+            added.forEach(instance -> changes.add(CompletableFuture.runAsync(() -> launch(instance), threadPoolTaskScheduler)));
+        }
+        return CompletableFuture.allOf(changes.toArray(CompletableFuture[]::new));
+    }
+
+    /**
+     * Starts an additional instance of a process again after it has exited, provided it is
+     * still part of the process and the primary instance is running.
+     *
+     * @param name     The name of the process
+     * @param instance The instance to start
+     */
+    public void relaunchInstance(String name, RunningProcess instance) {
+        RunningProcess primary = processRepository.getRunningProcess(name);
+        if (primary == null || primary.getProcess() == null || instance.getProcess() != null
+                || !processRepository.getScaledInstances(name).contains(instance)) {
             return;
         }
-        runningProcess.reset();
-        runningProcess.setProcessStatus(ProcessStatus.starting);
+        log.info("Restarting instance {} of '{}'", instance.getInstanceId(), name);
+        launch(instance);
+    }
 
+    private void launch(RunningProcess runningProcess) {
+        ProcessConfig processConfig = runningProcess.getProcessConfig();
+        runningProcess.cancelPendingRestart();
+        runningProcess.transition(ProcessState::starting);
+        runningProcess.resetNotifications();
+
+        NotifySocketServer.NotifySocket notifySocket = null;
         try {
             List<String> command = new ArrayList<>();
             command.add(processConfig.getCommand());
@@ -94,86 +210,214 @@ public class ProcessManager {
 
             Map<String, String> environment = processBuilder.environment();
             environment.putAll(processConfig.getEnv());
+            if (processConfig.isNotify()) {
+                notifySocket = notifySocketServer.open(runningProcess::applyNotification);
+                environment.put(NotifySocketServer.NOTIFY_SOCKET_ENV, notifySocket.getPath().toString());
+            }
 
             // Start the process
             Process proc = processBuilder.start();
 
-            // Record start time
+            // Store process reference and record start time
             LocalDateTime startTime = LocalDateTime.now();
-            runningProcess.setStartTime(startTime);
-
-            // Store process references
             runningProcess.setProcess(proc);
-            runningProcess.setStartTime(startTime);
-            runningProcess.setProcessStatus(ProcessStatus.running);
+            runningProcess.transition(state -> state.started(proc.pid(), startTime));
 
-            log.info("Process '{}' started with PID: {} at {}", name, proc.pid(), startTime);
+            log.info("Process '{}'{} started with PID: {} at {}", runningProcess.getProcessName(),
+                    runningProcess.isStandby() ? " standby instance " + runningProcess.getInstanceId()
+                            : runningProcess.getInstanceId() > 0 ? " instance " + runningProcess.getInstanceId() : "",
+                    proc.pid(), startTime);
 
             if (runningProcess.getHealthCheck() != null) {
-                runningProcess.setScheduledFuture(
-                        threadPoolTaskScheduler.
-                                scheduleAtFixedRate(runningProcess.getHealthCheck(), Duration.ofSeconds(30)));
+                runningProcess.setScheduledFuture(healthCheckScheduler.schedule(runningProcess));
+            }
+            if (notifySocket != null) {
+                watchNotifications(runningProcess, proc, notifySocket);
             }
 
-            // Monitor process completion asynchronously using Spring's thread pool
-            CompletableFuture<Void> future = processManagerMonitor.monitorProcessCompletion(name, proc, startTime);
+            // Register for exit notification; no thread is held while the process runs
+            CompletableFuture<Void> future = processManagerMonitor.monitorProcessCompletion(runningProcess, proc, startTime);
             runningProcess.setCompletableFuture(future);
 
         } catch (IOException e) {
-            log.error("Failed to start process: {}", name, e);
-            runningProcess.setProcessStatus(ProcessStatus.failed);
-            runningProcess.setFailedErrorLog(e.getMessage());
+            if (notifySocket != null) {
+                notifySocket.close();
+            }
+            log.error("Failed to start process: {}", runningProcess.getProcessName(), e);
+            runningProcess.transition(state -> state.failedToStart(e.getMessage()));
             runningProcess.setProcess(null);
         }
     }
 
     /**
-     * Stops a running process with the given name.
-     * Attempts graceful shutdown first, followed by force kill if necessary.
-     * This operation is performed asynchronously.
+     * Starts the watchdog of a process with notification, if configured, and releases the
+     * notification socket and the watchdog once the process has exited.
+     */
+    private void watchNotifications(RunningProcess runningProcess, Process proc, NotifySocketServer.NotifySocket notifySocket) {
+        if (runningProcess.isNotifiedReady()) {
+            // READY=1 arrived before the start was recorded
+            runningProcess.setHealthStatus(ProcessStatus.healthy);
+        }
+        Duration timeout = runningProcess.getProcessConfig().getWatchdogTimeout();
+        CompletableFuture<Void> watchdog = null;
+        if (timeout != null && !timeout.isZero() && !timeout.isNegative()) {
+            watchdog = healthCheckScheduler.schedule(
+                    runningProcess.getProcessName() + "#" + runningProcess.getInstanceId() + "#watchdog",
+                    () -> checkWatchdog(runningProcess, proc), timeout, timeout.dividedBy(4));
+        }
+        CompletableFuture<Void> watchdogHandle = watchdog;
+        proc.onExit().whenComplete((p, ex) -> {
+            if (watchdogHandle != null) {
+                watchdogHandle.cancel(false);
+            }
+            notifySocket.close();
+        });
+    }
+
+    /**
+     * Takes the watchdog action if the process has not sent WATCHDOG=1 within its watchdog timeout.
+     */
+    private void checkWatchdog(RunningProcess runningProcess, Process proc) {
+        ProcessStatus status = runningProcess.getProcessStatus();
+        if (runningProcess.getProcess() != proc || runningProcess.isNotifiedStopping()
+                || (status != ProcessStatus.running && status != ProcessStatus.healthy && status != ProcessStatus.unhealthy)) {
+            return;
+        }
+        ProcessConfig processConfig = runningProcess.getProcessConfig();
+        if (System.nanoTime() - runningProcess.getLastWatchdogNanos() < processConfig.getWatchdogTimeout().toNanos()) {
+            return;
+        }
+        if (processConfig.getWatchdogAction() == WatchdogAction.RESTART) {
+            log.warn("Process '{}' sent no watchdog keep-alive within {}, restarting", runningProcess.getProcessName(),
+                    processConfig.getWatchdogTimeout());
+            stopInstance(runningProcess).thenRunAsync(() -> {
+                if (runningProcess.getProcess() == null) {
+                    launch(runningProcess);
+                }
+            }, threadPoolTaskScheduler);
+        } else if (status != ProcessStatus.unhealthy) {
+            log.warn("Process '{}' sent no watchdog keep-alive within {}, marking unhealthy", runningProcess.getProcessName(),
+                    processConfig.getWatchdogTimeout());
+            runningProcess.setHealthStatus(ProcessStatus.unhealthy);
+        }
+    }
+
+    /**
+     * Stops a running process with the given name, including all of its instances.
+     * Attempts graceful shutdown first and force kills the process if it is still alive
+     * once its shutdown timeout has elapsed. No thread waits for the exit: the returned
+     * future is completed by the exit reaper.
      *
      * @param name The name of the process to stop
+     * @return CompletableFuture completing once the process has exited and its exit has been recorded
      */
-    @Async
-    public void stopProcess(String name) {
+    public CompletableFuture<Void> stopProcess(String name) {
         RunningProcess runningProcess = processRepository.getRunningProcess(name);
+        CompletableFuture<Void> exited = requestStop(name);
+        escalateAfter(exited, runningProcess.getProcessConfig().getShutdownTimeout(), () -> forceStop(name));
+        return exited;
+    }
+
+    /**
+     * Asks a running process and all of its instances to terminate gracefully without
+     * enforcing any deadline.
+     * A pending automatic restart and health checking are cancelled and the process is sent a
+     * termination signal; the final status is recorded by the exit reaper ('stopped', or
+     * 'aborted' if it had to be killed).
+     * Callers are expected to escalate with {@link #forceStop(String)} on their own deadline.
+     *
+     * @param name The name of the process to stop
+     * @return CompletableFuture completing once the process has exited and its exit has been recorded
+     */
+    public CompletableFuture<Void> requestStop(String name) {
+        List<CompletableFuture<Void>> exits = new ArrayList<>();
+        exits.add(requestStop(processRepository.getRunningProcess(name)));
+        processRepository.getScaledInstances(name).forEach(instance -> exits.add(requestStop(instance)));
+        processRepository.getStandbyProcesses(name).forEach(standby -> exits.add(requestStop(standby)));
+        return CompletableFuture.allOf(exits.toArray(CompletableFuture[]::new));
+    }
+
+    private CompletableFuture<Void> requestStop(RunningProcess runningProcess) {
+        runningProcess.cancelPendingRestart();
         Process process = runningProcess.getProcess();
-        if (process != null) {
-            log.info("Stopping process: {}", name);
-            runningProcess.setProcessStatus(ProcessStatus.stopping);
-            // Try graceful shutdown first
-            if (runningProcess.getScheduledFuture() != null) {
-                log.info("Stopping Health check for: {}", name);
-                runningProcess.getScheduledFuture().cancel(true);
-            }
-            process.destroy();
-            try {
-                boolean exited = process.waitFor(runningProcess.getProcessConfig().getShutdownTimeout().toSeconds(), java.util.concurrent.TimeUnit.SECONDS);
-                if (!exited) {
-                    log.warn("Process {} did not exit gracefully, force killing...", name);
-                    process.destroyForcibly();
-                    runningProcess.setProcessStatus(ProcessStatus.aborted);
-                } else {
-                    runningProcess.setProcessStatus(ProcessStatus.stopped);
-                }
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                log.warn("Interrupted while waiting for process to stop: {}", name);
-                runningProcess.setProcessStatus(ProcessStatus.unknown);
+        if (process == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Void> exited = runningProcess.getCompletableFuture();
+        log.info("Stopping process: {}", runningProcess.getProcessName());
+        // only mark the instance being stopped, an exit recorded in the meantime must not be overwritten
+        runningProcess.transition(state -> Objects.equals(state.pid(), process.pid()),
+                state -> state.withStatus(ProcessStatus.stopping));
+        if (runningProcess.getScheduledFuture() != null) {
+            log.info("Stopping Health check for: {}", runningProcess.getProcessName());
+            runningProcess.getScheduledFuture().cancel(true);
+        }
+        process.destroy();
+        return exited != null ? exited : process.onExit().thenApply(p -> null);
+    }
+
+    private CompletableFuture<Void> stopInstance(RunningProcess runningProcess) {
+        CompletableFuture<Void> exited = requestStop(runningProcess);
+        escalateAfter(exited, runningProcess.getProcessConfig().getShutdownTimeout(), () -> forceStop(runningProcess));
+        return exited;
+    }
+
+    private void escalateAfter(CompletableFuture<Void> exited, Duration timeout, Runnable escalation) {
+        if (exited.isDone()) {
+            return;
+        }
+        CompletableFuture.runAsync(() -> {
+            if (!exited.isDone()) {
+                escalation.run();
             }
+        }, CompletableFuture.delayedExecutor(timeout.toMillis(), TimeUnit.MILLISECONDS));
+    }
 
-            // Clean up
-            runningProcess.setProcess(null);
-            runningProcess.setCompletableFuture(null);
+    /**
+     * Force kills a process and all of its instances that are still alive.
+     * Does nothing for instances that have already exited.
+     *
+     * @param name The name of the process to kill
+     */
+    public void forceStop(String name) {
+        forceStop(processRepository.getRunningProcess(name));
+        processRepository.getScaledInstances(name).forEach(this::forceStop);
+        processRepository.getStandbyProcesses(name).forEach(this::forceStop);
+    }
+
+    private void forceStop(RunningProcess runningProcess) {
+        Process process = runningProcess.getProcess();
+        if (process != null && process.isAlive()) {
+            log.warn("Process {} did not exit gracefully, force killing...", runningProcess.getProcessName());
+            process.destroyForcibly();
         }
     }
 
 
     public ProcessStatusInfo getRunningProcessInfo(String name) {
-        return new ProcessStatusInfo(name, processRepository.getRunningProcess(name));
+        return processRepository.getRunningProcessInfo(name);
     }
 
     public Collection<ProcessStatusInfo> getAllProcessStatusInfo() {
         return processRepository.findAllProcessInfo();
     }
+
+    /**
+     * Retrieves the probe latency histogram and the most recent probe results of a process.
+     *
+     * @param name The name of the process
+     * @return probe statistics of the health check of the active instance
+     * @throws JSupervisorException if the process does not exist or has no health check
+     */
+    public HealthCheckStats getHealthCheckStats(String name) {
+        RunningProcess runningProcess = processRepository.getRunningProcess(name);
+        if (runningProcess == null) {
+            throw new JSupervisorException("Process " + name + " not found", "PROCESS_NOT_FOUND");
+        }
+        HealthCheckStats stats = runningProcess.getHealthCheck() != null ? runningProcess.getHealthCheck().getStats() : null;
+        if (stats == null) {
+            throw new JSupervisorException("Process " + name + " has no health check", "NO_HEALTH_CHECK");
+        }
+        return stats;
+    }
 }
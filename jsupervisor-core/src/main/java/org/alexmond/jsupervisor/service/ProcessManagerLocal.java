@@ -3,6 +3,8 @@ package org.alexmond.jsupervisor.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.alexmond.jsupervisor.config.ProcessConfig;
+import org.alexmond.jsupervisor.healthcheck.HealthCheckScheduler;
+import org.alexmond.jsupervisor.model.ProcessState;
 import org.alexmond.jsupervisor.model.ProcessStatus;
 import org.alexmond.jsupervisor.repository.ProcessRepository;
 import org.alexmond.jsupervisor.model.RunningProcess;
@@ -11,7 +13,6 @@ import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
 import java.io.File;
 import java.io.IOException;
-import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -29,6 +30,7 @@ public class ProcessManagerLocal implements ProcessManagerInteface {
     private final ProcessRepository processRepository;
     private final ProcessManagerMonitor processManagerMonitor;
     private final ThreadPoolTaskScheduler threadPoolTaskScheduler;
+    private final HealthCheckScheduler healthCheckScheduler;
 
     /**
      * Restarts a process by stopping it and then starting it again.
@@ -62,8 +64,7 @@ public class ProcessManagerLocal implements ProcessManagerInteface {
             log.error("Process {} is already running with pid {}", name, runningProcess.getProcess().pid());
             return;
         }
-        runningProcess.reset();
-        runningProcess.setProcessStatus(ProcessStatus.starting);
+        runningProcess.transition(ProcessState::starting);
 
         try {
             List<String> command = new ArrayList<>();
@@ -95,31 +96,24 @@ public class ProcessManagerLocal implements ProcessManagerInteface {
             // Start the process
             Process proc = processBuilder.start();
 
-            // Record start time
+            // Store process reference and record start time
             LocalDateTime startTime = LocalDateTime.now();
-            runningProcess.setStartTime(startTime);
-
-            // Store process references
             runningProcess.setProcess(proc);
-            runningProcess.setStartTime(startTime);
-            runningProcess.setProcessStatus(ProcessStatus.running);
+            runningProcess.transition(state -> state.started(proc.pid(), startTime));
 
             log.info("Process '{}' started with PID: {} at {}", name, proc.pid(), startTime);
 
             if (runningProcess.getHealthCheck() != null) {
-                runningProcess.setScheduledFuture(
-                        threadPoolTaskScheduler.
-                                scheduleAtFixedRate(runningProcess.getHealthCheck(), Duration.ofSeconds(30)));
+                runningProcess.setScheduledFuture(healthCheckScheduler.schedule(runningProcess));
             }
 
-            // Monitor process completion asynchronously using Spring's thread pool
+            // Register for exit notification; no thread is held while the process runs
             CompletableFuture<Void> future = processManagerMonitor.monitorProcessCompletion(name, proc, startTime);
             runningProcess.setCompletableFuture(future);
 
         } catch (IOException e) {
             log.error("Failed to start process: {}", name, e);
-            runningProcess.setProcessStatus(ProcessStatus.failed);
-            runningProcess.setFailedErrorLog(e.getMessage());
+            runningProcess.transition(state -> state.failedToStart(e.getMessage()));
             runningProcess.setProcess(null);
         }
     }
@@ -149,9 +143,9 @@ public class ProcessManagerLocal implements ProcessManagerInteface {
                 if (!exited) {
                     log.warn("Process {} did not exit gracefully, force killing...", name);
                     process.destroyForcibly();
-                    runningProcess.setProcessStatus(ProcessStatus.aborted);
+                    runningProcess.exited(process.pid(), status -> ProcessStatus.aborted, 137, LocalDateTime.now());
                 } else {
-                    runningProcess.setProcessStatus(ProcessStatus.stopped);
+                    runningProcess.exited(process.pid(), status -> ProcessStatus.stopped, process.exitValue(), LocalDateTime.now());
                 }
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
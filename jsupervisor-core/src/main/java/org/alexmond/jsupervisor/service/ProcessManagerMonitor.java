@@ -1,13 +1,18 @@
 package org.alexmond.jsupervisor.service;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.alexmond.jsupervisor.model.ProcessState;
 import org.alexmond.jsupervisor.model.ProcessStatus;
+import org.alexmond.jsupervisor.model.RunningProcess;
 import org.alexmond.jsupervisor.repository.ProcessRepository;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 
 import java.time.LocalDateTime;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Monitors and manages the lifecycle of running processes.
@@ -16,22 +21,49 @@ import java.util.concurrent.CompletableFuture;
  * to maintain process state and handle cleanup operations.
  * <p>
  * It is responsible for:
- * - Monitoring process execution state through asynchronous execution
+ * - Monitoring process execution state through exit completion callbacks
  * - Updating process status based on exit codes in the repository
  * - Managing process lifecycle events and state transitions
  * - Cleaning up process resources after completion
  * - Logging process completion status and runtime information
+ * <p>
+ * No thread is parked per child: exits are delivered by {@link Process#onExit()} and the
+ * resulting state updates run on a single reaper thread, so the cost of supervising a
+ * process does not grow with the number of processes being supervised.
  */
 @Slf4j
-@RequiredArgsConstructor
-public class ProcessManagerMonitor {
+public class ProcessManagerMonitor implements DisposableBean {
     private final ProcessRepository processRepository;
+    private final ProcessRestartManager processRestartManager;
+    private final ExecutorService reaperExecutor;
+
+    /**
+     * Creates a new monitor backed by a single daemon reaper thread that only records exits.
+     *
+     * @param processRepository repository holding the supervised processes
+     */
+    public ProcessManagerMonitor(ProcessRepository processRepository) {
+        this(processRepository, null);
+    }
+
+    /**
+     * Creates a new monitor backed by a single daemon reaper thread.
+     *
+     * @param processRepository     repository holding the supervised processes
+     * @param processRestartManager engine unexpected exits are handed to, may be null
+     */
+    public ProcessManagerMonitor(ProcessRepository processRepository, ProcessRestartManager processRestartManager) {
+        this.processRepository = processRepository;
+        this.processRestartManager = processRestartManager;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("jsupervisor-reaper-");
+        threadFactory.setDaemon(true);
+        this.reaperExecutor = Executors.newSingleThreadExecutor(threadFactory);
+    }
 
     /**
-     * Asynchronously monitors a process until completion and updates its status.
-     * Upon process completion, updates the process status based on exit code and performs cleanup.
-     * This method blocks until the process completes and then updates the process repository
-     * with the final status and execution details.
+     * Registers a process for exit notification and updates its status once it completes.
+     * The call returns immediately; the returned future completes after the exit has been
+     * recorded in the repository.
      * <p>
      * Process status transitions:
      * - Exit code 0: Process transitions to 'finished' state (successful completion)
@@ -40,48 +72,107 @@ public class ProcessManagerMonitor {
      * - Exit code 137: Process transitions to 'aborted' state (forceful termination via SIGKILL)
      * - Other exit codes: Process transitions to 'unknown' state (unexpected termination)
      * <p>
-     * After status update, the method performs cleanup by nullifying the process
-     * and completable future references in the repository.
+     * A process that exits while 'stopping' transitions to 'stopped', or to 'aborted' if it
+     * had to be force killed.
+     * <p>
+     * After status update, the process and completable future references are cleared,
+     * unless the process has already been replaced by a newer instance. A non-zero exit that
+     * was not requested by a stop is then handed to the {@link ProcessRestartManager}.
      *
      * @param name      the name of the process to monitor
      * @param proc      the Java Process object to monitor
      * @param startTime the time when the process started
-     * @return CompletableFuture<Void> representing the completion of monitoring
-     * @throws InterruptedException if the monitoring thread is interrupted
+     * @return CompletableFuture<Void> completing once the exit has been recorded
      */
-    @Async
     public CompletableFuture<Void> monitorProcessCompletion(String name, Process proc, LocalDateTime startTime) {
-        try {
-            int exitCode = proc.waitFor();
-            LocalDateTime endTime = LocalDateTime.now();
-            if (processRepository.getRunningProcess(name).getScheduledFuture() != null) {
-                processRepository.getRunningProcess(name).getScheduledFuture().cancel(true);
-            }
-            processRepository.getRunningProcess(name).setEndTime(endTime);
-            processRepository.getRunningProcess(name).setExitCode(exitCode);
-            ProcessStatus newStatus;
-            switch (exitCode) {
-                case 0 -> newStatus = ProcessStatus.finished;
-                case 1 -> newStatus = ProcessStatus.failed;
-                case 143 -> newStatus = ProcessStatus.stopped;
-                case 137 -> newStatus = ProcessStatus.aborted;
-                default -> newStatus = ProcessStatus.unknown;
-            }
-            ;
-            processRepository.getRunningProcess(name).setProcessStatus(newStatus);
-            log.info("Process '{}' ended with exit code: {} after running for: {}",
-                    name, exitCode, processRepository.getRunningProcess(name).getProcessRuntimeFormatted());
+        return monitorProcessCompletion(processRepository.getRunningProcess(name), proc, startTime);
+    }
+
+    /**
+     * Registers an instance of a process for exit notification and updates its status once it
+     * completes, see {@link #monitorProcessCompletion(String, Process, LocalDateTime)}.
+     * Unexpected exits of warm standby instances and additional instances are handed to the
+     * {@link ProcessRestartManager} to be started again.
+     *
+     * @param runningProcess the instance running the process
+     * @param proc           the Java Process object to monitor
+     * @param startTime      the time when the process started
+     * @return CompletableFuture<Void> completing once the exit has been recorded
+     */
+    public CompletableFuture<Void> monitorProcessCompletion(RunningProcess runningProcess, Process proc, LocalDateTime startTime) {
+        return proc.onExit()
+                .thenAcceptAsync(exited -> processExited(runningProcess, exited), reaperExecutor)
+                .exceptionally(ex -> {
+                    log.error("Failed to record exit of process '{}'", runningProcess.getProcessName(), ex);
+                    return null;
+                });
+    }
 
-            // Clean up
-            processRepository.getRunningProcess(name).setProcess(null);
-            processRepository.getRunningProcess(name).setCompletableFuture(null);
+    /**
+     * Maps a process exit code to the resulting process status.
+     *
+     * @param exitCode the exit code reported by the operating system
+     * @return the status the process transitions to
+     */
+    public static ProcessStatus exitStatus(int exitCode) {
+        return switch (exitCode) {
+            case 0 -> ProcessStatus.finished;
+            case 1 -> ProcessStatus.failed;
+            case 143 -> ProcessStatus.stopped;
+            case 137 -> ProcessStatus.aborted;
+            default -> ProcessStatus.unknown;
+        };
+    }
+
+    /**
+     * Maps the exit code of a process that was asked to stop to the resulting process status.
+     * Any exit after a stop request counts as 'stopped' unless the process had to be killed.
+     *
+     * @param exitCode the exit code reported by the operating system
+     * @return 'aborted' if the process was killed with SIGKILL, 'stopped' otherwise
+     */
+    public static ProcessStatus stopStatus(int exitCode) {
+        return exitCode == 137 ? ProcessStatus.aborted : ProcessStatus.stopped;
+    }
 
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            log.warn("Process monitoring interrupted for: {}", name);
+    private void processExited(RunningProcess runningProcess, Process proc) {
+        String name = runningProcess.getProcessName();
+        int exitCode = proc.exitValue();
+        if (runningProcess.getProcess() != proc) {
+            log.info("Process '{}' (PID {}) ended with exit code: {} after it was replaced",
+                    name, proc.pid(), exitCode);
+            return;
+        }
+        if (runningProcess.getScheduledFuture() != null) {
+            runningProcess.getScheduledFuture().cancel(true);
         }
+        AtomicReference<ProcessStatus> statusAtExit = new AtomicReference<>();
+        ProcessState exitState = runningProcess.exited(proc.pid(), status -> {
+            statusAtExit.set(status);
+            return status == ProcessStatus.stopping ? stopStatus(exitCode) : exitStatus(exitCode);
+        }, exitCode, LocalDateTime.now());
+        log.info("Process '{}' ended with exit code: {} after running for: {}",
+                name, exitCode, runningProcess.getProcessRuntimeFormatted());
 
-        return CompletableFuture.completedFuture(null);
+        // Clean up
+        runningProcess.setProcess(null);
+        runningProcess.setCompletableFuture(null);
+
+        if (exitState != null && exitCode != 0 && statusAtExit.get() != ProcessStatus.stopping
+                && processRestartManager != null) {
+            if (runningProcess.isStandby() || runningProcess != processRepository.getRunningProcess(name)) {
+                processRestartManager.instanceExited(runningProcess);
+            } else {
+                processRestartManager.processExited(name, exitState);
+            }
+        }
     }
 
+    /**
+     * Stops the reaper thread when the application context is closed.
+     */
+    @Override
+    public void destroy() {
+        reaperExecutor.shutdownNow();
+    }
 }
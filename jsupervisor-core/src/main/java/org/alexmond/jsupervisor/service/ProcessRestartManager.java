@@ -0,0 +1,154 @@
+package org.alexmond.jsupervisor.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.alexmond.jsupervisor.config.ProcessConfig;
+import org.alexmond.jsupervisor.model.ProcessState;
+import org.alexmond.jsupervisor.model.ProcessStatus;
+import org.alexmond.jsupervisor.model.RunningProcess;
+import org.alexmond.jsupervisor.repository.ProcessRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Restarts processes with {@code autoRestart} enabled after they exit unexpectedly.
+ * <p>
+ * Restarts are delayed with exponential backoff: the delay starts at {@code restartBackoff},
+ * doubles with every consecutive failed start attempt up to {@code restartBackoffMax}, and is
+ * randomized by +/-20% so that processes crashing together do not restart in lockstep.
+ * A run that stayed up for at least {@code startSeconds} counts as a successful start and resets
+ * the attempt counter. After {@code startRetries} consecutive failed attempts the process is
+ * marked {@link ProcessStatus#crash_loop} and no longer restarted until it is started manually.
+ * <p>
+ * Backoff delays are scheduled on the task scheduler, so no thread waits while a restart is pending.
+ * <p>
+ * When the process has warm spares, a ready standby instance is promoted instead, without delay,
+ * regardless of {@code autoRestart}.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ProcessRestartManager {
+
+    /**
+     * Relative amount by which a backoff delay is randomly shortened or extended.
+     */
+    private static final double JITTER = 0.2;
+
+    private final ProcessRepository processRepository;
+    private final ObjectProvider<ProcessManager> processManager;
+    private final ThreadPoolTaskScheduler threadPoolTaskScheduler;
+
+    /**
+     * Handles an exit that was not requested by the supervisor. Schedules a restart if the
+     * process has auto-restart enabled and its retry budget is not exhausted.
+     *
+     * @param name      the name of the process that exited
+     * @param exitState the state recorded for the exit
+     */
+    public void processExited(String name, ProcessState exitState) {
+        RunningProcess runningProcess = processRepository.getRunningProcess(name);
+        if (runningProcess == null) {
+            return;
+        }
+        if (runningProcess.getProcessConfig().getWarmSpares() > 0 && processManager.getObject().promoteSpare(name)) {
+            log.warn("Process '{}' exited unexpectedly with exit code {}, promoted a warm standby instance",
+                    name, exitState.exitCode());
+            return;
+        }
+        if (!runningProcess.getProcessConfig().isAutoRestart()) {
+            return;
+        }
+        ProcessConfig processConfig = runningProcess.getProcessConfig();
+        Duration uptime = exitState.runtime(exitState.endTime());
+        int attempt = uptime.compareTo(Duration.ofSeconds(processConfig.getStartSeconds())) >= 0
+                ? 0 : runningProcess.getRestartAttempts() + 1;
+        runningProcess.setRestartAttempts(attempt);
+
+        if (attempt > processConfig.getStartRetries()) {
+            log.error("Process '{}' exited {} times within {}s of starting, giving up auto-restart",
+                    name, attempt, processConfig.getStartSeconds());
+            runningProcess.transition(current -> current == exitState,
+                    current -> current.withStatus(ProcessStatus.crash_loop));
+            return;
+        }
+
+        Duration delay = backoff(processConfig, attempt);
+        log.warn("Process '{}' exited unexpectedly with exit code {}, restarting in {} ms (attempt {}/{})",
+                name, exitState.exitCode(), delay.toMillis(), attempt, processConfig.getStartRetries());
+        runningProcess.setRestartFuture(threadPoolTaskScheduler.schedule(
+                () -> restart(name, exitState), Instant.now().plus(delay)));
+    }
+
+    /**
+     * Handles an unexpected exit of a warm standby instance or of an additional instance of a
+     * multi-instance process. Standby instances are always started again; additional instances
+     * only if the process has auto-restart enabled. Restarts use the same backoff as the
+     * primary instance; after {@code startRetries} consecutive failed attempts the instance is
+     * left stopped until the process is started again.
+     *
+     * @param instance the instance that exited
+     */
+    public void instanceExited(RunningProcess instance) {
+        String name = instance.getProcessName();
+        ProcessConfig processConfig = instance.getProcessConfig();
+        String kind = instance.isStandby() ? "Standby instance" : "Instance";
+        if (!instance.isStandby() && !processConfig.isAutoRestart()) {
+            return;
+        }
+        int attempt = instance.getProcessRuntime().compareTo(Duration.ofSeconds(processConfig.getStartSeconds())) >= 0
+                ? 0 : instance.getRestartAttempts() + 1;
+        instance.setRestartAttempts(attempt);
+        if (attempt > processConfig.getStartRetries()) {
+            log.error("{} {} of '{}' keeps exiting, giving up", kind, instance.getInstanceId(), name);
+            return;
+        }
+        Duration delay = backoff(processConfig, attempt);
+        log.warn("{} {} of '{}' exited unexpectedly, restarting in {} ms",
+                kind, instance.getInstanceId(), name, delay.toMillis());
+        instance.setRestartFuture(threadPoolTaskScheduler.schedule(() -> {
+            instance.setRestartFuture(null);
+            if (instance.isStandby()) {
+                processManager.getObject().backfillSpare(name, instance);
+            } else {
+                processManager.getObject().relaunchInstance(name, instance);
+            }
+        }, Instant.now().plus(delay)));
+    }
+
+    /**
+     * Computes the jittered backoff delay before the given restart attempt.
+     *
+     * @param processConfig configuration of the process
+     * @param attempt       number of consecutive failed start attempts, 0 after a successful run
+     * @return the delay before restarting
+     */
+    static Duration backoff(ProcessConfig processConfig, int attempt) {
+        long initial = processConfig.getRestartBackoff().toMillis();
+        long max = processConfig.getRestartBackoffMax().toMillis();
+        long delay = initial << Math.min(attempt, 30);
+        if (delay <= 0 || delay > max) {
+            delay = max;
+        }
+        double jitter = 1 + ThreadLocalRandom.current().nextDouble(-JITTER, JITTER);
+        return Duration.ofMillis(Math.round(delay * jitter));
+    }
+
+    private void restart(String name, ProcessState exitState) {
+        RunningProcess runningProcess = processRepository.getRunningProcess(name);
+        if (runningProcess == null) {
+            return;
+        }
+        runningProcess.setRestartFuture(null);
+        // skip if the process was started, stopped or removed while the restart was pending
+        if (runningProcess.getState() != exitState || runningProcess.getProcess() != null) {
+            log.info("Process '{}' changed state while a restart was pending, skipping auto-restart", name);
+            return;
+        }
+        log.info("Auto-restarting process '{}'", name);
+        processManager.getObject().startProcess(name);
+    }
+}
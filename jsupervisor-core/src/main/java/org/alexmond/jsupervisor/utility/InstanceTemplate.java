@@ -0,0 +1,91 @@
+package org.alexmond.jsupervisor.utility;
+
+import org.alexmond.jsupervisor.config.ProcessConfig;
+import org.alexmond.jsupervisor.exception.JSupervisorException;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.DeserializationFeature;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Derives the configuration of a single instance of a process from its configuration template.
+ * <p>
+ * The placeholders {@code {{instance}}} and {@code {{port}}} are substituted in every string
+ * setting of the process, including arguments, environment values, log paths and health check
+ * URLs. The instance port is the base {@code port} of the process plus the instance number.
+ */
+public final class InstanceTemplate {
+
+    /**
+     * Placeholder replaced by the instance number.
+     */
+    public static final String INSTANCE_PLACEHOLDER = "{{instance}}";
+    /**
+     * Placeholder replaced by the instance port.
+     */
+    public static final String PORT_PLACEHOLDER = "{{port}}";
+
+    private static final ObjectMapper OBJECT_MAPPER = JsonMapper.builder()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+
+    private InstanceTemplate() {
+    }
+
+    /**
+     * Returns the port of an instance of the process.
+     *
+     * @param config   configuration template of the process
+     * @param instance instance number
+     * @return the base port plus the instance number, or null if the process has no port
+     */
+    public static Integer instancePort(ProcessConfig config, int instance) {
+        return config.getPort() == null ? null : config.getPort() + instance;
+    }
+
+    /**
+     * Returns the configuration of an instance of the process. The template itself is
+     * returned for instance 0 when it contains nothing to substitute, so that a process
+     * without instances keeps sharing its configuration object.
+     *
+     * @param processName name of the process, used in error messages
+     * @param config      configuration template of the process
+     * @param instance    instance number
+     * @return the configuration of the instance, a copy unless nothing had to be substituted
+     * @throws JSupervisorException if {@code {{port}}} is used but the process has no port
+     */
+    public static ProcessConfig forInstance(String processName, ProcessConfig config, int instance) {
+        Integer port = instancePort(config, instance);
+        boolean defaultProbePort = config.getPortHealthCheck() != null
+                && config.getPortHealthCheck().getPort() == null && port != null;
+        boolean defaultListenPort = config.getListenHealthCheck() != null
+                && config.getListenHealthCheck().getPort() == null && port != null;
+        try {
+            String template = OBJECT_MAPPER.writeValueAsString(config);
+            if (instance == 0 && !template.contains(INSTANCE_PLACEHOLDER)
+                    && !template.contains(PORT_PLACEHOLDER) && !defaultProbePort && !defaultListenPort) {
+                return config;
+            }
+            if (port == null && template.contains(PORT_PLACEHOLDER)) {
+                throw new JSupervisorException("Process " + processName + " uses " + PORT_PLACEHOLDER
+                        + " but has no port configured", "MISSING_PORT");
+            }
+            String resolved = template.replace(INSTANCE_PLACEHOLDER, String.valueOf(instance));
+            if (port != null) {
+                resolved = resolved.replace(PORT_PLACEHOLDER, String.valueOf(port));
+            }
+            ProcessConfig instanceConfig = OBJECT_MAPPER.readValue(resolved, ProcessConfig.class);
+            instanceConfig.setPort(port);
+            if (defaultProbePort) {
+                instanceConfig.getPortHealthCheck().setPort(port);
+            }
+            if (defaultListenPort) {
+                instanceConfig.getListenHealthCheck().setPort(port);
+            }
+            return instanceConfig;
+        } catch (JacksonException e) {
+            throw new JSupervisorException("Failed to derive configuration of instance " + instance
+                    + " of process " + processName + ": " + e.getMessage(), "INVALID_TEMPLATE");
+        }
+    }
+}
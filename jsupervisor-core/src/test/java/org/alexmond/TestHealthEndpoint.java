@@ -2,6 +2,7 @@ package org.alexmond;
 
 import org.alexmond.model.HealthStatusResponse;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -22,4 +23,14 @@ public class TestHealthEndpoint {
         response.setStatus("DOWN");
         return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
     }
+
+    @GetMapping(value = "/healthComponents", produces = MediaType.APPLICATION_JSON_VALUE)
+    public String getHealthStatusComponents() {
+        return """
+                {"status":"DOWN","components":{
+                  "db":{"status":"UP","details":{"database":"H2","validationQuery":"isValid()"}},
+                  "diskSpace":{"status":"DOWN","details":{"free":0,"threshold":10485760}},
+                  "ping":{"status":"UP"}}}
+                """;
+    }
 }
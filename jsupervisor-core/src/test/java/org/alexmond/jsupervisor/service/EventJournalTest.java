@@ -0,0 +1,136 @@
+package org.alexmond.jsupervisor.service;
+
+import org.alexmond.jsupervisor.config.EventsConfig;
+import org.alexmond.jsupervisor.model.ProcessEventEntry;
+import org.alexmond.jsupervisor.model.ProcessStatus;
+import org.alexmond.jsupervisor.repository.EventJournal;
+import org.alexmond.jsupervisor.repository.RingBufferEventRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.PageRequest;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies that the event journal restores events, deletions and the id sequence on restart,
+ * rolls over and expires its segments and ignores a damaged tail.
+ */
+public class EventJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private EventJournal openJournal() {
+        return new EventJournal(directory, EventJournal.MIN_SEGMENT_SIZE, Duration.ZERO);
+    }
+
+    private static ProcessEventEntry event(String processName, ProcessStatus status) {
+        ProcessEventEntry entry = new ProcessEventEntry();
+        entry.setProcessName(processName);
+        entry.setNewStatus(status);
+        entry.setOldStatus(ProcessStatus.starting);
+        entry.setPid(4242L);
+        entry.setEventTime(LocalDateTime.now());
+        entry.setStartTime(LocalDateTime.now().minusMinutes(1));
+        entry.setProcessUptime(Duration.ofMillis(60_123));
+        return entry;
+    }
+
+    private List<Path> segments() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    @Test
+    void testReplaysEventsAndContinuesIdsAfterRestart() {
+        RingBufferEventRepository repository = new RingBufferEventRepository(new EventsConfig(), openJournal());
+        ProcessEventEntry written = event("web", ProcessStatus.running);
+        repository.save(written);
+        repository.save(event("db", ProcessStatus.failed));
+        repository.save(event("web", ProcessStatus.stopped));
+        repository.deleteById(2L);
+        repository.destroy();
+
+        RingBufferEventRepository restored = new RingBufferEventRepository(new EventsConfig(), openJournal());
+        assertEquals(2, restored.count());
+        assertEquals(3, restored.getLastId());
+        assertFalse(restored.existsById(2L));
+        assertEquals(written, restored.findById(1L).orElseThrow());
+        assertEquals(2, restored.findByProcessName("web", PageRequest.of(0, 10)).getTotalElements());
+
+        restored.deleteAll();
+        restored.save(event("web", ProcessStatus.running));
+        restored.destroy();
+
+        RingBufferEventRepository cleared = new RingBufferEventRepository(new EventsConfig(), openJournal());
+        assertEquals(1, cleared.count());
+        assertTrue(cleared.existsById(4L));
+        cleared.destroy();
+    }
+
+    @Test
+    void testRollsOverAndExpiresSegmentsOfEvictedEvents() throws Exception {
+        EventsConfig eventsConfig = new EventsConfig();
+        eventsConfig.setMaxEvents(50);
+        EventJournal journal = openJournal();
+        RingBufferEventRepository repository = new RingBufferEventRepository(eventsConfig, journal);
+        for (int i = 0; i < 1000; i++) {
+            repository.save(event("process" + (i % 7), ProcessStatus.running));
+        }
+
+        // about 50 events fit into a segment, so only the segments holding the last 50 events remain
+        assertTrue(journal.getSegmentCount() <= 3, "segments: " + journal.getSegmentCount());
+        assertEquals(journal.getSegmentCount(), segments().size());
+        repository.destroy();
+
+        RingBufferEventRepository restored = new RingBufferEventRepository(eventsConfig, openJournal());
+        assertEquals(50, restored.count());
+        assertEquals(1000, restored.getLastId());
+        assertTrue(restored.existsById(951L));
+        restored.destroy();
+    }
+
+    @Test
+    void testIgnoresDamagedTail() throws Exception {
+        RingBufferEventRepository repository = new RingBufferEventRepository(new EventsConfig(), openJournal());
+        repository.save(event("web", ProcessStatus.running));
+        repository.save(event("web", ProcessStatus.stopped));
+        repository.destroy();
+
+        Path segment = segments().get(0);
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            // damage the old status of the second record, as a torn write would
+            long position = 16;
+            file.seek(position);
+            position += 8 + file.readInt();
+            file.seek(position);
+            position += 8 + file.readInt();
+            file.seek(position - 13);
+            int damaged = file.read() ^ 0x7F;
+            file.seek(position - 13);
+            file.write(damaged);
+        }
+
+        RingBufferEventRepository restored = new RingBufferEventRepository(new EventsConfig(), openJournal());
+        assertEquals(1, restored.count());
+        assertEquals(ProcessStatus.running, restored.findById(1L).orElseThrow().getNewStatus());
+        restored.save(event("web", ProcessStatus.failed));
+        restored.destroy();
+
+        RingBufferEventRepository reopened = new RingBufferEventRepository(new EventsConfig(), openJournal());
+        assertEquals(2, reopened.count());
+        assertEquals(ProcessStatus.failed, reopened.findById(2L).orElseThrow().getNewStatus());
+        reopened.destroy();
+    }
+}
@@ -0,0 +1,133 @@
+package org.alexmond.jsupervisor.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.alexmond.jsupervisor.config.ProcessConfig;
+import org.alexmond.jsupervisor.config.SupervisorConfig;
+import org.alexmond.jsupervisor.repository.ProcessRepository;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares exit-detection latency and thread count of the former blocking {@code waitFor}
+ * monitor with the {@link ProcessManagerMonitor} reaper.
+ * <p>
+ * Spawns thousands of children, so it only runs when requested:
+ * {@code mvn test -Djsupervisor.benchmark=true -Dtest=ExitDetectionBenchmarkTest}
+ */
+@Slf4j
+@EnabledOnOs(OS.LINUX)
+@EnabledIfSystemProperty(named = "jsupervisor.benchmark", matches = "true")
+public class ExitDetectionBenchmarkTest {
+
+    private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+    @ParameterizedTest
+    @ValueSource(ints = {100, 1_000, 5_000})
+    void waitForPerChild(int children) throws Exception {
+        int baseline = threadMXBean.getThreadCount();
+        List<Process> processes = spawn(children);
+        long[] detectedAt = new long[children];
+        List<Thread> waiters = new ArrayList<>(children);
+        for (int i = 0; i < children; i++) {
+            int index = i;
+            Process process = processes.get(i);
+            Thread waiter = new Thread(() -> {
+                try {
+                    process.waitFor();
+                    detectedAt[index] = System.nanoTime();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            waiter.setDaemon(true);
+            waiter.start();
+            waiters.add(waiter);
+        }
+        int threads = threadMXBean.getThreadCount() - baseline;
+        long[] destroyedAt = destroy(processes);
+        for (Thread waiter : waiters) {
+            waiter.join(TimeUnit.MINUTES.toMillis(1));
+        }
+        report("waitFor", children, threads, destroyedAt, detectedAt);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {100, 1_000, 5_000})
+    void exitReaper(int children) throws Exception {
+        ProcessRepository processRepository = new ProcessRepository(new SupervisorConfig(), event -> {
+        });
+        ProcessManagerMonitor monitor = new ProcessManagerMonitor(processRepository);
+        try {
+            int baseline = threadMXBean.getThreadCount();
+            List<Process> processes = spawn(children);
+            long[] detectedAt = new long[children];
+            List<CompletableFuture<Void>> futures = new ArrayList<>(children);
+            for (int i = 0; i < children; i++) {
+                int index = i;
+                String processName = "bench" + i;
+                processRepository.addProcess(processName, benchProcessConfig());
+                processRepository.getRunningProcess(processName).setProcess(processes.get(i));
+                futures.add(monitor.monitorProcessCompletion(processName, processes.get(i), LocalDateTime.now())
+                        .thenRun(() -> detectedAt[index] = System.nanoTime()));
+            }
+            int threads = threadMXBean.getThreadCount() - baseline;
+            long[] destroyedAt = destroy(processes);
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(1, TimeUnit.MINUTES);
+            report("reaper", children, threads, destroyedAt, detectedAt);
+        } finally {
+            monitor.destroy();
+        }
+    }
+
+    private List<Process> spawn(int children) throws IOException {
+        List<Process> processes = new ArrayList<>(children);
+        for (int i = 0; i < children; i++) {
+            processes.add(new ProcessBuilder("sleep", "600").start());
+        }
+        return processes;
+    }
+
+    private long[] destroy(List<Process> processes) {
+        long[] destroyedAt = new long[processes.size()];
+        for (int i = 0; i < processes.size(); i++) {
+            destroyedAt[i] = System.nanoTime();
+            processes.get(i).destroy();
+        }
+        return destroyedAt;
+    }
+
+    private void report(String engine, int children, int threads, long[] destroyedAt, long[] detectedAt) {
+        long[] latencies = new long[children];
+        for (int i = 0; i < children; i++) {
+            assertTrue(detectedAt[i] > 0, "exit of child " + i + " was not detected");
+            latencies[i] = TimeUnit.NANOSECONDS.toMicros(detectedAt[i] - destroyedAt[i]);
+        }
+        Arrays.sort(latencies);
+        log.info("{} children={} addedThreads={} latency p50={}us p99={}us max={}us",
+                engine, children, threads,
+                latencies[children / 2], latencies[(int) (children * 0.99)], latencies[children - 1]);
+    }
+
+    private ProcessConfig benchProcessConfig() {
+        ProcessConfig processConfig = new ProcessConfig();
+        processConfig.setCommand("sleep");
+        processConfig.setArgs(List.of("600"));
+        processConfig.setWorkingDirectory(".");
+        return processConfig;
+    }
+}
@@ -0,0 +1,83 @@
+package org.alexmond.jsupervisor.service;
+
+import org.alexmond.jsupervisor.healthcheck.HealthCheckScheduler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies that the timing-wheel probe scheduler honors initial delay and period,
+ * spreads probes registered together and stops cancelled probes.
+ */
+public class HealthCheckSchedulerTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    private final HealthCheckScheduler scheduler = new HealthCheckScheduler(executor, Duration.ofMillis(10), 64);
+
+    @AfterEach
+    void tearDown() {
+        scheduler.destroy();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testHonorsInitialDelayAndPeriod() {
+        AtomicInteger runs = new AtomicInteger();
+        long start = System.nanoTime();
+        ConcurrentLinkedQueue<Long> firedAt = new ConcurrentLinkedQueue<>();
+        CompletableFuture<Void> handle = scheduler.schedule("probe", () -> {
+            firedAt.add(System.nanoTime());
+            runs.incrementAndGet();
+        }, Duration.ofMillis(300), Duration.ofMillis(200));
+
+        await().atMost(10, TimeUnit.SECONDS).until(() -> runs.get() >= 3);
+        handle.cancel(true);
+        long firstRun = TimeUnit.NANOSECONDS.toMillis(firedAt.peek() - start);
+        // initial delay plus a jitter within one period
+        assertTrue(firstRun >= 300 && firstRun < 300 + 200 + 100, "first run after " + firstRun + " ms");
+
+        int cancelledAt = runs.get();
+        await().pollDelay(Duration.ofMillis(500)).atMost(2, TimeUnit.SECONDS).until(() -> true);
+        assertTrue(runs.get() <= cancelledAt + 1, "probe kept running after cancel");
+        await().atMost(2, TimeUnit.SECONDS).until(() -> scheduler.getStats().getScheduledProbes() == 0);
+    }
+
+    @Test
+    void testSpreadsProbesAcrossPeriod() {
+        int probes = 200;
+        long start = System.nanoTime();
+        ConcurrentLinkedQueue<Long> firstRuns = new ConcurrentLinkedQueue<>();
+        List<CompletableFuture<Void>> handles = new ArrayList<>();
+        for (int i = 0; i < probes; i++) {
+            AtomicInteger runs = new AtomicInteger();
+            handles.add(scheduler.schedule("worker-" + i, () -> {
+                if (runs.getAndIncrement() == 0) {
+                    firstRuns.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                }
+            }, Duration.ZERO, Duration.ofSeconds(1)));
+        }
+        await().atMost(10, TimeUnit.SECONDS).until(() -> firstRuns.size() == probes);
+        handles.forEach(handle -> handle.cancel(true));
+
+        // no quarter of the period gets more than half of the probes
+        int[] quarters = new int[4];
+        firstRuns.forEach(ms -> quarters[(int) Math.min(3, ms / 250)]++);
+        for (int quarter : quarters) {
+            assertTrue(quarter < probes / 2, "probes bunched together: " + Arrays.toString(quarters));
+        }
+        assertTrue(scheduler.getStats().getFiredProbes() >= probes);
+    }
+}
@@ -1,17 +1,41 @@
 package org.alexmond.jsupervisor.service;
 
 import org.alexmond.jsupervisor.config.*;
+import org.alexmond.jsupervisor.healthcheck.CircuitOpenException;
+import org.alexmond.jsupervisor.healthcheck.CommandProbeEngine;
+import org.alexmond.jsupervisor.healthcheck.HealthProbeEngine;
+import org.alexmond.jsupervisor.healthcheck.ListenSocketTable;
+import org.alexmond.jsupervisor.healthcheck.PortProbeEngine;
 import org.alexmond.jsupervisor.model.ProcessStatus;
 import org.alexmond.jsupervisor.repository.ProcessRepository;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import static org.awaitility.Awaitility.await;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * Test class for the ProcessManagerBulk class.
@@ -139,6 +163,21 @@ public class HealthCheckTest {
         executeHealthCheckTest(processConfig, ProcessStatus.unhealthy);
     }
 
+    @Test
+    void testActuatorHealthCheckComponents() {
+        ProcessConfig processConfig = createBaseProcessConfig();
+        processConfig.setHealthCheckType(HealthCheckType.ACTUATOR);
+        ActuatorHealthCheckConfig actuatorHealthCheckConfig = new ActuatorHealthCheckConfig();
+        actuatorHealthCheckConfig.setActuatorHealthUrl("http://localhost:9086/healthComponents");
+        actuatorHealthCheckConfig.setComponents(List.of("db", "ping"));
+        setupHealthCheckDefaults(actuatorHealthCheckConfig);
+        processConfig.setActuatorHealthCheck(actuatorHealthCheckConfig);
+        executeHealthCheckTest(processConfig, ProcessStatus.healthy);
+
+        actuatorHealthCheckConfig.setComponents(List.of("db", "diskSpace"));
+        executeHealthCheckTest(processConfig, ProcessStatus.unhealthy);
+    }
+
     @Test
     void testPortHealthCheckFail() {
         ProcessConfig processConfig = createBaseProcessConfig();
@@ -150,4 +189,165 @@ public class HealthCheckTest {
         processConfig.setPortHealthCheck(portHealthCheckConfig);
         executeHealthCheckTest(processConfig, ProcessStatus.unhealthy);
     }
-}
\ No newline at end of file
+
+    @Test
+    @EnabledOnOs({OS.LINUX, OS.MAC})
+    void testCmdHealthCheck() {
+        ProcessConfig processConfig = createBaseProcessConfig();
+        processConfig.setHealthCheckType(HealthCheckType.CMD);
+        CmdHealthCheckConfig cmdHealthCheckConfig = new CmdHealthCheckConfig();
+        cmdHealthCheckConfig.setCommand("kill -0 \"$JSUPERVISOR_PID\"");
+        setupHealthCheckDefaults(cmdHealthCheckConfig);
+        processConfig.setCmdHealthCheck(cmdHealthCheckConfig);
+        executeHealthCheckTest(processConfig, ProcessStatus.healthy);
+
+        cmdHealthCheckConfig.setCommand("exit 1");
+        executeHealthCheckTest(processConfig, ProcessStatus.unhealthy);
+    }
+
+    @Test
+    @EnabledOnOs({OS.LINUX, OS.MAC})
+    void testCommandProbeEngineReusesShellsAndEnforcesTimeout() throws Exception {
+        CommandProbeEngine probeEngine = new CommandProbeEngine(1);
+        Duration timeout = Duration.ofSeconds(30);
+        assertTrue(probeEngine.run("test \"$A\" = \"it's\"", ".", Map.of("A", "it's"), timeout).get(1, TimeUnit.MINUTES));
+        assertFalse(probeEngine.run("exit 3", ".", Map.of(), timeout).get(1, TimeUnit.MINUTES));
+        assertFalse(probeEngine.run("true", "/nonexistent-directory", Map.of(), timeout).get(1, TimeUnit.MINUTES));
+
+        CompletableFuture<Boolean> slow = probeEngine.run("sleep 30", null, Map.of(), Duration.ofMillis(200));
+        ExecutionException rejected = assertThrows(ExecutionException.class,
+                () -> probeEngine.run("true", null, Map.of(), timeout).get(1, TimeUnit.MINUTES));
+        assertInstanceOf(RejectedExecutionException.class, rejected.getCause());
+        ExecutionException timedOut = assertThrows(ExecutionException.class, () -> slow.get(1, TimeUnit.MINUTES));
+        assertInstanceOf(TimeoutException.class, timedOut.getCause());
+
+        await().atMost(1, TimeUnit.MINUTES).until(() -> probeEngine.getRunning() == 0);
+        assertTrue(probeEngine.run("true", null, Map.of(), timeout).get(1, TimeUnit.MINUTES));
+
+        ExecutionException invalidName = assertThrows(ExecutionException.class,
+                () -> probeEngine.run("true", null, Map.of("A=1; exit 1; B", "x"), timeout).get(1, TimeUnit.MINUTES));
+        assertInstanceOf(IllegalArgumentException.class, invalidName.getCause());
+        assertEquals(0, probeEngine.getRunning());
+    }
+
+    @Test
+    void testAdaptivePeriodStretchesWhileStableAndResetsOnFailure() throws Exception {
+        ProcessConfig processConfig = createBaseProcessConfig();
+        processConfig.setHealthCheckType(HealthCheckType.PORT);
+        PortHealthCheckConfig portHealthCheckConfig = new PortHealthCheckConfig();
+        portHealthCheckConfig.setHost("localhost");
+        setupHealthCheckDefaults(portHealthCheckConfig);
+        portHealthCheckConfig.setInitialDelaySeconds(0);
+        portHealthCheckConfig.setMaxPeriodSeconds(4);
+        processConfig.setPortHealthCheck(portHealthCheckConfig);
+        try (ServerSocket server = new ServerSocket(0)) {
+            portHealthCheckConfig.setPort(server.getLocalPort());
+            processRepository.addProcess("adaptiveTest", processConfig);
+            processManager.startProcess("adaptiveTest");
+            verifyProcessHealth("adaptiveTest", ProcessStatus.healthy);
+            await().atMost(1, TimeUnit.MINUTES)
+                    .until(() -> processRepository.getRunningProcessInfo("adaptiveTest").getHealthCheck().getPeriodMillis() == 4000);
+        }
+        verifyProcessHealth("adaptiveTest", ProcessStatus.unhealthy);
+        await().atMost(1, TimeUnit.MINUTES)
+                .until(() -> processRepository.getRunningProcessInfo("adaptiveTest").getHealthCheck().getPeriodMillis() == 1000);
+        cleanupProcess("adaptiveTest");
+    }
+
+    @Test
+    void testProbeEngineBoundsInFlightProbes() throws Exception {
+        HealthProbeEngine probeEngine = new HealthProbeEngine(1);
+        try (ServerSocket silentServer = new ServerSocket(0)) {
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create("http://localhost:" + silentServer.getLocalPort() + "/health"))
+                    .timeout(Duration.ofSeconds(2))
+                    .GET()
+                    .build();
+            CompletableFuture<HttpResponse<Void>> slow = probeEngine.send(request, HttpResponse.BodyHandlers.discarding(), false);
+            assertEquals(1, probeEngine.getInFlight());
+
+            CompletableFuture<HttpResponse<Void>> rejected = probeEngine.send(request, HttpResponse.BodyHandlers.discarding(), false);
+            ExecutionException ex = assertThrows(ExecutionException.class, rejected::get);
+            assertInstanceOf(RejectedExecutionException.class, ex.getCause());
+
+            assertThrows(ExecutionException.class, () -> slow.get(1, TimeUnit.MINUTES));
+            await().atMost(1, TimeUnit.MINUTES).until(() -> probeEngine.getInFlight() == 0);
+        }
+    }
+
+    @Test
+    void testProbeEngineSharesIdenticalProbes() throws Exception {
+        HealthProbeEngine probeEngine = new HealthProbeEngine(HealthProbeEngine.DEFAULT_MAX_IN_FLIGHT);
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:9086/healthUp"))
+                .timeout(Duration.ofSeconds(5))
+                .GET()
+                .build();
+        HttpResponse<Void> first = probeEngine.sendShared("up", Duration.ofMinutes(1), request,
+                HttpResponse.BodyHandlers.discarding(), false).get(1, TimeUnit.MINUTES);
+        HttpResponse<Void> shared = probeEngine.sendShared("up", Duration.ofMinutes(1), request,
+                HttpResponse.BodyHandlers.discarding(), false).get(1, TimeUnit.MINUTES);
+        HttpResponse<Void> expired = probeEngine.sendShared("up", Duration.ZERO, request,
+                HttpResponse.BodyHandlers.discarding(), false).get(1, TimeUnit.MINUTES);
+        assertSame(first, shared);
+        assertNotSame(first, expired);
+        assertEquals(200, expired.statusCode());
+    }
+
+    @Test
+    void testProbeEngineOpensCircuitAfterConsecutiveTimeouts() throws Exception {
+        HealthProbeEngine probeEngine = new HealthProbeEngine(HealthProbeEngine.DEFAULT_MAX_IN_FLIGHT, 2, Duration.ofSeconds(1));
+        try (ServerSocket silentServer = new ServerSocket(0)) {
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create("http://localhost:" + silentServer.getLocalPort() + "/health"))
+                    .timeout(Duration.ofMillis(200))
+                    .GET()
+                    .build();
+            for (int i = 0; i < 2; i++) {
+                CompletableFuture<HttpResponse<Void>> timedOut = probeEngine.send(request, HttpResponse.BodyHandlers.discarding(), false);
+                ExecutionException ex = assertThrows(ExecutionException.class, () -> timedOut.get(1, TimeUnit.MINUTES));
+                assertInstanceOf(HttpTimeoutException.class, ex.getCause());
+            }
+            assertEquals(1, probeEngine.getOpenCircuits());
+
+            CompletableFuture<HttpResponse<Void>> failedFast = probeEngine.send(request, HttpResponse.BodyHandlers.discarding(), false);
+            ExecutionException ex = assertThrows(ExecutionException.class, failedFast::get);
+            assertInstanceOf(CircuitOpenException.class, ex.getCause());
+            assertEquals(0, probeEngine.getInFlight());
+
+            await().atMost(1, TimeUnit.MINUTES).until(() -> probeEngine.getOpenCircuits() == 0);
+            CompletableFuture<HttpResponse<Void>> trial = probeEngine.send(request, HttpResponse.BodyHandlers.discarding(), false);
+            assertEquals(1, probeEngine.getInFlight());
+            assertThrows(ExecutionException.class, () -> trial.get(1, TimeUnit.MINUTES));
+            assertEquals(1, probeEngine.getOpenCircuits());
+        }
+    }
+
+    @Test
+    void testPortProbeEngineConnectsAndFails() throws Exception {
+        PortProbeEngine probeEngine = new PortProbeEngine();
+        int closedPort;
+        try (ServerSocket server = new ServerSocket(0)) {
+            assertTrue(probeEngine.connect("localhost", server.getLocalPort(), Duration.ofSeconds(5)).get(1, TimeUnit.MINUTES));
+            closedPort = server.getLocalPort();
+        }
+        CompletableFuture<Boolean> refused = probeEngine.connect("localhost", closedPort, Duration.ofSeconds(5));
+        assertThrows(ExecutionException.class, () -> refused.get(1, TimeUnit.MINUTES));
+    }
+
+    @Test
+    @EnabledOnOs(OS.LINUX)
+    void testListenSocketTableFindsOwnListener() throws Exception {
+        ListenSocketTable socketTable = new ListenSocketTable(Duration.ZERO);
+        long pid = ProcessHandle.current().pid();
+        int closedPort;
+        try (ServerSocket server = new ServerSocket(0)) {
+            assertTrue(socketTable.isListening(pid, server.getLocalPort(), false));
+            long parentPid = ProcessHandle.current().parent().orElseThrow().pid();
+            assertTrue(socketTable.isListening(parentPid, server.getLocalPort(), true));
+            assertFalse(socketTable.isListening(parentPid, server.getLocalPort(), false));
+            closedPort = server.getLocalPort();
+        }
+        assertFalse(socketTable.isListening(pid, closedPort, false));
+    }
+}
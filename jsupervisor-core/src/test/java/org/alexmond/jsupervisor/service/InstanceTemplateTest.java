@@ -0,0 +1,40 @@
+package org.alexmond.jsupervisor.service;
+
+import org.alexmond.jsupervisor.config.ProcessConfig;
+import org.alexmond.jsupervisor.config.SupervisorConfig;
+import org.alexmond.jsupervisor.utility.InstanceTemplate;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.env.SystemEnvironmentPropertySource;
+import org.springframework.core.io.ClassPathResource;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Verifies that instance placeholders survive configuration binding, so every instance gets
+ * its own port even when the environment defines a {@code PORT} variable.
+ */
+public class InstanceTemplateTest {
+
+    @Test
+    void testPlaceholdersAreNotResolvedByConfigurationBinding() throws Exception {
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new SystemEnvironmentPropertySource("testEnvironment",
+                Map.of("PORT", "9999", "INSTANCE", "7")));
+        new YamlPropertySourceLoader().load("instance-template", new ClassPathResource("instance-template.yaml"))
+                .forEach(environment.getPropertySources()::addLast);
+
+        SupervisorConfig supervisorConfig = Binder.get(environment).bind("jsupervisor", SupervisorConfig.class).get();
+        ProcessConfig template = supervisorConfig.getProcess().get("web");
+        assertEquals("echo {{instance}}:{{port}}", template.getArgs().get(1));
+
+        ProcessConfig spare = InstanceTemplate.forInstance("web", template, 1);
+        assertEquals("echo 1:19601", spare.getArgs().get(1));
+        assertEquals("19601", spare.getEnv().get("SERVER_PORT"));
+        assertEquals("echo 0:19600", InstanceTemplate.forInstance("web", template, 0).getArgs().get(1));
+    }
+}
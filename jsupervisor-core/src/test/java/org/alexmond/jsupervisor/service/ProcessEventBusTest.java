@@ -0,0 +1,124 @@
+package org.alexmond.jsupervisor.service;
+
+import org.alexmond.jsupervisor.config.EventOverflowPolicy;
+import org.alexmond.jsupervisor.config.EventsConfig;
+import org.alexmond.jsupervisor.model.EventBusStats;
+import org.alexmond.jsupervisor.model.ProcessEvent;
+import org.alexmond.jsupervisor.model.ProcessEventEntry;
+import org.alexmond.jsupervisor.model.ProcessStatus;
+import org.alexmond.jsupervisor.repository.EventRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Verifies that the process event bus persists events in batches off the publishing threads,
+ * keeps the events of each process in order and applies its overflow policy.
+ */
+public class ProcessEventBusTest {
+
+    private static ProcessEventEntry event(String processName, int sequence) {
+        ProcessEventEntry entry = new ProcessEventEntry();
+        entry.setProcessName(processName);
+        entry.setExitCode(sequence);
+        entry.setNewStatus(ProcessStatus.running);
+        return entry;
+    }
+
+    @Test
+    void testPersistsAndDeliversEventsInOrderPerProcess() throws Exception {
+        EventRepository eventRepository = mock(EventRepository.class);
+        List<ProcessEventEntry> saved = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            Iterable<ProcessEventEntry> batch = invocation.getArgument(0);
+            batch.forEach(saved::add);
+            return batch;
+        }).when(eventRepository).saveAll(any());
+        List<Object> applicationEvents = new CopyOnWriteArrayList<>();
+        ApplicationEventPublisher applicationEventPublisher = applicationEvents::add;
+        ProcessEventBus eventBus = new ProcessEventBus(new EventsConfig(), eventRepository, applicationEventPublisher);
+        List<ProcessEventEntry> delivered = new CopyOnWriteArrayList<>();
+        eventBus.subscribe(delivered::add);
+
+        int producers = 4;
+        int eventsPerProducer = 2000;
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            String processName = "process" + p;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < eventsPerProducer; i++) {
+                    eventBus.publishEvent(new ProcessEvent(event(processName, i)));
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        int total = producers * eventsPerProducer;
+        await().atMost(1, TimeUnit.MINUTES).until(() -> delivered.size() == total);
+        assertEquals(total, saved.size());
+        assertEquals(total, applicationEvents.size());
+        Map<String, Integer> lastSequence = new HashMap<>();
+        for (int i = 0; i < total; i++) {
+            ProcessEventEntry entry = delivered.get(i);
+            assertEquals(i + 1, entry.getId());
+            Integer previous = lastSequence.put(entry.getProcessName(), entry.getExitCode());
+            assertEquals(previous == null ? 0 : previous + 1, entry.getExitCode());
+        }
+
+        EventBusStats stats = eventBus.getStats();
+        assertEquals(total, stats.getPublishedEvents());
+        assertEquals(total, stats.getPersistedEvents());
+        assertEquals(0, stats.getDroppedEvents());
+        assertTrue(stats.getBatches() <= total);
+        eventBus.destroy();
+    }
+
+    @Test
+    void testDropsEventsWhenQueueIsFull() throws Exception {
+        EventRepository eventRepository = mock(EventRepository.class);
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            writing.countDown();
+            release.await(1, TimeUnit.MINUTES);
+            return invocation.getArgument(0);
+        }).when(eventRepository).saveAll(any());
+        EventsConfig eventsConfig = new EventsConfig();
+        eventsConfig.setQueueCapacity(4);
+        eventsConfig.setOverflowPolicy(EventOverflowPolicy.DROP);
+        ProcessEventBus eventBus = new ProcessEventBus(eventsConfig, eventRepository, event -> {
+        });
+
+        assertTrue(eventBus.publish(event("slow", 0)));
+        assertTrue(writing.await(1, TimeUnit.MINUTES));
+        for (int i = 1; i <= 4; i++) {
+            assertTrue(eventBus.publish(event("slow", i)));
+        }
+        assertFalse(eventBus.publish(event("slow", 5)));
+        assertEquals(4, eventBus.getStats().getQueueDepth());
+        assertEquals(1, eventBus.getStats().getDroppedEvents());
+
+        release.countDown();
+        await().atMost(1, TimeUnit.MINUTES).until(() -> eventBus.getStats().getPersistedEvents() == 5);
+        assertEquals(0, eventBus.getStats().getQueueDepth());
+        eventBus.destroy();
+    }
+}
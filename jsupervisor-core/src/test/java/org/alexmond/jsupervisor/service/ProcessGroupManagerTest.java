@@ -1,8 +1,12 @@
 package org.alexmond.jsupervisor.service;
 
 import lombok.extern.slf4j.Slf4j;
+import org.alexmond.jsupervisor.config.HealthCheckType;
+import org.alexmond.jsupervisor.config.PortHealthCheckConfig;
 import org.alexmond.jsupervisor.config.ProcessConfig;
+import org.alexmond.jsupervisor.config.StartupFailurePolicy;
 import org.alexmond.jsupervisor.config.SupervisorConfig;
+import org.alexmond.jsupervisor.exception.JSupervisorException;
 import org.alexmond.jsupervisor.model.ProcessStatus;
 import org.alexmond.jsupervisor.repository.EventRepository;
 import org.alexmond.jsupervisor.repository.ProcessRepository;
@@ -13,10 +17,13 @@ import org.springframework.boot.test.context.SpringBootTest;
 
 import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
 import static org.awaitility.Awaitility.await;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
@@ -114,6 +121,129 @@ public class ProcessGroupManagerTest {
         processRepository.removeProcess("acTest3");
     }
 
+    @Test
+    void testReadyTierAbortPolicy() throws InterruptedException {
+        supervisorConfig.setAutoStartDelay(Duration.ZERO);
+        supervisorConfig.setTierFailurePolicy(StartupFailurePolicy.ABORT);
+        var processConfig1 = createBaseProcessConfig();
+        processConfig1.setOrder(1);
+        processConfig1.setGroups(new String[]{"tierTest"});
+        var processConfig2 = createBaseProcessConfig();
+        processConfig2.setCommand("false");
+        processConfig2.setArgs(List.of());
+        // with a health check the tier cannot count the process ready before it exits
+        processConfig2.setHealthCheckType(HealthCheckType.PORT);
+        PortHealthCheckConfig portHealthCheckConfig = new PortHealthCheckConfig();
+        portHealthCheckConfig.setHost("localhost");
+        portHealthCheckConfig.setPort(1);
+        processConfig2.setPortHealthCheck(portHealthCheckConfig);
+        processConfig2.setOrder(2);
+        processConfig2.setGroups(new String[]{"tierTest"});
+        var processConfig3 = createBaseProcessConfig();
+        processConfig3.setOrder(3);
+        processConfig3.setGroups(new String[]{"tierTest"});
+        processRepository.addProcess("tierTest1", processConfig1);
+        processRepository.addProcess("tierTest2", processConfig2);
+        processRepository.addProcess("tierTest3", processConfig3);
+        try {
+            processGroupManager.startGroup("tierTest");
+            verifyProcessStatus("tierTest2", 1, ProcessStatus.failed);
+            assertEquals(ProcessStatus.running, processRepository.getRunningProcessInfo("tierTest1").getStatus());
+            Thread.sleep(1000);
+            assertEquals(ProcessStatus.not_started, processRepository.getRunningProcessInfo("tierTest3").getStatus());
+        } finally {
+            supervisorConfig.setTierFailurePolicy(StartupFailurePolicy.CONTINUE);
+            processManager.stopProcess("tierTest1");
+            verifyProcessStatus("tierTest1", 1, ProcessStatus.stopped);
+            processRepository.removeProcess("tierTest1");
+            processRepository.removeProcess("tierTest2");
+            processRepository.removeProcess("tierTest3");
+        }
+    }
+
+    @Test
+    void testDependencyStartResolvesGroupDependencies() {
+        supervisorConfig.setAutoStartDelay(Duration.ZERO);
+        var databaseConfig = createBaseProcessConfig();
+        var serviceConfig = createBaseProcessConfig();
+        serviceConfig.setDependsOn(List.of("dagDatabase"));
+        serviceConfig.setGroups(new String[]{"dagTest"});
+        processRepository.addProcess("dagDatabase", databaseConfig);
+        processRepository.addProcess("dagService", serviceConfig);
+        try {
+            processGroupManager.startGroup("dagTest");
+            verifyProcessStatus("dagService", 1, ProcessStatus.running);
+            assertEquals(ProcessStatus.running, processRepository.getRunningProcessInfo("dagDatabase").getStatus());
+            var databaseStart = processRepository.getRunningProcessInfo("dagDatabase").getStartTime();
+            var serviceStart = processRepository.getRunningProcessInfo("dagService").getStartTime();
+            assertTrue(!serviceStart.isBefore(databaseStart));
+        } finally {
+            processGroupManager.stopAll();
+            verifyProcessStatus("dagDatabase", 1, ProcessStatus.stopped);
+            verifyProcessStatus("dagService", 1, ProcessStatus.stopped);
+            assertTrue(!processRepository.getRunningProcessInfo("dagService").getEndTime()
+                    .isAfter(processRepository.getRunningProcessInfo("dagDatabase").getEndTime()));
+            processRepository.removeProcess("dagService");
+            processRepository.removeProcess("dagDatabase");
+        }
+    }
+
+    @Test
+    void testStopGroupEnforcesGlobalDeadline() throws Exception {
+        supervisorConfig.setAutoStartDelay(Duration.ZERO);
+        var stubbornConfig = createBaseProcessConfig();
+        stubbornConfig.setCommand("sh");
+        stubbornConfig.setArgs(List.of("-c", "trap '' TERM; while true; do sleep 1; done"));
+        stubbornConfig.setShutdownTimeout(Duration.ofSeconds(1));
+        stubbornConfig.setOrder(2);
+        stubbornConfig.setGroups(new String[]{"deadlineTest"});
+        var sleeperConfig = createBaseProcessConfig();
+        sleeperConfig.setShutdownTimeout(Duration.ofSeconds(2));
+        sleeperConfig.setOrder(1);
+        sleeperConfig.setGroups(new String[]{"deadlineTest"});
+        processRepository.addProcess("deadlineStubborn", stubbornConfig);
+        processRepository.addProcess("deadlineSleeper", sleeperConfig);
+        try {
+            processGroupManager.startGroup("deadlineTest");
+            verifyProcessStatus("deadlineStubborn", 1, ProcessStatus.running);
+
+            long start = System.nanoTime();
+            processGroupManager.stopGroup("deadlineTest").get(10, TimeUnit.SECONDS);
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+            assertEquals(ProcessStatus.aborted, processRepository.getRunningProcessInfo("deadlineStubborn").getStatus());
+            assertEquals(ProcessStatus.aborted, processRepository.getRunningProcessInfo("deadlineSleeper").getStatus());
+            assertTrue(elapsed.compareTo(Duration.ofSeconds(5)) < 0, "group stop took " + elapsed);
+        } finally {
+            processGroupManager.stopAll().get(10, TimeUnit.SECONDS);
+            processRepository.removeProcess("deadlineStubborn");
+            processRepository.removeProcess("deadlineSleeper");
+        }
+    }
+
+    @Test
+    void testInvalidDependenciesAreRejected() {
+        var unknownConfig = createBaseProcessConfig();
+        unknownConfig.setDependsOn(List.of("noSuchProcess"));
+        assertThrows(JSupervisorException.class, () -> processRepository.addProcess("unknownDependency", unknownConfig));
+        assertNull(processRepository.getRunningProcess("unknownDependency"));
+
+        var firstConfig = createBaseProcessConfig();
+        var secondConfig = createBaseProcessConfig();
+        secondConfig.setDependsOn(List.of("cycleFirst"));
+        processRepository.addProcess("cycleFirst", firstConfig);
+        processRepository.addProcess("cycleSecond", secondConfig);
+        var cyclicConfig = createBaseProcessConfig();
+        cyclicConfig.setDependsOn(List.of("cycleSecond"));
+        assertThrows(JSupervisorException.class, () -> processRepository.addProcess("cycleFirst", cyclicConfig));
+        assertTrue(processRepository.dependenciesOf("cycleFirst").isEmpty());
+        firstConfig.setDependsOn(List.of("cycleSecond"));
+        assertThrows(JSupervisorException.class, () -> processRepository.validateDependencies());
+        firstConfig.setDependsOn(List.of());
+        processRepository.removeProcess("cycleSecond");
+        processRepository.removeProcess("cycleFirst");
+    }
+
     @Test
     void testRestartGroupAllHandlesErrors() {
         // Arrange
@@ -123,7 +253,7 @@ public class ProcessGroupManagerTest {
 
         ProcessGroupManager processGroupManager = Mockito.spy(new ProcessGroupManager(processRepository, processManager, config));
 
-        doNothing().when(processGroupManager).stopAll();
+        doReturn(CompletableFuture.completedFuture(null)).when(processGroupManager).stopAll();
         // Use RuntimeException instead of InterruptedException since startAll() doesn't declare checked exceptions
         doThrow(new RuntimeException("Unexpected error")).when(processGroupManager).startAll();
 
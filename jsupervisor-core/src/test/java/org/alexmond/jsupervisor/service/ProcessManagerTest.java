@@ -2,19 +2,38 @@ package org.alexmond.jsupervisor.service;
 
 import lombok.extern.slf4j.Slf4j;
 import org.alexmond.jsupervisor.config.ProcessConfig;
+import org.alexmond.jsupervisor.config.WatchdogAction;
 import org.alexmond.jsupervisor.model.ProcessStatus;
+import org.alexmond.jsupervisor.model.ProcessStatusInfo;
+import org.alexmond.jsupervisor.model.RunningProcess;
 import org.alexmond.jsupervisor.repository.EventRepository;
 import org.alexmond.jsupervisor.repository.ProcessRepository;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.ApplicationEventPublisher;
 
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.awaitility.Awaitility.await;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.DEFINED_PORT)
 @Slf4j
@@ -46,6 +65,217 @@ public class ProcessManagerTest {
         assertEquals(ProcessStatus.stopped, processRepository.getRunningProcessInfo(processName).getStatus());
     }
 
+    @Test
+    void testMonitoringDoesNotHoldPoolThreads() {
+        // More children than the async pool can hold (core 8, max 20, queue 25)
+        int processCount = 60;
+        for (int i = 0; i < processCount; i++) {
+            String processName = "reaperTestProcess" + i;
+            processRepository.addProcess(processName, createBaseProcessConfig());
+            processManager.startProcess(processName);
+            verifyProcessStatus(processName, 1, ProcessStatus.running);
+        }
+        for (int i = 0; i < processCount; i++) {
+            String processName = "reaperTestProcess" + i;
+            processManager.stopProcess(processName);
+            verifyProcessStatus(processName, 1, ProcessStatus.stopped);
+            processRepository.removeProcess(processName);
+        }
+    }
+
+    @Test
+    void testStatusSnapshotsAreConsistent() throws InterruptedException {
+        String processName = "snapshotTestProcess";
+        processRepository.addProcess(processName, createBaseProcessConfig());
+        AtomicBoolean cycling = new AtomicBoolean(true);
+        List<String> tornReads = new CopyOnWriteArrayList<>();
+        Thread reader = new Thread(() -> {
+            while (cycling.get()) {
+                ProcessStatusInfo info = processRepository.getRunningProcessInfo(processName);
+                if (info.getStatus() == ProcessStatus.running && info.getPid() == null
+                        || info.getStatus() == ProcessStatus.stopped && (info.getPid() != null || info.getExitCode() == null)) {
+                    tornReads.add(info.getStatus() + " pid=" + info.getPid() + " exitCode=" + info.getExitCode());
+                }
+            }
+        });
+        reader.start();
+        try {
+            for (int i = 0; i < 5; i++) {
+                processManager.startProcess(processName);
+                verifyProcessStatus(processName, 1, ProcessStatus.running);
+                processManager.stopProcess(processName);
+                verifyProcessStatus(processName, 1, ProcessStatus.stopped);
+            }
+        } finally {
+            cycling.set(false);
+            reader.join();
+        }
+        assertTrue(tornReads.isEmpty(), "torn reads: " + tornReads);
+
+        // a health result arriving after the exit must not overwrite it
+        processRepository.getRunningProcess(processName).setHealthStatus(ProcessStatus.healthy);
+        assertEquals(ProcessStatus.stopped, processRepository.getRunningProcessInfo(processName).getStatus());
+        processRepository.removeProcess(processName);
+    }
+
+    @Test
+    void testAutoRestartGivesUpOnCrashLoop() {
+        String processName = "crashLoopTestProcess";
+        ProcessConfig processConfig = createBaseProcessConfig();
+        processConfig.setCommand("sh");
+        processConfig.setArgs(List.of("-c", "exit 3"));
+        processConfig.setAutoRestart(true);
+        processConfig.setStartSeconds(1);
+        processConfig.setStartRetries(2);
+        processConfig.setRestartBackoff(Duration.ofMillis(50));
+        processConfig.setRestartBackoffMax(Duration.ofMillis(200));
+        processRepository.addProcess(processName, processConfig);
+
+        processManager.startProcess(processName);
+        verifyProcessStatus(processName, 1, ProcessStatus.crash_loop);
+        assertEquals(3, processRepository.getRunningProcessInfo(processName).getExitCode());
+        assertEquals(3, processRepository.getRunningProcess(processName).getRestartAttempts());
+        processRepository.removeProcess(processName);
+    }
+
+    @Test
+    void testStopCancelsPendingRestart() throws InterruptedException {
+        String processName = "pendingRestartTestProcess";
+        ProcessConfig processConfig = createBaseProcessConfig();
+        processConfig.setCommand("sh");
+        processConfig.setArgs(List.of("-c", "exit 3"));
+        processConfig.setAutoRestart(true);
+        processConfig.setRestartBackoff(Duration.ofSeconds(2));
+        processRepository.addProcess(processName, processConfig);
+
+        processManager.startProcess(processName);
+        await().atMost(1, TimeUnit.MINUTES)
+                .until(() -> processRepository.getRunningProcess(processName).getRestartFuture() != null);
+        processManager.stopProcess(processName);
+        Thread.sleep(3000);
+        assertEquals(ProcessStatus.unknown, processRepository.getRunningProcessInfo(processName).getStatus());
+        processRepository.removeProcess(processName);
+    }
+
+    @Test
+    void testRestartBackoffIsBounded() {
+        ProcessConfig processConfig = createBaseProcessConfig();
+        processConfig.setRestartBackoff(Duration.ofSeconds(1));
+        processConfig.setRestartBackoffMax(Duration.ofSeconds(10));
+        for (int attempt = 0; attempt < 64; attempt++) {
+            long expected = Math.min(1000L << Math.min(attempt, 30), 10_000L);
+            long delay = ProcessRestartManager.backoff(processConfig, attempt).toMillis();
+            assertTrue(delay >= expected * 0.8 && delay <= expected * 1.2, "attempt " + attempt + " delay " + delay);
+        }
+    }
+
+    @Test
+    void testRestartPromotesWarmSpare() {
+        String processName = "warmSpareTestProcess";
+        ProcessConfig processConfig = createBaseProcessConfig();
+        processConfig.setCommand("sh");
+        processConfig.setArgs(List.of("-c", "echo {{instance}}:{{port}}; sleep 100000"));
+        processConfig.setPort(19500);
+        processConfig.setWarmSpares(1);
+        processRepository.addProcess(processName, processConfig);
+        RunningProcess spare = processRepository.getStandbyProcesses(processName).get(0);
+        assertEquals("echo 1:19501; sleep 100000", spare.getArgs().get(1));
+        assertEquals("echo 0:19500; sleep 100000", processRepository.getRunningProcess(processName).getArgs().get(1));
+
+        processManager.startProcess(processName);
+        verifyProcessStatus(processName, 1, ProcessStatus.running);
+        await().atMost(1, TimeUnit.MINUTES).until(spare::isProcessReady);
+        assertEquals(1, processRepository.getRunningProcessInfo(processName).getReadySpares());
+
+        processManager.restartProcess(processName);
+        await().atMost(1, TimeUnit.MINUTES)
+                .until(() -> processRepository.getRunningProcessInfo(processName).getActiveInstance() == 1);
+        assertEquals(ProcessStatus.running, processRepository.getRunningProcessInfo(processName).getStatus());
+        RunningProcess replaced = processRepository.getStandbyProcesses(processName).get(0);
+        assertEquals(0, replaced.getInstanceId());
+        await().atMost(1, TimeUnit.MINUTES).until(replaced::isProcessReady);
+
+        processManager.stopProcess(processName);
+        verifyProcessStatus(processName, 1, ProcessStatus.stopped);
+        await().atMost(1, TimeUnit.MINUTES).until(() -> !replaced.isProcessRunning());
+        processRepository.removeProcess(processName);
+    }
+
+    @Test
+    void testScaleStartsAndStopsOnlyChangedInstances() {
+        String processName = "scaleTestProcess";
+        ProcessConfig processConfig = createBaseProcessConfig();
+        processConfig.setInstances(2);
+        processRepository.addProcess(processName, processConfig);
+
+        processManager.startProcess(processName);
+        await().atMost(1, TimeUnit.MINUTES)
+                .until(() -> processRepository.getRunningProcessInfo(processName).getRunningInstances() == 2);
+        Long instance1Pid = processRepository.getScaledInstances(processName).get(0).getPid();
+
+        processManager.scaleProcess(processName, 4).join();
+        await().atMost(1, TimeUnit.MINUTES)
+                .until(() -> processRepository.getRunningProcessInfo(processName).getRunningInstances() == 4);
+        assertEquals(4, processRepository.getRunningProcessInfo(processName).getInstances());
+        assertEquals(instance1Pid, processRepository.getScaledInstances(processName).get(0).getPid());
+
+        processManager.scaleProcess(processName, 2).join();
+        assertEquals(2, processRepository.getRunningProcessInfo(processName).getRunningInstances());
+        assertEquals(instance1Pid, processRepository.getScaledInstances(processName).get(0).getPid());
+
+        processManager.stopProcess(processName).join();
+        assertEquals(0, processRepository.getRunningProcessInfo(processName).getRunningInstances());
+        processRepository.removeProcess(processName);
+    }
+
+    @Test
+    @EnabledOnOs(OS.LINUX)
+    void testNotifySocketReadinessAndWatchdog() throws IOException {
+        String processName = "notifyTestProcess";
+        ProcessConfig processConfig = createBaseProcessConfig();
+        processConfig.setNotify(true);
+        processConfig.setWatchdogTimeout(Duration.ofSeconds(2));
+        processConfig.setWatchdogAction(WatchdogAction.UNHEALTHY);
+        processRepository.addProcess(processName, processConfig);
+
+        processManager.startProcess(processName);
+        verifyProcessStatus(processName, 1, ProcessStatus.running);
+        RunningProcess runningProcess = processRepository.getRunningProcess(processName);
+        assertFalse(runningProcess.isProcessReady());
+
+        // the child would connect to this socket itself; the test sends on its behalf
+        Path socket = notifySocketOf(runningProcess.getPid());
+        assertNotNull(socket);
+        sendNotification(socket, "STATUS=Accepting connections\nREADY=1\n");
+        verifyProcessStatus(processName, 1, ProcessStatus.healthy);
+        assertTrue(runningProcess.isProcessReady());
+        assertEquals("Accepting connections", processRepository.getRunningProcessInfo(processName).getStatusText());
+
+        verifyProcessStatus(processName, 1, ProcessStatus.unhealthy);
+        sendNotification(socket, "WATCHDOG=1");
+        verifyProcessStatus(processName, 1, ProcessStatus.healthy);
+
+        processManager.stopProcess(processName).join();
+        await().atMost(1, TimeUnit.MINUTES).until(() -> !Files.exists(socket));
+        processRepository.removeProcess(processName);
+    }
+
+    private static Path notifySocketOf(long pid) throws IOException {
+        for (String variable : Files.readString(Path.of("/proc", String.valueOf(pid), "environ")).split("\0")) {
+            if (variable.startsWith(NotifySocketServer.NOTIFY_SOCKET_ENV + "=")) {
+                return Path.of(variable.substring(NotifySocketServer.NOTIFY_SOCKET_ENV.length() + 1));
+            }
+        }
+        return null;
+    }
+
+    private static void sendNotification(Path socket, String message) throws IOException {
+        try (SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX)) {
+            channel.connect(UnixDomainSocketAddress.of(socket));
+            channel.write(ByteBuffer.wrap(message.getBytes(StandardCharsets.UTF_8)));
+        }
+    }
+
     private ProcessConfig createBaseProcessConfig() {
         ProcessConfig processConfig = new ProcessConfig();
         processConfig.setCommand("sleep");
@@ -0,0 +1,133 @@
+package org.alexmond.jsupervisor.service;
+
+import org.alexmond.jsupervisor.config.EventsConfig;
+import org.alexmond.jsupervisor.model.ProcessEventEntry;
+import org.alexmond.jsupervisor.model.ProcessStatus;
+import org.alexmond.jsupervisor.repository.RingBufferEventRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies count, age and memory based retention and the queries of the ring buffer event store.
+ */
+public class RingBufferEventRepositoryTest {
+
+    private static ProcessEventEntry event(String processName, ProcessStatus status, LocalDateTime eventTime) {
+        ProcessEventEntry entry = new ProcessEventEntry();
+        entry.setProcessName(processName);
+        entry.setNewStatus(status);
+        entry.setEventTime(eventTime);
+        return entry;
+    }
+
+    private static List<Long> ids(Page<ProcessEventEntry> page) {
+        return page.getContent().stream().map(ProcessEventEntry::getId).toList();
+    }
+
+    @Test
+    void testEvictsOldestEventWhenFull() {
+        EventsConfig eventsConfig = new EventsConfig();
+        eventsConfig.setMaxEvents(3);
+        RingBufferEventRepository repository = new RingBufferEventRepository(eventsConfig);
+        for (int i = 0; i < 5; i++) {
+            repository.save(event("p" + (i % 2), ProcessStatus.running, LocalDateTime.now()));
+        }
+
+        assertEquals(3, repository.count());
+        assertFalse(repository.existsById(2L));
+        assertTrue(repository.existsById(3L));
+        Page<ProcessEventEntry> newest = repository.findAll(PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "eventTime")));
+        assertEquals(List.of(5L, 4L), ids(newest));
+        assertEquals(3, newest.getTotalElements());
+
+        repository.deleteById(4L);
+        assertEquals(2, repository.count());
+        assertEquals(List.of(3L, 5L), ids(repository.findByProcessName("p0", PageRequest.of(0, 10))));
+        repository.save(event("p1", ProcessStatus.stopped, LocalDateTime.now()));
+        assertEquals(List.of(5L, 6L), ids(repository.findAll(PageRequest.of(0, 10))));
+        assertEquals(List.of(6L), ids(repository.findByNewStatus(ProcessStatus.stopped, PageRequest.of(0, 10))));
+    }
+
+    @Test
+    void testEvictsEventsOlderThanMaxAge() {
+        EventsConfig eventsConfig = new EventsConfig();
+        eventsConfig.setMaxAge(Duration.ofHours(1));
+        RingBufferEventRepository repository = new RingBufferEventRepository(eventsConfig);
+        repository.save(event("old", ProcessStatus.running, LocalDateTime.now().minusHours(2)));
+        repository.save(event("new", ProcessStatus.running, LocalDateTime.now()));
+
+        assertEquals(1, repository.count());
+        assertFalse(repository.existsById(1L));
+        assertEquals("new", repository.findById(2L).orElseThrow().getProcessName());
+    }
+
+    @Test
+    void testCapacityIsLimitedByMemoryCap() {
+        EventsConfig eventsConfig = new EventsConfig();
+        eventsConfig.setMaxEvents(1000);
+        eventsConfig.setMaxMemory(DataSize.ofKilobytes(16));
+        RingBufferEventRepository repository = new RingBufferEventRepository(eventsConfig);
+
+        assertTrue(repository.getCapacity() < 1000);
+        for (int i = 0; i < 1000; i++) {
+            repository.save(event("p", ProcessStatus.running, LocalDateTime.now()));
+        }
+        assertEquals(repository.getCapacity(), repository.count());
+    }
+
+    @Test
+    void testSortsByOtherProperties() {
+        RingBufferEventRepository repository = new RingBufferEventRepository(new EventsConfig());
+        repository.save(event("b", ProcessStatus.running, LocalDateTime.now()));
+        repository.save(event("a", ProcessStatus.stopped, LocalDateTime.now()));
+        repository.save(event("c", ProcessStatus.failed, LocalDateTime.now()));
+
+        Page<ProcessEventEntry> page = repository.findAll(PageRequest.of(0, 2, Sort.by("processName")));
+        assertEquals(List.of(2L, 1L), ids(page));
+        assertEquals(3, page.getTotalElements());
+    }
+
+    @Test
+    void testQueriesIndexesByProcessStatusAndTimeRange() {
+        EventsConfig eventsConfig = new EventsConfig();
+        eventsConfig.setMaxEvents(100);
+        RingBufferEventRepository repository = new RingBufferEventRepository(eventsConfig);
+        LocalDateTime start = LocalDateTime.now().minusMinutes(10);
+        for (int i = 0; i < 150; i++) {
+            ProcessStatus status = i % 3 == 0 ? ProcessStatus.failed : ProcessStatus.running;
+            repository.save(event("p" + (i % 2), status, start.plusSeconds(i)));
+        }
+
+        // events 51..150 are kept, at start + 50s .. start + 149s
+        Page<ProcessEventEntry> range = repository.findByEventTimeBetween(start.plusSeconds(60), start.plusSeconds(69),
+                PageRequest.of(1, 4, Sort.by(Sort.Direction.DESC, "eventTime")));
+        assertEquals(10, range.getTotalElements());
+        assertEquals(List.of(66L, 65L, 64L, 63L), ids(range));
+
+        Page<ProcessEventEntry> process = repository.findByProcessNameAndEventTimeBetween("p1", start.plusSeconds(60), null,
+                PageRequest.of(0, 3, Sort.by(Sort.Direction.ASC, "id")));
+        assertEquals(45, process.getTotalElements());
+        assertEquals(List.of(62L, 64L, 66L), ids(process));
+
+        Page<ProcessEventEntry> failed = repository.findByNewStatusAndEventTimeBetween(ProcessStatus.failed, null,
+                start.plusSeconds(60), PageRequest.of(0, 10, Sort.by(Sort.Direction.ASC, "eventTime")));
+        assertEquals(List.of(52L, 55L, 58L, 61L), ids(failed));
+        assertEquals(50, repository.findByProcessName("p0", PageRequest.of(0, 1)).getTotalElements());
+
+        repository.deleteById(64L);
+        assertEquals(List.of(62L, 66L, 68L), ids(repository.findByProcessNameAndEventTimeBetween("p1", start.plusSeconds(60),
+                null, PageRequest.of(0, 3, Sort.by(Sort.Direction.ASC, "id")))));
+        assertEquals(0, repository.findByProcessName("unknown", PageRequest.of(0, 10)).getTotalElements());
+    }
+}
@@ -10,14 +10,22 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.alexmond.jsupervisor.model.ProcessEventEntry;
 import org.alexmond.jsupervisor.model.ProcessStatus;
+import org.alexmond.jsupervisor.repository.ProcessRepository;
 import org.alexmond.jsupervisor.service.EventManager;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
 
 /**
  * REST Controller for process event management.
@@ -34,6 +42,8 @@ public class EventController {
     private static final int MAX_PAGE_SIZE = 100;
     private static final int DEFAULT_PAGE_SIZE = 20;
     private final EventManager eventManager;
+    private final EventStreamManager eventStreamManager;
+    private final ProcessRepository processRepository;
 
     /**
      * Get paginated list of all events.
@@ -41,7 +51,7 @@ public class EventController {
     @GetMapping
     @Operation(
             summary = "Get paginated events",
-            description = "Retrieves a paginated list of all process events with customizable sorting",
+            description = "Retrieves a paginated list of all process events with customizable sorting, optionally limited to a time range",
             responses = {
                     @ApiResponse(
                             responseCode = "200",
@@ -62,14 +72,20 @@ public class EventController {
             @RequestParam(defaultValue = "eventTime") String sortBy,
 
             @Parameter(description = "Sort direction", example = "desc", schema = @Schema(allowableValues = {"asc", "desc"}))
-            @RequestParam(defaultValue = "desc") String sortDirection) {
+            @RequestParam(defaultValue = "desc") String sortDirection,
+
+            @Parameter(description = "Earliest event time, inclusive (ISO-8601)", example = "2025-11-17T10:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+
+            @Parameter(description = "Latest event time, inclusive (ISO-8601)", example = "2025-11-17T12:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
 
         if (size > MAX_PAGE_SIZE) {
             log.warn("Requested page size {} exceeds maximum {}, using maximum", size, MAX_PAGE_SIZE);
             size = MAX_PAGE_SIZE;
         }
 
-        Page<ProcessEventEntry> events = eventManager.getEvents(page, size, sortBy, sortDirection);
+        Page<ProcessEventEntry> events = eventManager.getEvents(page, size, sortBy, sortDirection, from, to);
         return ResponseEntity.ok(events);
     }
 
@@ -120,14 +136,20 @@ public class EventController {
             @RequestParam(defaultValue = "eventTime") String sortBy,
 
             @Parameter(description = "Sort direction", example = "desc")
-            @RequestParam(defaultValue = "desc") String sortDirection) {
+            @RequestParam(defaultValue = "desc") String sortDirection,
+
+            @Parameter(description = "Earliest event time, inclusive (ISO-8601)", example = "2025-11-17T10:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+
+            @Parameter(description = "Latest event time, inclusive (ISO-8601)", example = "2025-11-17T12:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
 
         if (size > MAX_PAGE_SIZE) {
             size = MAX_PAGE_SIZE;
         }
 
         Page<ProcessEventEntry> events = eventManager.getEventsByProcessName(
-                processName, page, size, sortBy, sortDirection
+                processName, page, size, sortBy, sortDirection, from, to
         );
         return ResponseEntity.ok(events);
     }
@@ -168,18 +190,64 @@ public class EventController {
             @RequestParam(defaultValue = "eventTime") String sortBy,
 
             @Parameter(description = "Sort direction", example = "desc")
-            @RequestParam(defaultValue = "desc") String sortDirection) {
+            @RequestParam(defaultValue = "desc") String sortDirection,
+
+            @Parameter(description = "Earliest event time, inclusive (ISO-8601)", example = "2025-11-17T10:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+
+            @Parameter(description = "Latest event time, inclusive (ISO-8601)", example = "2025-11-17T12:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
 
         if (size > MAX_PAGE_SIZE) {
             size = MAX_PAGE_SIZE;
         }
 
         Page<ProcessEventEntry> events = eventManager.getEventsByStatus(
-                status, page, size, sortBy, sortDirection
+                status, page, size, sortBy, sortDirection, from, to
         );
         return ResponseEntity.ok(events);
     }
 
+    /**
+     * Stream events as they are published.
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+            summary = "Stream events",
+            description = "Pushes process events as Server-Sent Events as they are published, each with its event ID. "
+                    + "A client reconnecting with a Last-Event-ID header first receives the stored events it missed. "
+                    + "Slow clients are disconnected or skip events instead of being buffered without limit",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Event stream opened")
+            }
+    )
+    public SseEmitter streamEvents(
+            @Parameter(description = "Only stream events of this process", example = "myapp")
+            @RequestParam(required = false) String processName,
+
+            @Parameter(description = "Only stream events of processes in this group", example = "backend")
+            @RequestParam(required = false) String group,
+
+            @Parameter(description = "Only stream events with this new status", example = "failed")
+            @RequestParam(required = false) ProcessStatus status,
+
+            @Parameter(description = "ID of the last event received, to resume after it")
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+
+        Predicate<ProcessEventEntry> filter = entry -> true;
+        if (processName != null) {
+            filter = filter.and(entry -> processName.equals(entry.getProcessName()));
+        }
+        if (group != null) {
+            Set<String> members = Set.copyOf(processRepository.getProcessGroups().getOrDefault(group, List.of()));
+            filter = filter.and(entry -> members.contains(entry.getProcessName()));
+        }
+        if (status != null) {
+            filter = filter.and(entry -> status == entry.getNewStatus());
+        }
+        return eventStreamManager.open(filter, lastEventId);
+    }
+
     /**
      * Get total event count.
      */
@@ -0,0 +1,238 @@
+package org.alexmond.jsupervisor.controller;
+
+import lombok.extern.slf4j.Slf4j;
+import org.alexmond.jsupervisor.config.EventStreamOverflowPolicy;
+import org.alexmond.jsupervisor.config.SupervisorConfig;
+import org.alexmond.jsupervisor.model.ProcessEventEntry;
+import org.alexmond.jsupervisor.service.EventManager;
+import org.alexmond.jsupervisor.service.ProcessEventBus;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Streams process events to Server-Sent Events clients.
+ * <p>
+ * Every client subscribes to the {@link ProcessEventBus} with its own bounded buffer, so the
+ * event writer thread only filters and buffers an event and never waits for a client. The
+ * buffer is sent by a task of a shared thread pool that only runs while the client has events
+ * pending. A client connecting with the id of the last event it received first gets the stored
+ * events after that id and then the live events, skipping the ones it already got.
+ * <p>
+ * When the buffer of a client is full, the client is either disconnected, so that it reconnects
+ * and resumes from the event store, or the events that do not fit are dropped and the client is
+ * told how many, depending on the configured {@link EventStreamOverflowPolicy}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "jsupervisor.rest", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class EventStreamManager implements DisposableBean {
+
+    private static final int REPLAY_BATCH_SIZE = 256;
+
+    private final ProcessEventBus processEventBus;
+    private final EventManager eventManager;
+    private final int bufferSize;
+    private final EventStreamOverflowPolicy overflowPolicy;
+    private final Set<Client> clients = ConcurrentHashMap.newKeySet();
+    private final ExecutorService senders;
+
+    /**
+     * Creates the stream manager.
+     *
+     * @param processEventBus  bus the clients subscribe to
+     * @param eventManager     source of the stored events a resuming client missed
+     * @param supervisorConfig buffer size and overflow policy of the clients
+     */
+    public EventStreamManager(ProcessEventBus processEventBus, EventManager eventManager,
+                              SupervisorConfig supervisorConfig) {
+        this.processEventBus = processEventBus;
+        this.eventManager = eventManager;
+        this.bufferSize = Math.max(1, supervisorConfig.getEvents().getStreamBufferSize());
+        this.overflowPolicy = supervisorConfig.getEvents().getStreamOverflowPolicy();
+        AtomicInteger threads = new AtomicInteger();
+        this.senders = Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "jsupervisor-sse-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Opens an event stream.
+     *
+     * @param filter      selects the events sent to the client
+     * @param lastEventId id of the last event the client received, or null to only send new events
+     * @return the emitter to return from the request handler
+     */
+    public SseEmitter open(Predicate<ProcessEventEntry> filter, Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(0L);
+        Client client = new Client(emitter, filter, lastEventId);
+        emitter.onCompletion(client::close);
+        emitter.onTimeout(client::close);
+        emitter.onError(error -> client.close());
+        clients.add(client);
+        processEventBus.subscribe(client);
+        client.schedule();
+        log.debug("Opened event stream, {} clients", clients.size());
+        return emitter;
+    }
+
+    /**
+     * Returns the number of connected clients.
+     *
+     * @return number of open event streams
+     */
+    public int getClientCount() {
+        return clients.size();
+    }
+
+    /**
+     * Closes all event streams and stops the sender threads.
+     */
+    @Override
+    public void destroy() {
+        clients.forEach(Client::disconnect);
+        senders.shutdownNow();
+    }
+
+    /**
+     * One connected client with its buffer of events not sent yet.
+     */
+    private final class Client implements Consumer<ProcessEventEntry> {
+
+        private final SseEmitter emitter;
+        private final Predicate<ProcessEventEntry> filter;
+        private final BlockingQueue<ProcessEventEntry> buffer = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicLong dropped = new AtomicLong();
+        private Long resumeAfter;
+        private long lastSentId;
+        private volatile boolean closed;
+
+        private Client(SseEmitter emitter, Predicate<ProcessEventEntry> filter, Long lastEventId) {
+            this.emitter = emitter;
+            this.filter = filter;
+            this.resumeAfter = lastEventId;
+        }
+
+        /**
+         * Buffers a published event; called on the event writer thread.
+         */
+        @Override
+        public void accept(ProcessEventEntry entry) {
+            if (closed || !filter.test(entry)) {
+                return;
+            }
+            if (!buffer.offer(entry)) {
+                if (overflowPolicy == EventStreamOverflowPolicy.DISCONNECT) {
+                    log.info("Disconnecting event stream client that fell {} events behind", bufferSize);
+                    disconnect();
+                    return;
+                }
+                dropped.incrementAndGet();
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            if (closed || !scheduled.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                senders.execute(this::send);
+            } catch (RejectedExecutionException e) {
+                scheduled.set(false);
+                disconnect();
+            }
+        }
+
+        private void send() {
+            try {
+                if (resumeAfter != null) {
+                    replay(resumeAfter);
+                    resumeAfter = null;
+                }
+                ProcessEventEntry entry;
+                while (!closed && (entry = buffer.poll()) != null) {
+                    long skipped = dropped.getAndSet(0);
+                    if (skipped > 0) {
+                        emitter.send(SseEmitter.event().comment("dropped " + skipped + " events"));
+                    }
+                    sendEvent(entry);
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Event stream client disconnected: {}", e.toString());
+                close();
+            } finally {
+                scheduled.set(false);
+            }
+            if (!buffer.isEmpty()) {
+                schedule();
+            }
+        }
+
+        /**
+         * Sends the stored events after an id; live events buffered meanwhile that were
+         * already stored are skipped afterwards by their id.
+         */
+        private void replay(long after) throws IOException {
+            List<ProcessEventEntry> batch;
+            do {
+                batch = eventManager.getEventsAfter(after, REPLAY_BATCH_SIZE);
+                for (ProcessEventEntry entry : batch) {
+                    if (closed) {
+                        return;
+                    }
+                    after = entry.getId();
+                    if (filter.test(entry)) {
+                        sendEvent(entry);
+                    }
+                }
+            } while (batch.size() == REPLAY_BATCH_SIZE);
+            lastSentId = Math.max(lastSentId, after);
+        }
+
+        private void sendEvent(ProcessEventEntry entry) throws IOException {
+            if (entry.getId() <= lastSentId) {
+                return;
+            }
+            emitter.send(SseEmitter.event()
+                    .id(String.valueOf(entry.getId()))
+                    .data(entry, MediaType.APPLICATION_JSON));
+            lastSentId = entry.getId();
+        }
+
+        private void disconnect() {
+            close();
+            emitter.complete();
+        }
+
+        private void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            processEventBus.unsubscribe(this);
+            clients.remove(this);
+            buffer.clear();
+        }
+    }
+}
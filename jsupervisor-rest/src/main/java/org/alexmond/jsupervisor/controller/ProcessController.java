@@ -8,6 +8,7 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.alexmond.jsupervisor.controller.model.ResponseMessage;
+import org.alexmond.jsupervisor.model.HealthCheckStats;
 import org.alexmond.jsupervisor.model.ProcessStatusInfo;
 import org.alexmond.jsupervisor.service.ProcessManager;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -78,6 +79,20 @@ public class ProcessController {
         return ResponseEntity.ok().build();
     }
 
+    @PostMapping("/scale/{name}")
+    @Operation(summary = "Scale process", description = "Change the number of instances of a process, starting or stopping only the added or removed instances")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Process scaling initiated successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid number of instances or process not found"),
+            @ApiResponse(responseCode = "500", description = "Failed to scale process")
+    })
+    public ResponseEntity<Void> scaleProcess(
+            @Parameter(description = "Process name") @PathVariable String name,
+            @Parameter(description = "New number of instances") @RequestParam int instances) {
+        processManager.scaleProcess(name, instances);
+        return ResponseEntity.ok().build();
+    }
+
     @GetMapping("/info/{name}")
     @Operation(summary = "Get process status", description = "Get the current status of a specific process")
     @ApiResponses(value = {
@@ -89,4 +104,16 @@ public class ProcessController {
             @Parameter(description = "Process name") @PathVariable String name) {
         return processManager.getRunningProcessInfo(name);
     }
+
+    @GetMapping("/health/{name}")
+    @Operation(summary = "Get health check statistics", description = "Get the probe latency histogram and the most recent probe results of a specific process")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved health check statistics"),
+            @ApiResponse(responseCode = "400", description = "Process not found or without health check"),
+            @ApiResponse(responseCode = "500", description = "Failed to retrieve health check statistics")
+    })
+    public HealthCheckStats getHealthCheckStats(
+            @Parameter(description = "Process name") @PathVariable String name) {
+        return processManager.getHealthCheckStats(name);
+    }
 }
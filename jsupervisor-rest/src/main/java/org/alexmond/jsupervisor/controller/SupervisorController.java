@@ -5,7 +5,11 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.alexmond.jsupervisor.config.SupervisorConfig;
+import org.alexmond.jsupervisor.healthcheck.HealthCheckScheduler;
+import org.alexmond.jsupervisor.model.EventBusStats;
+import org.alexmond.jsupervisor.model.HealthCheckSchedulerStats;
 import org.alexmond.jsupervisor.model.SupervisorInfo;
+import org.alexmond.jsupervisor.service.ProcessEventBus;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -24,10 +28,24 @@ import org.springframework.web.bind.annotation.RestController;
 public class SupervisorController {
 
     private final SupervisorConfig supervisorConfig;
+    private final HealthCheckScheduler healthCheckScheduler;
+    private final ProcessEventBus processEventBus;
 
     @GetMapping("/info")
     @Operation(summary = "Get supervisor info", description = "Retrieve basic supervisor information")
     public SupervisorInfo getSupervisorInfo() {
         return new SupervisorInfo(supervisorConfig);
     }
+
+    @GetMapping("/health-checks")
+    @Operation(summary = "Get health check scheduler statistics", description = "Retrieve the number of scheduled health check probes and their scheduling lag")
+    public HealthCheckSchedulerStats getHealthCheckSchedulerStats() {
+        return healthCheckScheduler.getStats();
+    }
+
+    @GetMapping("/events")
+    @Operation(summary = "Get event pipeline statistics", description = "Retrieve the depth of the process event queue and the number of persisted and dropped events")
+    public EventBusStats getEventBusStats() {
+        return processEventBus.getStats();
+    }
 }
@@ -0,0 +1,83 @@
+package org.alexmond.jsupervisor.controller;
+
+import lombok.extern.slf4j.Slf4j;
+import org.alexmond.jsupervisor.model.ProcessEventEntry;
+import org.alexmond.jsupervisor.model.ProcessStatus;
+import org.alexmond.jsupervisor.repository.EventRepository;
+import org.alexmond.jsupervisor.service.ProcessEventBus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Slf4j
+class RestEventControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ProcessEventBus processEventBus;
+    @Autowired
+    private EventRepository eventRepository;
+
+    private static ProcessEventEntry event(String processName, ProcessStatus status) {
+        ProcessEventEntry entry = new ProcessEventEntry();
+        entry.setProcessName(processName);
+        entry.setNewStatus(status);
+        entry.setEventTime(LocalDateTime.now());
+        return entry;
+    }
+
+    private List<Long> storedIds(String processName) {
+        return eventRepository.findByProcessName(processName, PageRequest.of(0, 10, Sort.by("id")))
+                .getContent().stream().map(ProcessEventEntry::getId).toList();
+    }
+
+    @Test
+    void testStreamEvents_ResumesAfterLastEventIdAndFiltersByProcess() throws Exception {
+        long lastEventId = eventRepository.getLastId();
+        processEventBus.publish(event("sse-web", ProcessStatus.running));
+        processEventBus.publish(event("sse-db", ProcessStatus.running));
+        processEventBus.publish(event("sse-web", ProcessStatus.failed));
+        await().atMost(10, TimeUnit.SECONDS).until(() -> storedIds("sse-web").size() == 2);
+        List<Long> missed = storedIds("sse-web");
+
+        MvcResult result = mockMvc.perform(get("/api/v1/events/stream")
+                        .param("processName", "sse-web")
+                        .header("Last-Event-ID", lastEventId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        await().atMost(10, TimeUnit.SECONDS)
+                .until(() -> result.getResponse().getContentAsString().contains("id:" + missed.get(1) + "\n"));
+        String replayed = result.getResponse().getContentAsString();
+        assertEquals(replayed.indexOf("id:" + missed.get(0) + "\n"), replayed.indexOf("id:"));
+        assertFalse(replayed.contains("sse-db"));
+
+        processEventBus.publish(event("sse-db", ProcessStatus.stopped));
+        processEventBus.publish(event("sse-web", ProcessStatus.stopped));
+        await().atMost(10, TimeUnit.SECONDS).until(() -> storedIds("sse-web").size() == 3);
+        long live = storedIds("sse-web").get(2);
+        await().atMost(10, TimeUnit.SECONDS)
+                .until(() -> result.getResponse().getContentAsString().contains("id:" + live + "\n"));
+        String content = result.getResponse().getContentAsString();
+        assertFalse(content.contains("sse-db"));
+        assertEquals(content.indexOf("id:" + missed.get(0) + "\n"), content.lastIndexOf("id:" + missed.get(0) + "\n"));
+    }
+}
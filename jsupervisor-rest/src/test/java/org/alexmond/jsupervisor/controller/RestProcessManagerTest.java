@@ -2,7 +2,10 @@ package org.alexmond.jsupervisor.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
+import org.alexmond.jsupervisor.config.HealthCheckType;
+import org.alexmond.jsupervisor.config.PortHealthCheckConfig;
 import org.alexmond.jsupervisor.config.ProcessConfig;
+import org.alexmond.jsupervisor.model.HealthCheckStats;
 import org.alexmond.jsupervisor.model.ProcessStatus;
 import org.alexmond.jsupervisor.model.ProcessStatusInfo;
 import org.alexmond.jsupervisor.repository.ProcessRepository;
@@ -19,6 +22,8 @@ import java.util.concurrent.TimeUnit;
 
 import static org.awaitility.Awaitility.await;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -85,6 +90,48 @@ public class RestProcessManagerTest {
 
     }
 
+    @Test
+    void testGetHealthCheckStats() throws Exception {
+        String processName = "probedTestProcess";
+        ProcessConfig processConfig = createBaseProcessConfig();
+        processConfig.setHealthCheckType(HealthCheckType.PORT);
+        PortHealthCheckConfig portHealthCheckConfig = new PortHealthCheckConfig();
+        portHealthCheckConfig.setHost("localhost");
+        portHealthCheckConfig.setPort(1000);
+        portHealthCheckConfig.setInitialDelaySeconds(0);
+        portHealthCheckConfig.setPeriodSeconds(1);
+        processConfig.setPortHealthCheck(portHealthCheckConfig);
+        processRepository.addProcess(processName, processConfig);
+        processRepository.addProcess("unprobedTestProcess", createBaseProcessConfig());
+        try {
+            mockMvc.perform(post(apiprefix + "/start/{name}", processName))
+                    .andExpect(status().isOk());
+            await().atMost(1, TimeUnit.MINUTES)
+                    .until(() -> processRepository.getRunningProcessInfo(processName).getHealthCheck().getLatency().getProbes() >= 2);
+
+            MvcResult result = mockMvc.perform(get(apiprefix + "/health/{name}", processName))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            HealthCheckStats stats = objectMapper.readValue(result.getResponse().getContentAsString(), HealthCheckStats.class);
+
+            assertEquals(stats.getLatency().getProbes(), stats.getLatency().getFailures());
+            assertFalse(stats.getRecentResults().isEmpty());
+            assertFalse(stats.getRecentResults().get(0).isSuccess());
+            assertNotNull(stats.getRecentResults().get(0).getError());
+
+            mockMvc.perform(post(apiprefix + "/stop/{name}", processName))
+                    .andExpect(status().isOk());
+            verifyProcessStatus(processName, 1, ProcessStatus.stopped);
+
+            mockMvc.perform(get(apiprefix + "/health/{name}", "unprobedTestProcess"))
+                    .andExpect(status().isBadRequest());
+        } finally {
+            // the application context is shared, other tests expect every registered process to start
+            processRepository.removeProcess(processName);
+            processRepository.removeProcess("unprobedTestProcess");
+        }
+    }
+
     private ProcessConfig createBaseProcessConfig() {
         ProcessConfig processConfig = new ProcessConfig();
         processConfig.setCommand("sleep");
@@ -4,6 +4,8 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.alexmond.jsupervisor.config.ProcessConfig;
 import org.alexmond.jsupervisor.config.SupervisorConfig;
+import org.alexmond.jsupervisor.model.EventBusStats;
+import org.alexmond.jsupervisor.model.HealthCheckSchedulerStats;
 import org.alexmond.jsupervisor.model.SupervisorInfo;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -53,4 +55,31 @@ class RestSupervisorControllerTest {
         assertEquals("Test Description", info.getDescription());
         assertTrue(info.getPhysicalCpu() != null);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetHealthCheckSchedulerStats_ReturnsStats() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/v1/supervisor/health-checks"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        HealthCheckSchedulerStats stats = objectMapper.readValue(result.getResponse().getContentAsString(),
+                HealthCheckSchedulerStats.class);
+
+        assertTrue(stats.getScheduledProbes() >= 0);
+        assertTrue(stats.getMaxLagMillis() >= stats.getMeanLagMillis());
+    }
+
+    @Test
+    void testGetEventBusStats_ReturnsStats() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/v1/supervisor/events"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        EventBusStats stats = objectMapper.readValue(result.getResponse().getContentAsString(),
+                EventBusStats.class);
+
+        assertTrue(stats.getQueueCapacity() > 0);
+        assertTrue(stats.getQueueDepth() <= stats.getQueueCapacity());
+        assertTrue(stats.getPublishedEvents() >= stats.getPersistedEvents());
+    }
+}
@@ -33,5 +33,6 @@ public class UiConfig {
         put(ProcessStatus.unknown, "bg-info");
         put(ProcessStatus.healthy, "bg-success");
         put(ProcessStatus.unhealthy, "bg-warning");
+        put(ProcessStatus.crash_loop, "bg-danger");
     }};
 }